@@ -0,0 +1,168 @@
+package dungeonadventure.bench;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.Action;
+
+/**
+ * Compares finding a command word by scanning every Action's aliases
+ * against the precomputed alias index, with the game's own vocabulary
+ * and with synthetic vocabularies of growing size.
+ * Run with: java -jar bench/target/benchmarks.jar AliasLookupBenchmark
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AliasLookupBenchmark {
+	
+	/**
+	 * The game's own command words, one of them unknown
+	 */
+	@State(Scope.Thread)
+	public static class GameVocabulary {
+		
+		final String[] words = {"look", "take", "north", "insert", "defuse", "backwards", "quit", "xyzzy"};
+		int next;
+		
+		/**
+		 * Get the word to look up next
+		 * @return Word in the cycle of words
+		 */
+		String nextWord() {
+			return this.words[this.next++ % this.words.length];
+		}
+	}
+	
+	/**
+	 * A synthetic vocabulary, split into groups of aliases like the Actions
+	 */
+	@State(Scope.Thread)
+	public static class SyntheticVocabulary {
+		
+		private static final int GROUP_SIZE = 4;
+		
+		@Param({"16", "64", "256", "1024", "4096"})
+		int vocabulary;
+		
+		String[][] groups;
+		HashMap<String, Integer> index;
+		String[] words;
+		int next;
+		
+		/**
+		 * Build the vocabulary and its index
+		 */
+		@Setup
+		public void setUp() {
+			this.groups = new String[this.vocabulary / GROUP_SIZE][GROUP_SIZE];
+			this.index = new HashMap<String, Integer>(this.vocabulary * 2);
+			this.words = new String[this.vocabulary];
+			for (int i = 0; i < this.vocabulary; i++) {
+				String word = "alias" + i;
+				this.groups[i / GROUP_SIZE][i % GROUP_SIZE] = word;
+				this.index.put(word, i / GROUP_SIZE);
+				// Look words up in a scattered order, not in declaration order
+				this.words[(int) ((i * 7919L) % this.vocabulary)] = new String(word);
+			}
+		}
+		
+		/**
+		 * Get the word to look up next
+		 * @return Word in the scattered order
+		 */
+		String nextWord() {
+			return this.words[this.next++ % this.words.length];
+		}
+	}
+	
+	/**
+	 * Scanning the Actions for a game word
+	 * @param vocabulary Game's words
+	 * @return Found Action's ordinal or -1
+	 */
+	@Benchmark
+	public long gameScan(GameVocabulary vocabulary) {
+		return scan(Action.values(), vocabulary.nextWord());
+	}
+	
+	/**
+	 * Looking a game word up in the alias index
+	 * @param vocabulary Game's words
+	 * @return Found Action's ordinal or -1
+	 */
+	@Benchmark
+	public long gameIndex(GameVocabulary vocabulary) {
+		Action a = Action.forAlias(vocabulary.nextWord());
+		return a == null ? -1 : a.ordinal();
+	}
+	
+	/**
+	 * Scanning the groups of a synthetic vocabulary for a word
+	 * @param vocabulary Synthetic vocabulary
+	 * @return Found group's index or -1
+	 */
+	@Benchmark
+	public long syntheticScan(SyntheticVocabulary vocabulary) {
+		return scan(vocabulary.groups, vocabulary.nextWord());
+	}
+	
+	/**
+	 * Looking a word up in the index of a synthetic vocabulary
+	 * @param vocabulary Synthetic vocabulary
+	 * @return Found group's index or -1
+	 */
+	@Benchmark
+	public long syntheticIndex(SyntheticVocabulary vocabulary) {
+		Integer group = vocabulary.index.get(vocabulary.nextWord());
+		return group == null ? -1 : group;
+	}
+	
+	/**
+	 * The old way: compare the word to every alias of every Action
+	 * @param actions Actions to scan
+	 * @param word Word to find
+	 * @return Found Action's ordinal or -1
+	 */
+	private static long scan(Action[] actions, String word) {
+		for (Action a : actions) {
+			for (String alias : a.getAliases()) {
+				if (word.compareTo(alias) == 0) {
+					return a.ordinal();
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * The old way for a synthetic vocabulary
+	 * @param groups Alias groups to scan
+	 * @param word Word to find
+	 * @return Found group's index or -1
+	 */
+	private static long scan(String[][] groups, String word) {
+		for (int g = 0; g < groups.length; g++) {
+			for (String alias : groups[g]) {
+				if (word.compareTo(alias) == 0) {
+					return g;
+				}
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,128 @@
+package dungeonadventure.bench;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.CommandInterpreter;
+import dungeonadventure.ItemIndex;
+import dungeonadventure.WorldTemplate;
+import dungeonadventure.items.CDPlayer;
+import dungeonadventure.items.Door;
+import dungeonadventure.items.Food;
+
+/**
+ * Measures interpreting typical commands. Once warmed up, tokenizing and
+ * looking up the words must not allocate: commands without objects
+ * allocate nothing, and commands with objects only allocate their
+ * ParsedCommand, misspelled ones included. The setup checks this and fails
+ * the run if they allocate more, or if the JVM can't count allocations.
+ * CommandInterpreterAllocationTest checks the same in the build.
+ * Run with: java -jar bench/target/benchmarks.jar CommandParsingBenchmark -prof gc
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CommandParsingBenchmark {
+	
+	// Calls per round of the allocation check
+	private static final int CHECK_OPS = 200000;
+	
+	// Upper bound for one ParsedCommand, with compressed or uncompressed references
+	private static final int PARSED_COMMAND_BYTES = 40;
+	
+	// Heap each command may allocate
+	private static final HashMap<String, Integer> ALLOWED_BYTES = new HashMap<String, Integer>();
+	static {
+		for (String command : new String[]{"look", "go north", "  Move   WEST ", "xyzzy"}) {
+			ALLOWED_BYTES.put(command, 0);
+		}
+		for (String command : new String[]{"take pizza", "cd-player open", "insert pizza into cd-player", "discman open", "goto tunnel",
+				"inspcet pizza", "tkae piza", "cd-plyer open", "goto lokcers"}) {
+			ALLOWED_BYTES.put(command, PARSED_COMMAND_BYTES);
+		}
+	}
+	
+	@Param({
+		"look", "go north", "  Move   WEST ", "take pizza", "cd-player open", "insert pizza into cd-player",
+		"discman open", "goto tunnel", "inspcet pizza", "tkae piza", "cd-plyer open", "goto lokcers", "xyzzy"
+	})
+	String command;
+	
+	private CommandInterpreter ci;
+	private ItemIndex items;
+	private WorldTemplate world;
+	
+	// Results of the allocation check, kept so the JIT can't drop the checked work
+	private long sink;
+	
+	/**
+	 * Create the interpreter and the reachable Items, and check the command's allocations
+	 */
+	@Setup
+	public void setUp() {
+		this.ci = new CommandInterpreter(null);
+		this.items = new ItemIndex();
+		this.items.add(new Food("Pizza", "A delicious pepperoni pizza"));
+		this.items.add(new CDPlayer());
+		this.items.add(new Door("Hatch", "A hatch", true));
+		this.world = WorldTemplate.getDefault();
+		
+		int allowedBytes = ALLOWED_BYTES.get(this.command);
+		double bytes = this.bytesPerCommand();
+		if (bytes > allowedBytes) {
+			throw new IllegalStateException("\"" + this.command + "\" allocates " + bytes
+					+ " bytes, more than its ParsedCommand (" + allowedBytes + ")");
+		}
+	}
+	
+	/**
+	 * Interpreting the command
+	 * @return Interpreted Action's ordinal
+	 */
+	@Benchmark
+	public int interpretCommand() {
+		return this.ci.interpretCommand(this.command, this.items, this.world, Games.DISCARD).getAction().ordinal();
+	}
+	
+	/**
+	 * Measure the heap allocated by interpreting the command, after warming it up
+	 * @return Allocated bytes per command
+	 * @throws IllegalStateException If the JVM can't count allocations
+	 */
+	private double bytesPerCommand() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			throw new IllegalStateException("This JVM can't count allocations, run on a HotSpot JVM");
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		threads.setThreadAllocatedMemoryEnabled(true);
+		
+		for (int i = 0; i < CHECK_OPS; i++) {
+			this.sink += this.interpretCommand();
+		}
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < CHECK_OPS; i++) {
+			this.sink += this.interpretCommand();
+		}
+		long after = threads.getThreadAllocatedBytes(thread);
+		return (double) (after - before) / CHECK_OPS;
+	}
+}
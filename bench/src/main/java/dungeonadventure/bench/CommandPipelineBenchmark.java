@@ -0,0 +1,387 @@
+package dungeonadventure.bench;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.Action;
+import dungeonadventure.CommandInterpreter;
+import dungeonadventure.GameEngine;
+import dungeonadventure.ItemIndex;
+import dungeonadventure.ParsedCommand;
+import dungeonadventure.WorldTemplate;
+import dungeonadventure.items.Capability;
+import dungeonadventure.items.Item;
+
+/**
+ * Measures the whole command pipeline: interpreting input, finding the
+ * reachable Items, executing every Action, looking around and searching
+ * the Inventory. The games are brought into their states by playing
+ * commands, as a player would, see Games.
+ * Commands that change the game are measured in cycles that undo them,
+ * e.g. taking and dropping the pizza, so every call sees the same state.
+ * The setup fails the run if an Action has no cycle.
+ * Run with: java -jar bench/target/benchmarks.jar CommandPipelineBenchmark -prof gc
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CommandPipelineBenchmark {
+	
+	private static final String[] INTERPRETED = {
+		"look", "take pizza", "go north", "inspect cd", "put cd into cd-player",
+		"cd-player play", "inventory", "goto lockers"
+	};
+	
+	private GameEngine engine;
+	private GameEngine supplies;
+	private CommandInterpreter ci;
+	private ItemIndex items;
+	private WorldTemplate world;
+	private Item pizza;
+	private int next;
+	
+	private ParsedCommand[] look;
+	private ParsedCommand[] viewItems;
+	private ParsedCommand[] help;
+	private ParsedCommand[] save;
+	private ParsedCommand[] northSouth;
+	private ParsedCommand[] westEast;
+	private ParsedCommand[] gotoAndBack;
+	private ParsedCommand[] leftRight;
+	private ParsedCommand[] pickupDrop;
+	private ParsedCommand[] inspect;
+	private ParsedCommand[] eat;
+	private ParsedCommand[] powerOffOn;
+	private ParsedCommand[] playStop;
+	private ParsedCommand[] skipPrev;
+	private ParsedCommand[] closeOpen;
+	private ParsedCommand[] takePut;
+	private ParsedCommand[] unknown;
+	private ParsedCommand[] error;
+	private ParsedCommand[] pass;
+	private ParsedCommand[] quit;
+	private ParsedCommand[] charge;
+	
+	/**
+	 * Play the games into their states and build the cycles of commands
+	 */
+	@Setup
+	public void setUp() {
+		this.engine = Games.newGame(Games.DINING_AREA);
+		this.supplies = Games.newGame(Games.SUPPLIES);
+		this.ci = new CommandInterpreter(null);
+		this.items = this.engine.getItemIndex();
+		this.world = this.engine.getWorldStore().getTemplate();
+		this.pizza = this.items.get("pizza");
+		Item cd = this.items.get("cd");
+		Item cdPlayer = this.items.get("cd-player");
+		Item flashlight = this.items.get("flashlight");
+		
+		EnumSet<Action> covered = EnumSet.noneOf(Action.class);
+		this.look = cycle(covered, ParsedCommand.of(Action.ACTION_LOOK));
+		this.viewItems = cycle(covered, ParsedCommand.of(Action.ACTION_VIEW_ITEMS));
+		this.help = cycle(covered, ParsedCommand.of(Action.ACTION_HELP));
+		this.save = cycle(covered, ParsedCommand.of(Action.ACTION_SAVE));
+		this.northSouth = cycle(covered, ParsedCommand.of(Action.ACTION_GO_NORTH), ParsedCommand.of(Action.ACTION_GO_SOUTH));
+		this.westEast = cycle(covered, ParsedCommand.of(Action.ACTION_GO_WEST), ParsedCommand.of(Action.ACTION_GO_EAST));
+		this.gotoAndBack = cycle(covered, ParsedCommand.goTo("lockers"), ParsedCommand.goTo("dining-area"));
+		this.leftRight = cycle(covered, ParsedCommand.of(Action.ACTION_LEFT), ParsedCommand.of(Action.ACTION_RIGHT));
+		this.pickupDrop = cycle(covered, ParsedCommand.withObject(Action.ACTION_PICKUP, this.pizza), ParsedCommand.withObject(Action.ACTION_DROP, this.pizza));
+		this.inspect = cycle(covered, ParsedCommand.withObject(Action.ACTION_INSPECT, this.pizza));
+		this.eat = cycle(covered, ParsedCommand.withObject(Action.ACTION_EAT, this.pizza));
+		this.powerOffOn = cycle(covered, ParsedCommand.withObject(Action.ACTION_POWER_OFF, flashlight), ParsedCommand.withObject(Action.ACTION_POWER_ON, flashlight));
+		this.playStop = cycle(covered, ParsedCommand.withObject(Action.ACTION_PLAY, cdPlayer), ParsedCommand.withObject(Action.ACTION_STOP, cdPlayer));
+		this.skipPrev = cycle(covered, ParsedCommand.withObject(Action.ACTION_SKIP, cdPlayer), ParsedCommand.withObject(Action.ACTION_PREV, cdPlayer));
+		// The tray is left open for taking the CD out
+		this.closeOpen = cycle(covered, ParsedCommand.withObject(Action.ACTION_CLOSE, cdPlayer), ParsedCommand.withObject(Action.ACTION_OPEN, cdPlayer));
+		this.takePut = cycle(covered, ParsedCommand.withObjects(Action.ACTION_TAKE, cd, cdPlayer), ParsedCommand.withObjects(Action.ACTION_PUT, cd, cdPlayer));
+		this.unknown = cycle(covered, ParsedCommand.of(Action.ACTION_UNKNOWN));
+		this.error = cycle(covered, ParsedCommand.of(Action.ACTION_ERROR));
+		this.pass = cycle(covered, ParsedCommand.of(Action.ACTION_PASS));
+		this.quit = cycle(covered, ParsedCommand.of(Action.ACTION_QUIT));
+		this.charge = cycle(covered, ParsedCommand.withObject(Action.ACTION_CHARGE, this.supplies.getItemIndex().get("flashlight")));
+		
+		if (!covered.containsAll(EnumSet.allOf(Action.class))) {
+			throw new IllegalStateException("No benchmark for " + EnumSet.complementOf(covered));
+		}
+	}
+	
+	/**
+	 * Interpreting a mix of typical commands
+	 * @return Interpreted Action's ordinal
+	 */
+	@Benchmark
+	public int interpretCommandMix() {
+		String command = INTERPRETED[this.next++ % INTERPRETED.length];
+		return this.ci.interpretCommand(command, this.items, this.world, Games.DISCARD).getAction().ordinal();
+	}
+	
+	/**
+	 * Getting the reachable Items
+	 * @return Sum of the Items' name lengths
+	 */
+	@Benchmark
+	public long getItemIndex() {
+		long count = 0;
+		for (Item item : this.engine.getItemIndex().getItems()) {
+			count += item.getName().length();
+		}
+		return count;
+	}
+	
+	/**
+	 * Looking around with a lit Flashlight
+	 */
+	@Benchmark
+	public void playerLook() {
+		this.engine.getPlayer().look(Games.DISCARD);
+	}
+	
+	/**
+	 * Finding the Spaces in sight with a lit Flashlight
+	 * @return Amount of visible Spaces
+	 */
+	@Benchmark
+	public int playerGetVisibleSpaces() {
+		return this.engine.getPlayer().getVisibleSpaces().size();
+	}
+	
+	/**
+	 * Searching the Inventory for Lightsources, the way the Player does when looking
+	 * @return Amount of Lightsources
+	 */
+	@Benchmark
+	public int inventoryGetItemsOf() {
+		return this.engine.getPlayer().getInventory().getItemsOf(Capability.LIGHTSOURCE).size();
+	}
+	
+	/**
+	 * Executing LOOK
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeLook() {
+		return this.execute(this.engine, this.look);
+	}
+	
+	/**
+	 * Executing VIEW_ITEMS
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeViewItems() {
+		return this.execute(this.engine, this.viewItems);
+	}
+	
+	/**
+	 * Executing HELP
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeHelp() {
+		return this.execute(this.engine, this.help);
+	}
+	
+	/**
+	 * Executing SAVE
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeSave() {
+		return this.execute(this.engine, this.save);
+	}
+	
+	/**
+	 * Executing GO_NORTH and GO_SOUTH in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeGoNorthGoSouth() {
+		return this.execute(this.engine, this.northSouth);
+	}
+	
+	/**
+	 * Executing GO_WEST and GO_EAST in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeGoWestGoEast() {
+		return this.execute(this.engine, this.westEast);
+	}
+	
+	/**
+	 * Executing GO_LOCATION to the lockers and back in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeGoLocation() {
+		return this.execute(this.engine, this.gotoAndBack);
+	}
+	
+	/**
+	 * Executing LEFT and RIGHT in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeLeftRight() {
+		return this.execute(this.engine, this.leftRight);
+	}
+	
+	/**
+	 * Executing PICKUP and DROP of the pizza in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executePickupDrop() {
+		return this.execute(this.engine, this.pickupDrop);
+	}
+	
+	/**
+	 * Executing INSPECT on the pizza
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeInspect() {
+		return this.execute(this.engine, this.inspect);
+	}
+	
+	/**
+	 * Executing EAT on the pizza, putting a pizza back in its place after every bite
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeEat() {
+		int action = this.execute(this.engine, this.eat);
+		this.engine.getPlayer().getCurrentSpace().addItem("Pizza", this.pizza);
+		return action;
+	}
+	
+	/**
+	 * Executing POWER_OFF and POWER_ON of the Flashlight in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executePowerOffPowerOn() {
+		return this.execute(this.engine, this.powerOffOn);
+	}
+	
+	/**
+	 * Executing PLAY and STOP of the CD-Player in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executePlayStop() {
+		return this.execute(this.engine, this.playStop);
+	}
+	
+	/**
+	 * Executing SKIP and PREV of the CD-Player in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeSkipPrev() {
+		return this.execute(this.engine, this.skipPrev);
+	}
+	
+	/**
+	 * Executing CLOSE and OPEN of the CD-Player in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeCloseOpen() {
+		return this.execute(this.engine, this.closeOpen);
+	}
+	
+	/**
+	 * Executing TAKE of the CD from the CD-Player and PUT back in turns
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeTakePut() {
+		return this.execute(this.engine, this.takePut);
+	}
+	
+	/**
+	 * Executing UNKNOWN
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeUnknown() {
+		return this.execute(this.engine, this.unknown);
+	}
+	
+	/**
+	 * Executing ERROR
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeError() {
+		return this.execute(this.engine, this.error);
+	}
+	
+	/**
+	 * Executing PASS
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executePass() {
+		return this.execute(this.engine, this.pass);
+	}
+	
+	/**
+	 * Executing QUIT
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeQuit() {
+		return this.execute(this.engine, this.quit);
+	}
+	
+	/**
+	 * Executing CHARGE of the Flashlight in the supplies room
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int executeCharge() {
+		return this.execute(this.supplies, this.charge);
+	}
+	
+	/**
+	 * Execute the next command of a cycle
+	 * @param game Game to execute the command in
+	 * @param cycle Commands in the order they're executed
+	 * @return Executed Action's ordinal
+	 */
+	private int execute(GameEngine game, ParsedCommand[] cycle) {
+		ParsedCommand command = cycle[this.next++ % cycle.length];
+		game.executeCommand(command);
+		return command.getAction().ordinal();
+	}
+	
+	/**
+	 * Make a cycle of commands, marking their Actions as covered
+	 * @param covered Actions with a benchmark so far
+	 * @param commands Commands in the order they're executed
+	 * @return The cycle
+	 */
+	private static ParsedCommand[] cycle(EnumSet<Action> covered, ParsedCommand... commands) {
+		for (ParsedCommand command : commands) {
+			covered.add(command.getAction());
+		}
+		return commands;
+	}
+}
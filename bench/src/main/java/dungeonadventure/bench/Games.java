@@ -0,0 +1,72 @@
+package dungeonadventure.bench;
+
+import dungeonadventure.CommandInterpreter;
+import dungeonadventure.GameEngine;
+import dungeonadventure.GameState;
+import dungeonadventure.Output;
+import dungeonadventure.SimulatedClock;
+import dungeonadventure.State;
+import dungeonadventure.ThreadManager;
+
+/**
+ * Helpers for bringing games into the states the benchmarks measure.
+ * Games run on a simulated clock so the bomb and the water pipe don't go
+ * off in the middle of a run, and print into an Output that drops all text.
+ * @author Mikko Piuhola
+ */
+public final class Games {
+	
+	/**
+	 * Output that drops all text, for measuring the game without a console
+	 */
+	public static final Output DISCARD = new Output() {
+		@Override
+		public void print(String text) {
+		}
+		
+		@Override
+		public void println(String line) {
+		}
+		
+		@Override
+		public void println() {
+		}
+		
+		@Override
+		public void flush() {
+		}
+	};
+	
+	// Lit Flashlight and a powered CD-Player with the CD inside, in the dining-area with the pizza
+	public static final String[] DINING_AREA = {
+		"take flashlight", "flashlight on", "east", "take cd", "north", "take cd-player", "south",
+		"cd-player open", "put cd into cd-player", "cd-player close", "cd-player on"
+	};
+	
+	// Lit Flashlight in the supplies room with the charging station
+	public static final String[] SUPPLIES = {"take flashlight", "flashlight on", "west"};
+	
+	/**
+	 * No instances, only static helpers
+	 */
+	private Games() {
+	}
+	
+	/**
+	 * Start a game in the default world and play it into a state, as a player would
+	 * @param commands Commands to play
+	 * @return Game in the state
+	 */
+	public static GameEngine newGame(String... commands) {
+		GameState state = new GameState();
+		state.setGameState(State.RUN_STATE);
+		GameEngine engine = new GameEngine();
+		engine.init(state, new ThreadManager(new SimulatedClock()), DISCARD);
+		
+		CommandInterpreter ci = new CommandInterpreter(null);
+		for (String command : commands) {
+			engine.executeCommand(ci.interpretCommand(command, engine.getItemIndex(), engine.getWorldStore().getTemplate(), DISCARD));
+		}
+		return engine;
+	}
+}
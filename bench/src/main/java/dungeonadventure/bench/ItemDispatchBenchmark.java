@@ -0,0 +1,238 @@
+package dungeonadventure.bench;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.Action;
+import dungeonadventure.GameEngine;
+import dungeonadventure.ItemIndex;
+import dungeonadventure.ParsedCommand;
+import dungeonadventure.Player;
+import dungeonadventure.items.Food;
+import dungeonadventure.items.Item;
+import dungeonadventure.properties.Chargeable;
+import dungeonadventure.properties.Eatable;
+import dungeonadventure.properties.Inspectable;
+import dungeonadventure.properties.Openable;
+import dungeonadventure.properties.Playable;
+import dungeonadventure.properties.Powerable;
+
+/**
+ * Compares executing commands directed at Items through GameEngine's rule
+ * table against the previous dispatch: a switch on the Action whose every
+ * handler checks the Item's scope and then its type with instanceof. The
+ * previous dispatch is kept here for the comparison. Both run the same
+ * cycles of commands in the dining-area, one cycle of commands that are
+ * carried out and one of commands refused for the Item's scope or type.
+ * Run with: java -jar bench/target/benchmarks.jar ItemDispatchBenchmark -prof gc
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class ItemDispatchBenchmark {
+	
+	private GameEngine engine;
+	private ParsedCommand[] carriedOut;
+	private ParsedCommand[] refused;
+	private int next;
+	
+	/**
+	 * Play a game into the dining-area and build the cycles, each leaves the game as it was
+	 */
+	@Setup
+	public void setUp() {
+		this.engine = Games.newGame(Games.DINING_AREA);
+		ItemIndex items = this.engine.getItemIndex();
+		Item pizza = items.get("pizza");
+		Item cdPlayer = items.get("cd-player");
+		Item flashlight = items.get("flashlight");
+		Item elsewhere = new Food("Apple", "An apple that isn't anywhere");
+		
+		this.carriedOut = new ParsedCommand[]{
+			ParsedCommand.withObject(Action.ACTION_INSPECT, pizza),
+			ParsedCommand.withObject(Action.ACTION_POWER_OFF, flashlight),
+			ParsedCommand.withObject(Action.ACTION_POWER_ON, flashlight),
+			ParsedCommand.withObject(Action.ACTION_PLAY, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_STOP, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_SKIP, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_PREV, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_OPEN, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_CLOSE, cdPlayer)
+		};
+		this.refused = new ParsedCommand[]{
+			ParsedCommand.withObject(Action.ACTION_EAT, cdPlayer),
+			ParsedCommand.withObject(Action.ACTION_OPEN, pizza),
+			ParsedCommand.withObject(Action.ACTION_PLAY, flashlight),
+			ParsedCommand.withObject(Action.ACTION_CHARGE, pizza),
+			ParsedCommand.withObject(Action.ACTION_INSPECT, elsewhere),
+			ParsedCommand.withObject(Action.ACTION_POWER_ON, elsewhere)
+		};
+	}
+	
+	/**
+	 * Commands carried out, through the rule table
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int ruleTableCarriedOut() {
+		ParsedCommand command = this.carriedOut[this.next++ % this.carriedOut.length];
+		this.engine.executeCommand(command);
+		return command.getAction().ordinal();
+	}
+	
+	/**
+	 * Commands carried out, through the instanceof chain
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int instanceofChainCarriedOut() {
+		ParsedCommand command = this.carriedOut[this.next++ % this.carriedOut.length];
+		executeWithChain(this.engine.getPlayer(), command);
+		return command.getAction().ordinal();
+	}
+	
+	/**
+	 * Commands refused, through the rule table
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int ruleTableRefused() {
+		ParsedCommand command = this.refused[this.next++ % this.refused.length];
+		this.engine.executeCommand(command);
+		return command.getAction().ordinal();
+	}
+	
+	/**
+	 * Commands refused, through the instanceof chain
+	 * @return Executed Action's ordinal
+	 */
+	@Benchmark
+	public int instanceofChainRefused() {
+		ParsedCommand command = this.refused[this.next++ % this.refused.length];
+		executeWithChain(this.engine.getPlayer(), command);
+		return command.getAction().ordinal();
+	}
+	
+	/**
+	 * The previous dispatch of commands directed at Items, for the Actions of the cycles
+	 * @param player Player of the game
+	 * @param command Command of TYPE_HASDIRECTOBJECT
+	 */
+	private static void executeWithChain(Player player, ParsedCommand command) {
+		Item item = command.getDirectObject();
+		switch (command.getAction()) {
+			case ACTION_INSPECT:
+				if (player.hasItem(item) || player.getCurrentSpace().hasItem(item)) {
+					if (item instanceof Inspectable) {
+						((Inspectable)item).inspect(Games.DISCARD);
+					} else {
+						Games.DISCARD.println("You cannot inspect this item");
+					}
+				} else {
+					Games.DISCARD.println("That item isn't in here");
+				}
+				break;
+			case ACTION_EAT:
+				if (player.hasItem(item) || player.getCurrentSpace().hasItem(item)) {
+					if (item instanceof Eatable) {
+						player.eat((Food)item, Games.DISCARD);
+					} else {
+						Games.DISCARD.println("What are you doing?! You can't eat that!");
+					}
+				} else {
+					Games.DISCARD.println("You can't eat something that isn't in here or with you");
+				}
+				break;
+			case ACTION_OPEN:
+			case ACTION_CLOSE:
+				if (player.hasItem(item) || player.getCurrentSpace().hasItem(item)) {
+					if (item instanceof Openable) {
+						if (command.getAction() == Action.ACTION_OPEN) {
+							((Openable)item).open(Games.DISCARD);
+						} else {
+							((Openable)item).close(Games.DISCARD);
+						}
+					} else {
+						Games.DISCARD.println("Cannot open this item");
+					}
+				} else {
+					Games.DISCARD.println("That item isn't in here");
+				}
+				break;
+			case ACTION_POWER_ON:
+			case ACTION_POWER_OFF:
+				if (player.hasItem(item) || player.getCurrentSpace().hasItem(item)) {
+					if (item instanceof Powerable) {
+						if (command.getAction() == Action.ACTION_POWER_ON) {
+							((Powerable)item).powerOn(Games.DISCARD);
+						} else {
+							((Powerable)item).powerOff(Games.DISCARD);
+						}
+					} else {
+						Games.DISCARD.println("Cannot power on this item");
+					}
+				} else {
+					Games.DISCARD.println("That item isn't in here");
+				}
+				break;
+			case ACTION_CHARGE:
+				if (player.hasItem(item)) {
+					if (item instanceof Chargeable) {
+						if (player.getCurrentSpace().hasCharging()) {
+							((Chargeable)item).charge(Games.DISCARD);
+						} else {
+							Games.DISCARD.println("The charging station is not in here");
+						}
+					} else {
+						Games.DISCARD.println("You cannot charge that");
+					}
+				} else {
+					Games.DISCARD.println("You don't have that item in your inventory");
+				}
+				break;
+			case ACTION_PLAY:
+			case ACTION_STOP:
+			case ACTION_SKIP:
+			case ACTION_PREV:
+				if (player.hasItem(item) || player.getCurrentSpace().hasItem(item)) {
+					if (item instanceof Playable) {
+						switch (command.getAction()) {
+							case ACTION_PLAY:
+								((Playable)item).play(Games.DISCARD);
+								break;
+							case ACTION_STOP:
+								((Playable)item).stop(Games.DISCARD);
+								break;
+							case ACTION_SKIP:
+								((Playable)item).next(Games.DISCARD);
+								break;
+							default:
+								((Playable)item).prev(Games.DISCARD);
+								break;
+						}
+					} else {
+						Games.DISCARD.println(item.getName() + " doesn't support playback. You do know it's a " + item.getName() + ", right?");
+					}
+				} else {
+					Games.DISCARD.println("You don't have that item in your inventory");
+				}
+				break;
+			default:
+				Games.DISCARD.println("I don't understand what you're trying to do");
+				break;
+		}
+	}
+}
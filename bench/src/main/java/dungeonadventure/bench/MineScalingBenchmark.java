@@ -0,0 +1,137 @@
+package dungeonadventure.bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.Action;
+import dungeonadventure.Direction;
+import dungeonadventure.GameEngine;
+import dungeonadventure.MineGenerator;
+import dungeonadventure.ParsedCommand;
+import dungeonadventure.WorldStore;
+import dungeonadventure.WorldTemplate;
+
+/**
+ * Measures how the engine scales with the size of the mine: generating
+ * mines from 10^3 to 10^6 Spaces, starting games in them and moving around.
+ * Generating and starting grow linearly with the mine when their times
+ * grow tenfold from one size to the next. The random walk wanders far
+ * enough to page regions in and out, its WorldStore counters are printed
+ * after it. Every size is generated from the same seed so runs can be compared.
+ * Run with: java -jar bench/target/benchmarks.jar MineScalingBenchmark
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class MineScalingBenchmark {
+	
+	private static final long SEED = 42;
+	
+	@Param({"1000", "10000", "100000", "1000000"})
+	int size;
+	
+	private WorldTemplate original;
+	private MineGenerator generator;
+	private GameEngine engine;
+	private WorldStore store;
+	private ParsedCommand[] eastWest;
+	private ParsedCommand[] moves;
+	private Random random;
+	private int next;
+	
+	/**
+	 * Generate the mine, make it the default world and start a game in it
+	 * with a lit Flashlight
+	 */
+	@Setup
+	public void setUp() {
+		this.original = WorldTemplate.getDefault();
+		this.generator = new MineGenerator(SEED);
+		WorldTemplate.setDefault(this.generator.generate(this.size));
+		this.engine = Games.newGame("take flashlight", "flashlight on");
+		this.store = this.engine.getWorldStore();
+		this.eastWest = new ParsedCommand[]{ParsedCommand.of(Action.ACTION_GO_EAST), ParsedCommand.of(Action.ACTION_GO_WEST)};
+		this.moves = new ParsedCommand[]{
+			ParsedCommand.of(Action.ACTION_GO_NORTH), ParsedCommand.of(Action.ACTION_GO_EAST),
+			ParsedCommand.of(Action.ACTION_GO_SOUTH), ParsedCommand.of(Action.ACTION_GO_WEST)
+		};
+		this.random = new Random(SEED);
+	}
+	
+	/**
+	 * Print the WorldStore's counters and restore the default world
+	 */
+	@TearDown
+	public void tearDown() {
+		System.out.println("  " + this.store);
+		WorldTemplate.setDefault(this.original);
+	}
+	
+	/**
+	 * Generating a mine
+	 * @return Generated mine
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 3)
+	public WorldTemplate generate() {
+		return this.generator.generate(this.size);
+	}
+	
+	/**
+	 * Starting a game in the mine
+	 * @return Started game
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 3)
+	public GameEngine init() {
+		return Games.newGame();
+	}
+	
+	/**
+	 * Moving back and forth between the start and the Space east of it,
+	 * which every generated mine connects
+	 * @return Index of the Space moved into
+	 */
+	@Benchmark
+	public int moveEastWest() {
+		this.engine.executeCommand(this.eastWest[this.next++ % this.eastWest.length]);
+		return this.engine.getPlayer().getCurrentSpace().getIndex();
+	}
+	
+	/**
+	 * Walking randomly through the mine, always through an existing exit
+	 * @return Direction walked in
+	 */
+	@Benchmark
+	public int randomWalk() {
+		int index = this.engine.getPlayer().getCurrentSpace().getIndex();
+		int direction = this.random.nextInt(Direction.COUNT);
+		while (this.store.getTemplate().getExit(index, Direction.values()[direction]) < 0) {
+			direction = (direction + 1) % Direction.COUNT;
+		}
+		this.engine.executeCommand(this.moves[direction]);
+		return direction;
+	}
+}
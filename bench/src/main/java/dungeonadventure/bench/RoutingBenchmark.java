@@ -0,0 +1,108 @@
+package dungeonadventure.bench;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonadventure.Direction;
+import dungeonadventure.MineGenerator;
+import dungeonadventure.WorldTemplate;
+
+/**
+ * Measures routing for goto in a generated mine of 100 000 Spaces: building
+ * a destination's distance table, asking for the next step and the
+ * distance with the table cached, and following a whole route step by step.
+ * The setup prints the routes' average length for reading the route's time per step.
+ * Run with: java -jar bench/target/benchmarks.jar RoutingBenchmark
+ * @author Mikko Piuhola
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+	
+	private static final int SPACES = 100000;
+	private static final long SEED = 42;
+	
+	// Destinations asked for over and over, their tables stay cached
+	private static final int DESTINATIONS = 8;
+	
+	private WorldTemplate mine;
+	private int[] destinations;
+	private int cold;
+	private int next;
+	
+	/**
+	 * Generate the mine and pick the cached destinations
+	 */
+	@Setup
+	public void setUp() {
+		this.mine = new MineGenerator(SEED).generate(SPACES);
+		this.destinations = new int[DESTINATIONS];
+		long steps = 0;
+		for (int i = 0; i < DESTINATIONS; i++) {
+			this.destinations[i] = (int) ((long) (i + 1) * SPACES / (DESTINATIONS + 1));
+			steps += this.mine.getDistance(this.mine.getStart(), this.destinations[i]);
+		}
+		System.out.println("  average route " + steps / DESTINATIONS + " steps");
+	}
+	
+	/**
+	 * Building a distance table, every call asks for a new destination
+	 * @return Distance from the start
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int buildDistanceTable() {
+		this.cold = (this.cold + 7919) % SPACES;
+		return this.mine.getDistance(0, this.cold);
+	}
+	
+	/**
+	 * Asking for the next step towards a cached destination
+	 * @return Ordinal of the step's Direction or -1
+	 */
+	@Benchmark
+	public int getNextStepCached() {
+		int i = this.next++;
+		Direction step = this.mine.getNextStep((int) ((i * 2654435761L) % SPACES), this.destinations[i % DESTINATIONS]);
+		return step == null ? -1 : step.ordinal();
+	}
+	
+	/**
+	 * Asking for the distance to a cached destination
+	 * @return Distance
+	 */
+	@Benchmark
+	public int getDistanceCached() {
+		int i = this.next++;
+		return this.mine.getDistance((int) ((i * 2654435761L) % SPACES), this.destinations[i % DESTINATIONS]);
+	}
+	
+	/**
+	 * Following a whole route from the start to a cached destination
+	 * @return Steps taken
+	 */
+	@Benchmark
+	public int followRoute() {
+		int to = this.destinations[this.next++ % DESTINATIONS];
+		int at = this.mine.getStart();
+		int steps = 0;
+		for (Direction step = this.mine.getNextStep(at, to); step != null; step = this.mine.getNextStep(at, to)) {
+			at = this.mine.getExit(at, step);
+			steps++;
+		}
+		return steps;
+	}
+}
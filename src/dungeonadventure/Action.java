@@ -1,7 +1,5 @@
 package dungeonadventure;
 
-import dungeonadventure.items.Item;
-
 
 /**
  * Known actions/commands
@@ -54,9 +52,6 @@ public enum Action {
 	private Action opposite;
 	private String[] aliases;
 	private Type type;
-	private Item directObject;
-	private Item indirectObject;
-	private String targetLocationName;
 	
 	/**
 	 * Constructor for Action
@@ -77,6 +72,34 @@ public enum Action {
 		ACTION_LEFT.opposite = ACTION_RIGHT;
 		ACTION_RIGHT.opposite = ACTION_LEFT;
 	}
+	
+	// Index of every alias, the first Action declaring an alias owns it
+	private static final WordTable<Action> ALIAS_INDEX;
+	static {
+		ALIAS_INDEX = new WordTable<Action>();
+		for (Action a : Action.values()) {
+			for (String alias : a.aliases) {
+				ALIAS_INDEX.add(alias, a);
+			}
+		}
+	}
+	
+	/**
+	 * Find the Action an alias belongs to
+	 * @param alias Lower case alias, e.g. "take"
+	 * @return Action or null if the alias is unknown
+	 */
+	public static Action forAlias(String alias) {
+		return ALIAS_INDEX.get(alias);
+	}
+	
+	/**
+	 * Get the index of all aliases, e.g. for looking up words in a char buffer
+	 * @return Alias index, not to be modified
+	 */
+	static WordTable<Action> getAliasIndex() {
+		return ALIAS_INDEX;
+	}
 
 	/**
 	 * Get all aliases for Action
@@ -94,38 +117,6 @@ public enum Action {
 		return this.type;
 	}
 
-	/**
-	 * Set the object this Action is directed towards
-	 * @param directObject Object Action is directed towards
-	 */
-	public void setDirectObject(Item directObject) {
-		this.directObject = directObject;
-	}
-	
-	/**
-	 * Get the object this Action is directed towards
-	 * @return Thing
-	 */
-	public Item getDirectObject() {
-		return this.directObject;
-	}
-	
-	/**
-	 * Set indirect object for Action
-	 * @param indirectObject Object Action is indirectly directed towards, e.g. CDPlayer in "insert cd in cdplayer"
-	 */
-	public void setIndirectObject(Item indirectObject) {
-		this.indirectObject = indirectObject;
-	}
-	
-	/**
-	 * Get indirect object for Action
-	 * @return Thing
-	 */
-	public Item getInDirectObject() {
-		return this.indirectObject;
-	}
-
 	/**
 	 * Get the opposite direction for given direction.
 	 * Opposite directions are used for the directional enumeration constants.
@@ -141,22 +132,6 @@ public enum Action {
 		}
 	}
 
-	/**
-	 * Set a target location
-	 * @param locationName String for location name
-	 */
-	public void setLocation(String locationName) {
-		this.targetLocationName = locationName;
-	}
-	
-	/**
-	 * Get location for ActionGoLocation
-	 * @return Targeted location's name
-	 */
-	public String getLocation() {
-		return this.targetLocationName;
-	}
-
 };
 
 enum Type {
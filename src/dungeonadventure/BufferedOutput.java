@@ -0,0 +1,104 @@
+package dungeonadventure;
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Output that collects a session's text and writes it to a PrintStream in one go.
+ * The buffer is only held while there's unflushed text, otherwise it's
+ * returned to a shared pool, so idle sessions don't keep buffers around.
+ * @author Mikko Piuhola
+ */
+public final class BufferedOutput implements Output {
+	
+	private final static int INITIAL_CAPACITY = 1024;
+	private final static int MAX_POOLED_CAPACITY = 64 * 1024; // Bigger buffers are left for the GC
+	private final static int MAX_POOL_SIZE = 256;
+	
+	private final static ConcurrentLinkedQueue<StringBuilder> POOL = new ConcurrentLinkedQueue<StringBuilder>();
+	private final static AtomicInteger POOL_SIZE = new AtomicInteger();
+	
+	private final PrintStream target;
+	private StringBuilder buffer;
+	
+	/**
+	 * Create an output
+	 * @param target Stream the text is written to on flush
+	 */
+	public BufferedOutput(PrintStream target) {
+		this.target = target;
+		this.buffer = null;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void print(String text) {
+		this.buffer().append(text);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void println(String line) {
+		this.buffer().append(line).append('\n');
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void println() {
+		this.buffer().append('\n');
+	}
+	
+	/**
+	 * Write the collected text with a single call and give the buffer back to the pool
+	 */
+	@Override
+	public synchronized void flush() {
+		if (this.buffer == null) {
+			return;
+		}
+		
+		if (this.buffer.length() > 0) {
+			this.target.print(this.buffer.toString());
+			this.target.flush();
+		}
+		release(this.buffer);
+		this.buffer = null;
+	}
+	
+	/**
+	 * Get the buffer, borrowing one from the pool if needed
+	 * @return Buffer for the current command's text
+	 */
+	private StringBuilder buffer() {
+		if (this.buffer == null) {
+			StringBuilder pooled = POOL.poll();
+			if (pooled != null) {
+				POOL_SIZE.decrementAndGet();
+			}
+			this.buffer = pooled != null ? pooled : new StringBuilder(INITIAL_CAPACITY);
+		}
+		return this.buffer;
+	}
+	
+	/**
+	 * Return a buffer to the pool
+	 * @param used Buffer to return
+	 */
+	private static void release(StringBuilder used) {
+		if (used.capacity() > MAX_POOLED_CAPACITY) {
+			return;
+		}
+		if (POOL_SIZE.incrementAndGet() > MAX_POOL_SIZE) {
+			POOL_SIZE.decrementAndGet();
+			return;
+		}
+		used.setLength(0);
+		POOL.offer(used);
+	}
+}
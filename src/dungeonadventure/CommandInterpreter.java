@@ -1,8 +1,7 @@
 package dungeonadventure;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Scanner;
 
 import dungeonadventure.items.Item;
@@ -14,13 +13,56 @@ import dungeonadventure.items.Item;
  */
 public class CommandInterpreter {
 
+	// Words that only say the player wants to move, e.g. "go north"
+	private static final WordTable<String> MOVE_WORDS = new WordTable<String>();
+	
+	// Words with a fixed meaning: command words and prepositions
+	private static final WordTable<String> KNOWN_WORDS = new WordTable<String>();
+	
+	// Command words for correcting typos, place names are indexed by each world
+	private static final TypoIndex<String> VERB_TYPOS;
+	
+	static {
+		for (String word : new String[]{"go", "move", "travel", "proceed", "turn"}) {
+			MOVE_WORDS.add(word, word);
+			KNOWN_WORDS.add(word, word);
+		}
+		for (Action a : Action.values()) {
+			for (String alias : a.getAliases()) {
+				KNOWN_WORDS.add(alias, alias);
+			}
+		}
+		for (String word : new String[]{"in", "into", "from"}) {
+			KNOWN_WORDS.add(word, word);
+		}
+		
+		ArrayList<String> verbs = new ArrayList<String>();
+		for (Action a : Action.values()) {
+			verbs.addAll(Arrays.asList(a.getAliases()));
+		}
+		String[] verbWords = verbs.toArray(new String[verbs.size()]);
+		VERB_TYPOS = new TypoIndex<String>(verbWords, verbWords);
+	}
+	
 	private Scanner scanner;
+	private final Tokenizer tokenizer;
+	private final TypoIndex.Scratch scratch;
 	
 	/**
 	 * Create a new scanner for System.in input
 	 */
 	public CommandInterpreter() {
-		this.scanner = new Scanner(System.in);
+		this(System.in);
+	}
+	
+	/**
+	 * Create a new scanner for an input stream
+	 * @param in Input stream, or null if the input is given to the interpreter line by line
+	 */
+	public CommandInterpreter(InputStream in) {
+		this.scanner = in == null ? null : new Scanner(in);
+		this.tokenizer = new Tokenizer();
+		this.scratch = new TypoIndex.Scratch();
 	}
 	
 	/**
@@ -28,6 +70,10 @@ public class CommandInterpreter {
 	 * @return User input string
 	 */
 	public String scanCommand() {
+		if (this.scanner == null) {
+			throw new IllegalStateException("No input stream to scan");
+		}
+		
 		String userInput = "";
 		while (userInput.length() < 1) {
 			userInput = this.scanner.nextLine().toLowerCase();
@@ -37,174 +83,177 @@ public class CommandInterpreter {
 	}
 	
 	/**
-	 * Interpret user input as an Action
+	 * Interpret user input as a command
 	 * @param input User input string
-	 * @param items Available items
-	 * @return Interpreted Action
+	 * @param items Index of available items
+	 * @param world World being played, for the names of places
+	 * @param out Output for messages
+	 * @return Interpreted command
 	 */
-	public Action interpretCommand(String input, HashMap<String, Item> items) {
-		if (input.equals("")) {
-			return Action.ACTION_PASS;
-		} else {
-			return getAction(input.toLowerCase().split(" "), items);
-		}
+	public ParsedCommand interpretCommand(CharSequence input, ItemIndex items, WorldTemplate world, Output out) {
+		this.tokenizer.tokenize(input);
+		return getAction(this.tokenizer, items, world, out);
 	}
 	
 	/**
-	 * Get string as an interpreted Action
-	 * @param string User input string
-	 * @param items Available items
-	 * @return Interpreted Action
+	 * Get words as an interpreted command
+	 * @param words User input split into words
+	 * @param items Index of available items
+	 * @param world World being played, for the names of places
+	 * @param out Output for messages
+	 * @return Interpreted command
 	 */
-	private Action getAction(String[] string, HashMap<String, Item> items) throws IndexOutOfBoundsException {
-		// Extra validation for empty strings
-		if (string == null || string.length == 0) {
-			return Action.ACTION_PASS;
-		}
-
+	private ParsedCommand getAction(Tokenizer words, ItemIndex items, WorldTemplate world, Output out) {
 		// We don't need to care about "go" etc. just the direction,
 		//  so just remove the extra command
-		if (string[0].compareTo("go") == 0 ||
-				string[0].compareTo("move") == 0 ||
-				string[0].compareTo("travel") == 0 ||
-				string[0].compareTo("proceed") == 0 ||
-				string[0].compareTo("turn") == 0) {
-
-			String[] command = Arrays.copyOfRange(string, 1, string.length);
-			return getAction(command, items);
+		while (words.size() > 0 && words.lookup(0, MOVE_WORDS) != null) {
+			words.dropFirst();
+		}
+		
+		// Extra validation for empty strings
+		if (words.size() == 0) {
+			return ParsedCommand.of(Action.ACTION_PASS);
 		}
 
-		// If the user wants to go to a specific, visible location
+		// If the user wants to go to a specific location, near or far,
 		//  they can say the Space's name, e.g. "goto room2".
-		if (string[0].compareTo("goto") == 0) {
-			Action action = Action.ACTION_GO_LOCATION;
-			action.setLocation(string[1]); // Save the Space's name
-			return action;
+		if (words.is(0, "goto")) {
+			if (words.size() < 2) {
+				out.println("Go where?");
+				return ParsedCommand.of(Action.ACTION_PASS); // Action passed
+			}
+			String place = words.closest(1, world.getPlaceTypos(), this.scratch); // Allow typos, e.g. "goto lokcers"
+			return ParsedCommand.goTo(place != null ? place : this.resolve(words, 1)); // Save the Space's name
 		}
 
 		// At this point input can be a direction ("north"), general ("help"),
-		//  direct-object ("battery take"), indirect-object ("insert cd in cdplayer") or
+		//  direct-object ("take battery"), indirect-object ("insert cd in cdplayer") or
 		//  some other command.
-		String s = string[0];
-		Action action = null;
-		for (Action a : Action.values()) {
-			// and their aliases
-			for (String alias : a.getAliases()) {
-				// Break out of both loops when a match is found
-				if (s.compareTo(alias) == 0) {
-					action = a;
-					break;
-				}
-			}
-			
-			if (action != null) {
-				break;
-			}
-		}
-		
+		Action action = words.lookup(0, Action.getAliasIndex());
+
 		// Sometimes user might give the target object first (e.g. "flashlight on")
-		for (String key : items.keySet()) {				
-			if (s.compareTo(key) == 0) {
-				if (string.length > 1) {
-					// Move Item to index 1
-					List<String> tempArr = new ArrayList<String>(Arrays.asList(string));
-					tempArr.set(0, tempArr.get(1));
-					tempArr.set(1, s);
-					
-					// And re-run interpreter
-					return getAction(tempArr.toArray(new String[tempArr.size()]), items);
-				} else {
-					System.out.println("What do you want to with that?");
-					return Action.ACTION_PASS; // Action passed
-				}
+		if (words.lookup(0, items.getWordTable()) != null) {
+			if (words.size() > 1) {
+				// Move Item to index 1
+				words.swap(0, 1);
+				action = words.lookup(0, Action.getAliasIndex());
+			} else {
+				out.println("What do you want to with that?");
+				return ParsedCommand.of(Action.ACTION_PASS); // Action passed
+			}
+		} else if (action == null) {
+			// Maybe a typo, either in the command ("inspcet pipe") or in an item given first ("flashligt on")
+			String verb = words.closest(0, VERB_TYPOS, this.scratch);
+			if (verb != null) {
+				action = Action.forAlias(verb);
+			} else if (words.size() > 1 && words.closest(0, items.getTypoIndex(), this.scratch) != null) {
+				words.swap(0, 1);
+				action = words.lookup(0, Action.getAliasIndex());
 			}
 		}
 
 		// Given command didn't match any known commands
 		if (action == null) {
-			return Action.ACTION_ERROR;
+			return ParsedCommand.of(Action.ACTION_ERROR);
 		}
 		
 		// If it did, we need to find the type
 		switch (action.getType()) {
 			case TYPE_DIRECTIONAL:
-				return action; // No further action necessary
+				return ParsedCommand.of(action); // No further action necessary
 			case TYPE_TURNING:
-				return action; // No further action necessary
+				return ParsedCommand.of(action); // No further action necessary
 			case TYPE_HASDIRECTOBJECT:
 	
 				// Test if there's some direct object
 				// E.g. "eat pizza"
-				if(string.length > 1) {
+				if(words.size() > 1) {
 
 					// Find the direct object in Player inventory
-					String directObjectName = string[1];
-					Item item = items.get(directObjectName);
+					Item item = this.findItem(words, 1, items);
 					
 					// Set item as the direct-object
-					action.setDirectObject(item);
-					
 					// Item might be null here, but that is handled in engine
-					return action;
+					return ParsedCommand.withObject(action, item);
 				}
 				else {
-					System.out.println("What do you want to '" + string[0] + "'");
-					return Action.ACTION_PASS; // Action passed
+					out.println("What do you want to '" + words.word(0) + "'");
+					return ParsedCommand.of(Action.ACTION_PASS); // Action passed
 				}
 			case TYPE_HASINDIRECTOBJECT:
 				
 				// Test if there's an indirect-object
 				// E.g. "insert cd in cdplayer"
-				if (string.length > 1) {
+				if (words.size() > 1) {
 					
-					String directObjectName = string[1];
-					Item item = items.get(directObjectName);
-					action.setDirectObject(item);
+					Item item = this.findItem(words, 1, items);
 					
-					if (string.length > 2) {
-						String in = string[2];
+					if (words.size() > 2) {
 						
 						// Pass action if the 3rd word isn't "in" or "from"
-						if (in.equals("in") || in.equals("into")|| in.equals("from")) {
+						if (words.is(2, "in") || words.is(2, "into") || words.is(2, "from")) {
 							
 							// Verify that a target is supplied
-							if (string.length > 3) {
-								String indirectObjectName = string[3];
-								Item indirectItem = items.get(indirectObjectName);
-								action.setIndirectObject(indirectItem);
+							if (words.size() > 3) {
+								Item indirectItem = this.findItem(words, 3, items);
 								
 								// Direct and indirect-objects might both be null here, handled in engine
-								return action;	
+								return ParsedCommand.withObjects(action, item, indirectItem);
 							} else {
-								System.out.println("You must give a target for your action");
-								return Action.ACTION_ERROR;
+								out.println("You must give a target for your action");
+								return ParsedCommand.of(Action.ACTION_ERROR);
 							}
 							
 						} else {
-							return Action.ACTION_PASS;
+							return ParsedCommand.of(Action.ACTION_PASS);
 						}
 					}
 					
 				} else {
-					System.out.println("You must give a target to '" + string[0] + "'");
-					return Action.ACTION_ERROR;
+					out.println("You must give a target to '" + words.word(0) + "'");
+					return ParsedCommand.of(Action.ACTION_ERROR);
 				}
 				
 				break;
 			case TYPE_HASNOOBJECT:
-				return action;
+				return ParsedCommand.of(action);
 			case TYPE_UNKNOWN:
-				if (string[0].equals("quit") || string[0].equals("exit")) {
-					return Action.ACTION_QUIT;
+				if (words.is(0, "quit") || words.is(0, "exit")) {
+					return ParsedCommand.of(Action.ACTION_QUIT);
 				}
-				return Action.ACTION_ERROR;
+				return ParsedCommand.of(Action.ACTION_ERROR);
 			default:
-				System.out.println("Unknown command");
+				out.println("Unknown command");
 				break;
 		}
 		
 		// Just pass the action if it didn't match anything
-		return Action.ACTION_PASS;
+		return ParsedCommand.of(Action.ACTION_PASS);
+	}
+	
+	/**
+	 * Find an available item by a word, allowing a typo or two in longer words
+	 * @param words User input split into words
+	 * @param index Index of the word
+	 * @param items Index of available items
+	 * @return Item or null
+	 */
+	private Item findItem(Tokenizer words, int index, ItemIndex items) {
+		Item item = words.lookup(index, items.getWordTable());
+		if (item == null) {
+			item = words.closest(index, items.getTypoIndex(), this.scratch);
+		}
+		return item;
 	}
 	
+	/**
+	 * Get a word as a String, reusing the known words so only new words create Strings
+	 * @param words User input split into words
+	 * @param index Index of the word
+	 * @return Word
+	 */
+	private String resolve(Tokenizer words, int index) {
+		String word = words.lookup(index, KNOWN_WORDS);
+		return word != null ? word : words.word(index);
+	}
 }
@@ -0,0 +1,251 @@
+package dungeonadventure;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import dungeonadventure.properties.Threadable;
+
+/**
+ * A countdown towards an absolute deadline on the game clock.
+ * Remaining time is worked out lazily from the deadline, and the owner's
+ * task is woken only once, when the deadline arrives.
+ * Stopping the countdown freezes the remaining time until it's started again.
+ * Every wake is tagged with a generation, so a wake scheduled before a
+ * stop, suspend or re-arm can never run the task afterwards.
+ * @author Mikko Piuhola
+ */
+public final class Countdown implements Serializable {
+	
+	private static final long serialVersionUID = -2390847290011843291L;
+	
+	private ThreadManager threadManager;
+	private long remainingMs; // Only up to date while stopped
+	private long deadline; // Only meaningful while running
+	private boolean running;
+	private boolean suspended; // Stopped by suspend(), resume() restarts it
+	transient private Runnable task;
+	transient private Timeout timeout;
+	transient private long generation;
+	
+	/**
+	 * Create a stopped countdown
+	 * @param threadManager ThreadManager of the game session, provides the clock and scheduling
+	 * @param durationMs Time until the deadline once started, in milliseconds
+	 */
+	public Countdown(ThreadManager threadManager, long durationMs) {
+		this.threadManager = threadManager;
+		this.remainingMs = Math.max(0, durationMs);
+		this.running = false;
+		this.suspended = false;
+	}
+	
+	/**
+	 * Start counting down towards the deadline
+	 * @param task Task to wake when the deadline arrives
+	 * @return False if the countdown was already running
+	 */
+	public synchronized boolean start(Runnable task) {
+		if (this.running) {
+			return false;
+		}
+		
+		this.task = task;
+		this.running = true;
+		this.suspended = false;
+		this.deadline = this.threadManager.currentTimeMillis() + this.remainingMs;
+		this.arm();
+		return true;
+	}
+	
+	/**
+	 * Stop counting down, remaining time is kept
+	 */
+	public synchronized void stop() {
+		if (this.running) {
+			this.remainingMs = this.getRemainingMillis();
+			this.running = false;
+		}
+		this.suspended = false;
+		this.disarm();
+	}
+	
+	/**
+	 * Pause a running countdown, e.g. while the player is in the menu.
+	 * Remaining time is frozen and no wake stays scheduled.
+	 * @return False if the countdown wasn't running
+	 */
+	public synchronized boolean suspend() {
+		if (!this.running) {
+			return false;
+		}
+		this.stop();
+		this.suspended = true;
+		return true;
+	}
+	
+	/**
+	 * Continue a suspended countdown from where it was left
+	 * @param task Task to wake when the deadline arrives
+	 * @return False if the countdown wasn't suspended
+	 */
+	public synchronized boolean resume(Runnable task) {
+		if (!this.suspended) {
+			return false;
+		}
+		return this.start(task);
+	}
+	
+	/**
+	 * Is the countdown suspended
+	 * @return Is suspended
+	 */
+	public synchronized boolean isSuspended() {
+		return this.suspended;
+	}
+	
+	/**
+	 * Is the countdown running
+	 * @return Is running
+	 */
+	public synchronized boolean isRunning() {
+		return this.running;
+	}
+	
+	/**
+	 * Get the time left until the deadline
+	 * @return Remaining time in milliseconds, never negative
+	 */
+	public synchronized long getRemainingMillis() {
+		if (!this.running) {
+			return this.remainingMs;
+		}
+		return Math.max(0, this.deadline - this.threadManager.currentTimeMillis());
+	}
+	
+	/**
+	 * Set the remaining time, e.g. when recharging
+	 * @param durationMs New remaining time in milliseconds
+	 */
+	public synchronized void reset(long durationMs) {
+		this.remainingMs = Math.max(0, durationMs);
+		if (this.running) {
+			this.deadline = this.threadManager.currentTimeMillis() + this.remainingMs;
+			this.arm();
+		}
+	}
+	
+	/**
+	 * Move the deadline closer by time spent elsewhere
+	 * @param ms Milliseconds spent
+	 * @return Did a running countdown reach its deadline
+	 */
+	public synchronized boolean spend(long ms) {
+		if (this.running) {
+			this.deadline -= ms;
+			this.arm();
+			return this.getRemainingMillis() == 0;
+		}
+		this.remainingMs = Math.max(0, this.remainingMs - ms);
+		return false;
+	}
+	
+	/**
+	 * Called by the woken task. Checks that the deadline has really passed,
+	 * and if it hasn't (the wake came early), re-arms for the time left.
+	 * @return True exactly once, when the deadline is reached
+	 */
+	public synchronized boolean expire() {
+		if (!this.running) {
+			return false;
+		}
+		
+		if (this.getRemainingMillis() > 0) {
+			this.arm();
+			return false;
+		}
+		
+		this.running = false;
+		this.remainingMs = 0;
+		this.disarm();
+		return true;
+	}
+	
+	/**
+	 * Schedule the wake for the current deadline, replacing any earlier one
+	 */
+	private void arm() {
+		this.disarm();
+		Threadable owner = this.task instanceof Threadable ? (Threadable)this.task : null;
+		this.threadManager.timerArmed();
+		this.timeout = this.threadManager.schedule(owner, new Wake(this.generation), this.getRemainingMillis());
+	}
+	
+	/**
+	 * Cancel the scheduled wake. Bumping the generation makes sure that
+	 * a wake which already fired and is on its way drops itself.
+	 */
+	private void disarm() {
+		this.generation++;
+		if (this.timeout != null) {
+			// A wake that couldn't be cancelled anymore settles its own count
+			if (this.timeout.cancel()) {
+				this.threadManager.timerDone();
+			}
+			this.timeout = null;
+		}
+	}
+	
+	/**
+	 * Save the remaining time instead of a deadline that only means something on this clock
+	 * @param out Object stream
+	 * @throws IOException On write failure
+	 */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		this.remainingMs = this.getRemainingMillis();
+		boolean wasRunning = this.running;
+		boolean wasSuspended = this.suspended;
+		
+		// A running countdown is saved as suspended, loading resumes it
+		this.running = false;
+		this.suspended = wasRunning || wasSuspended;
+		try {
+			out.defaultWriteObject();
+		} finally {
+			this.running = wasRunning;
+			this.suspended = wasSuspended;
+		}
+	}
+	
+	/**
+	 * Scheduled wake of one generation of the countdown
+	 */
+	private final class Wake implements Runnable {
+		
+		private final long generation;
+		
+		private Wake(long generation) {
+			this.generation = generation;
+		}
+		
+		/**
+		 * Run the owner's task, unless the countdown has been re-armed or stopped meanwhile
+		 */
+		@Override
+		public void run() {
+			Countdown countdown = Countdown.this;
+			countdown.threadManager.timerDone();
+			
+			Runnable current;
+			synchronized (countdown) {
+				if (this.generation != countdown.generation) {
+					return;
+				}
+				countdown.timeout = null;
+				current = countdown.task;
+			}
+			
+			// Outside the lock, the task calls back to expire()
+			current.run();
+		}
+	}
+}
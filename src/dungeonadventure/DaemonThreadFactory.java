@@ -0,0 +1,32 @@
+package dungeonadventure;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Names threads and makes them daemons, so they never keep the game running
+ * @author Mikko Piuhola
+ */
+final class DaemonThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final AtomicInteger counter;
+
+	/**
+	 * Create a factory
+	 * @param prefix Prefix for the thread names
+	 */
+	DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+		this.counter = new AtomicInteger();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(r, this.prefix + "-" + this.counter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,74 @@
+package dungeonadventure;
+
+/**
+ * Compass directions between Spaces, clockwise from north. A direction's
+ * ordinal is its slot in the world's adjacency array.
+ * @author Mikko Piuhola
+ */
+public enum Direction {
+	NORTH("north"),
+	EAST("east"),
+	SOUTH("south"),
+	WEST("west");
+	
+	// Amount of directions, i.e. adjacency slots for every Space
+	public static final int COUNT = 4;
+	
+	private static final Direction[] VALUES = values();
+	
+	private final String name;
+	
+	/**
+	 * Constructor for Direction
+	 * @param name Lower case name
+	 */
+	Direction(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Get direction's lower case name
+	 * @return Name, e.g. "north"
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Get the direction to the left
+	 * @return Direction 90 degrees counterclockwise
+	 */
+	public Direction left() {
+		return VALUES[(this.ordinal() + COUNT - 1) % COUNT];
+	}
+	
+	/**
+	 * Get the direction to the right
+	 * @return Direction 90 degrees clockwise
+	 */
+	public Direction right() {
+		return VALUES[(this.ordinal() + 1) % COUNT];
+	}
+	
+	/**
+	 * Get the opposite direction
+	 * @return Direction 180 degrees around
+	 */
+	public Direction opposite() {
+		return VALUES[(this.ordinal() + 2) % COUNT];
+	}
+	
+	/**
+	 * Find a direction by its name, ignoring case
+	 * @param name Direction's name, e.g. "North"
+	 * @return Direction or null if the name isn't a direction
+	 */
+	public static Direction forName(String name) {
+		for (Direction direction : VALUES) {
+			if (direction.name.equalsIgnoreCase(name)) {
+				return direction;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,10 @@
+package dungeonadventure;
+
+/**
+ * Enum for the executor Threadable objects are run on
+ * @author Mikko Piuhola
+ */
+public enum ExecutionMode {
+	TIMING_WHEEL,
+	VIRTUAL_THREADS
+}
@@ -0,0 +1,23 @@
+package dungeonadventure;
+
+/**
+ * Interface for the clock all time-dependent objects read.
+ * The clock can either follow real time or be simulated, in which case
+ * time only moves when it's advanced.
+ * @author Mikko Piuhola
+ */
+public interface GameClock {
+	
+	/**
+	 * Get the clock's current time
+	 * @return Current time in milliseconds, only meaningful relative to other readings
+	 */
+	public long currentTimeMillis();
+	
+	/**
+	 * Let the given amount of game time pass
+	 * @param ms Milliseconds to wait
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public void sleep(long ms) throws InterruptedException;
+}
@@ -1,21 +1,13 @@
 package dungeonadventure;
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map.Entry;
+import java.util.List;
 
 import dungeonadventure.items.Bomb;
-import dungeonadventure.items.CD;
-import dungeonadventure.items.CDPlayer;
-import dungeonadventure.items.Door;
-import dungeonadventure.items.Flashlight;
+import dungeonadventure.items.Capability;
 import dungeonadventure.items.Food;
 import dungeonadventure.items.Item;
-import dungeonadventure.items.Lantern;
 import dungeonadventure.items.WaterPipe;
-import dungeonadventure.items.resources.Track;
 import dungeonadventure.properties.Chargeable;
-import dungeonadventure.properties.Eatable;
-import dungeonadventure.properties.Holdable;
 import dungeonadventure.properties.Hostable;
 import dungeonadventure.properties.Inspectable;
 import dungeonadventure.properties.Installable;
@@ -31,8 +23,47 @@ public class GameEngine implements Serializable {
 
 	private static final long serialVersionUID = -6751690169252762972L;
 	
+	// Placeholder for the Item's name in the messages of ITEM_RULES
+	private static final String ITEM_NAME = "<item>";
+	
+	// Where an Action's Item must be and what it must be capable of, by Action ordinal
+	private static final ItemRule[] ITEM_RULES = new ItemRule[Action.values().length];
+	
+	// The rest of the ending after opening the hatch, each part shown after its pause in milliseconds.
+	// The last pause is before leaving the ending.
+	private static final String[] ENDING = {
+		".", ".\n", "An audible sigh leaves you, as you slowly regain your vision and see the rescue team heading towards you.\n",
+		"*************************************\n", "***************THE END***************\n",
+		"*************************************\n", "A game by: Mikko Piuhola\n", "\n"
+	};
+	private static final long[] ENDING_PAUSES = {1000, 1000, 1000, 3000, 500, 500, 1000, 1000, 3000};
+	
+	static {
+		rule(Action.ACTION_PICKUP, Scope.SPACE, Capability.HOLDABLE, "That item isn't in here", "You can't pick up this item");
+		rule(Action.ACTION_INSPECT, Scope.REACHABLE, null, "That item isn't in here", "You cannot inspect this item");
+		rule(Action.ACTION_DROP, Scope.INVENTORY, Capability.HOLDABLE, "You don't have that item", "You cannot drop this item");
+		rule(Action.ACTION_EAT, Scope.REACHABLE, Capability.EATABLE,
+				"You can't eat something that isn't in here or with you", "What are you doing?! You can't eat that!");
+		rule(Action.ACTION_OPEN, Scope.REACHABLE, Capability.OPENABLE, "That item isn't in here", "Cannot open this item");
+		rule(Action.ACTION_CLOSE, Scope.REACHABLE, Capability.OPENABLE, "That item isn't in here", "Cannot close this item");
+		rule(Action.ACTION_POWER_ON, Scope.REACHABLE, Capability.POWERABLE, "That item isn't in here", "Cannot power on this item");
+		rule(Action.ACTION_POWER_OFF, Scope.REACHABLE, Capability.POWERABLE, "That item isn't in here", "Cannot power off this item");
+		rule(Action.ACTION_CHARGE, Scope.INVENTORY, Capability.CHARGEABLE,
+				"You don't have that item in your inventory", "You cannot charge that");
+		for (Action playback : new Action[]{Action.ACTION_PLAY, Action.ACTION_STOP, Action.ACTION_SKIP, Action.ACTION_PREV}) {
+			rule(playback, Scope.REACHABLE, Capability.PLAYABLE, "You don't have that item in your inventory",
+					ITEM_NAME + " doesn't support playback. You do know it's a " + ITEM_NAME + ", right?");
+		}
+	}
+	
 	private Player currentPlayer;
 	private GameState gameState;
+	private ThreadManager threadManager;
+	private WorldStore worldStore;
+	transient private Output output;
+	transient private Timeout ending;
+	transient private int endingGeneration;
+	transient private Runnable afterEnding;
 	
 	/**
 	 * Constructor
@@ -40,6 +71,9 @@ public class GameEngine implements Serializable {
 	public GameEngine() {
 		this.currentPlayer = null; // We initialize the Player on init
 		this.gameState = null;
+		this.threadManager = null;
+		this.worldStore = null;
+		this.output = new BufferedOutput(System.out);
 	}
 	
 	/**
@@ -48,173 +82,106 @@ public class GameEngine implements Serializable {
 	 * @param gameState GameState-object
 	 */
 	public void init(GameState gameState) {
+		ThreadManager threadManager = new ThreadManager();
+		this.init(gameState, threadManager, threadManager.getOutput());
+	}
+	
+	/**
+	 * Game initialization with the game session's own ThreadManager,
+	 * e.g. one with a SimulatedClock for headless runs
+	 * @param gameState GameState-object
+	 * @param threadManager ThreadManager for the game's time-dependent objects
+	 * @param output Output of the game session
+	 */
+	public void init(GameState gameState, ThreadManager threadManager, Output output) {
 		
 		this.gameState = gameState;
+		this.output = output;
+		
+		// Every game gets its own threads, stop the previous game's
+		this.stopEnding();
+		if (this.threadManager != null) {
+			this.threadManager.clearAllThreads();
+		}
+		this.threadManager = threadManager;
+		// Events are reported where the rest of the game is
+		if (threadManager.getOutput() != output) {
+			threadManager.setOutput(output);
+		}
 		
 		// START STORY
 		try {
-			System.out.println("You slowly regain your consciousness. It's pitch black.");
-			System.out.println("Suddenly you remember: there was an explosion.");
-			System.out.println("The tunnel was being dug further south.");
-			System.out.println("And out of nowhere, there had been a series of explosions and parts of the mine had collapsed.");
-			System.out.println("\nAs you come up to sit, you hear a dripping sound in the west. Hope that isn't the water main.");
-			System.out.println("But suddenly you clear up as you hear a ticking sound in the south, down in the tunnels.");
-			System.out.println("You had been laying down explosives in the tunnel and had just come up to get some food before the explosion.");
-			System.out.println("Did some of the explosives not explode?");
-			System.out.println("\nIn a state of panic, you fumble around and feel something next to you. Something metallic.");
-			System.out.println("Could it be your flashlight?");
-			System.out.println();
-			System.out.println("*** Psst: saying help could prove to be useful ***");
+			this.output.println("You slowly regain your consciousness. It's pitch black.");
+			this.output.println("Suddenly you remember: there was an explosion.");
+			this.output.println("The tunnel was being dug further south.");
+			this.output.println("And out of nowhere, there had been a series of explosions and parts of the mine had collapsed.");
+			this.output.println("\nAs you come up to sit, you hear a dripping sound in the west. Hope that isn't the water main.");
+			this.output.println("But suddenly you clear up as you hear a ticking sound in the south, down in the tunnels.");
+			this.output.println("You had been laying down explosives in the tunnel and had just come up to get some food before the explosion.");
+			this.output.println("Did some of the explosives not explode?");
+			this.output.println("\nIn a state of panic, you fumble around and feel something next to you. Something metallic.");
+			this.output.println("Could it be your flashlight?");
+			this.output.println();
+			this.output.println("*** Psst: saying help could prove to be useful ***");
 		} catch (Exception e) {
 			// Do nothing
 		}
 		
-		// SPACES
-		Space mineShaft,tunnel,supplies,controlRoom,diningArea,lockers,exit;
-		mineShaft = new Space("Mineshaft","It's the mineshaft's starting point, where you woke up after the initial explosion.\nThere was a route outside but it got blocked in the explosion.");
-		tunnel = new Space("Tunnel","This is the main tunnel for mining, where you were setting up explosives to dig further south.\nRight now the walls look like they are barely holding, you shouldn't stay here long.");
-		supplies = new Space("Supplies","The supplies room. There seems to be a flashlight charging station in the corner. You should charge your flashlight if it's running low.");
-		controlRoom = new Space("Controlroom","Here is where all the electricity and water supplies are connected to the outer world. The pipe on the wall is the water main.");
-		diningArea = new Space("Dining-area","This place used to be your dining-area but right now it's just a bunch of rubble and random junk.\nThere's no one in here either. Were you and Peter the only ones in the mine during the explosion?\nYour memory is still a bit fuzzy.");
-		lockers = new Space("Lockers","Not much is left of the lockers either. On a positive note: no bodies in here either.");
-		exit = new Space("Exit", "The sign said exit, but this place doesn't look familiar.\nYou've never been here before. But, there is a promising looking hatch.");
-		
-		// NEXT/ADJACENT SPACES
-		mineShaft.addNextSpace("east", diningArea);
-		mineShaft.addNextSpace("south", tunnel);
-		mineShaft.addNextSpace("west", supplies);
-		tunnel.addNextSpace("north", mineShaft);
-		tunnel.addNextSpace("west", supplies);
-		supplies.addNextSpace("north", controlRoom);
-		supplies.addNextSpace("east", mineShaft);
-		supplies.addNextSpace("south", tunnel);
-		controlRoom.addNextSpace("south", supplies);
-		diningArea.addNextSpace("north", lockers);
-		diningArea.addNextSpace("west", mineShaft);
-		lockers.addNextSpace("north", exit);
-		lockers.addNextSpace("south", diningArea);
-		exit.addNextSpace("south", lockers);
-		
-		// ITEMS
-		// CD Setup (just for fun, used as a mechanic for the Player to waste time)
-		CD cd = new CD("St. Anger", "Metallica");
-		cd.addTrack(new Track("Metallica","Frantic",5,50));
-		cd.addTrack(new Track("Metallica","St. Anger",7,21));
-		cd.addTrack(new Track("Metallica","Some Kind of Monster",8,26));
-		cd.addTrack(new Track("Metallica","Dirty Window",5,25));
-		cd.addTrack(new Track("Metallica","Invisible Kid",8,30));
-		cd.addTrack(new Track("Metallica","My World",5,46));
-		cd.addTrack(new Track("Metallica","Shoot Me Again",7,10));
-		cd.addTrack(new Track("Metallica","Sweet Amber",5,27));
-		cd.addTrack(new Track("Metallica","The Unnamed Feeling",7,8));
-		cd.addTrack(new Track("Metallica","Purify",5,14));
-		cd.addTrack(new Track("Metallica","All Within My Hands",8,48));
-		
-		// Room items
-		mineShaft.addItem("Flashlight", new Flashlight());
-		tunnel.addItem("Lantern", new Lantern());
-		diningArea.addItem("Pizza", new Food("Pizza", "A delicious pepperoni pizza"));
-		diningArea.addItem("CD", cd);
-		lockers.addItem("CD-Player", new CDPlayer());
-		exit.addItem("Hatch", new Door("Hatch","Could this be the emergency exit hatch? It doesn't look like it's locked -- maybe try opening it.", true));
-		
-		// CHARGING STATION (for Flashlight)
-		supplies.setHasChargingStation(true);
-		
-		// OBSTACLES
-		Bomb bomb = new Bomb();
-		tunnel.addItem("Bomb", bomb);
-		WaterPipe pipe = new WaterPipe();
-		controlRoom.addItem("Pipe", pipe);
+		// WORLD (shared static template, the game only gets its own Spaces and Items)
+		WorldTemplate world = WorldTemplate.getDefault();
+		this.worldStore = new WorldStore(world);
+		List<Item> items = world.placeItems(this.worldStore, this.threadManager);
 		
 		// PLAYER
-		this.currentPlayer = new Player(this.gameState, mineShaft); // Player must have a starting Space
-		bomb.addObserver(this.currentPlayer);
-		pipe.addObserver(this.currentPlayer);
+		this.currentPlayer = new Player(this.gameState, this.threadManager, this.worldStore.getSpace(world.getStart())); // Player must have a starting Space
+		
+		// OBSTACLES warn the Player
+		for (Item item : items) {
+			if (item instanceof Bomb) {
+				((Bomb) item).addObserver(this.currentPlayer);
+			} else if (item instanceof WaterPipe) {
+				((WaterPipe) item).addObserver(this.currentPlayer);
+			}
+		}
 	}
 	
 	/**
 	 * Execute a user command
-	 * @param a User input command
+	 * @param command Interpreted user input command
 	 */
 	@SuppressWarnings("incomplete-switch")
-	public void executeCommand(Action a) {
+	public void executeCommand(ParsedCommand command) {
+		Action a = command.getAction();
 		switch (a.getType()) {
 			case TYPE_DIRECTIONAL:
-				movePlayer(a);
+				this.movePlayer(command);
 				break;
 			case TYPE_TURNING:
 				switch (a) {
 					case ACTION_LEFT: {
-						System.out.println("You turned left");
-						this.currentPlayer.turnLeft();
+						this.output.println("You turned left");
+						this.currentPlayer.turnLeft(this.output);
 						break;
 					}
 					case ACTION_RIGHT: {
-						System.out.println("You turned right");
-						this.currentPlayer.turnRight();
+						this.output.println("You turned right");
+						this.currentPlayer.turnRight(this.output);
 						break;
 					}
 				}
 				break;
 			case TYPE_HASDIRECTOBJECT:
-				
-				// Action is directed towards an object (Item)
-				// Find out the specific action
-				switch (a) {
-					case ACTION_PICKUP: {
-						this.pickupItem(a);
-						break;
-					}
-					case ACTION_INSPECT: {
-						this.inspectItem(a);
-						break;
-					}
-					case ACTION_DROP: {
-						this.dropItem(a);
-						break;
-					}
-					case ACTION_EAT: {
-						this.eatItem(a);
-						break;
-					}
-					case ACTION_OPEN: {
-						this.openItem(a);
-						break;
-					}
-					case ACTION_CLOSE: {
-						this.closeItem(a);
-						break;
-					}
-					case ACTION_POWER_ON: {
-						this.powerOnItem(a);
-						break;
-					}
-					case ACTION_POWER_OFF: {
-						this.powerOffItem(a);
-						break;
-					}
-					case ACTION_CHARGE: {
-						this.chargeItem(a);
-						break;
-					}
-					case ACTION_PLAY:
-					case ACTION_STOP:
-					case ACTION_SKIP:
-					case ACTION_PREV:
-						this.playbackItem(a);
-						break;
-				}
-				
+				// Action is directed towards an object (Item), see ITEM_RULES
+				this.useItem(command);
 				break;
 			case TYPE_HASINDIRECTOBJECT:
 				switch (a) {
 					case ACTION_PUT: {
-						this.putItem(a);
+						this.putItem(command);
 						break;
 					}
 					case ACTION_TAKE: {
-						this.takeItem(a);
+						this.takeItem(command);
 						break;
 					}
 				}
@@ -223,15 +190,15 @@ public class GameEngine implements Serializable {
 				switch (a) {
 					case ACTION_LOOK:
 						// Describe what the Player sees
-						this.currentPlayer.look();
+						this.currentPlayer.look(this.output);
 						break;
 					case ACTION_VIEW_ITEMS:
 						
 						// Only list the items if there actually are any
 						if (this.currentPlayer.getInventory().getItemList().size() >= 1) {
-							this.currentPlayer.printInventoryList();
+							this.currentPlayer.printInventoryList(this.output);
 						} else {
-							System.out.println("You don't have any items in your inventory.");
+							this.output.println("You don't have any items in your inventory.");
 						}
 
 						break;
@@ -250,320 +217,249 @@ public class GameEngine implements Serializable {
 						// Don't do anything
 						break;
 					case ACTION_ERROR:
-						System.out.println("I don't understand what you're trying to do.\nIf you're trying to do something with an item, make sure you have it near or with you.");
+						this.output.println("I don't understand what you're trying to do.\nIf you're trying to do something with an item, make sure you have it near or with you.");
 						break;
 					case ACTION_UNKNOWN:
-						System.out.println("I don't understand what you're trying to do");
+						this.output.println("I don't understand what you're trying to do");
 						break;
 				}
 				break;
 			default:
-				System.out.println("I don't understand what you're trying to do");
+				this.output.println("I don't understand what you're trying to do");
 				break;
 		}
 	}
 	
 	/**
-	 * Get Player's and current Space's inventories
-	 * @return Combined inventory
+	 * Get the Items in Player's and current Space's inventories
+	 * @return Index of reachable Items, kept up to date
 	 */
-	public HashMap<String, Item> getAvailableItems() {
-		HashMap<String, Item> items = new HashMap<String, Item>();
-		
-		HashMap<String, Item> playerItems = this.currentPlayer.getInventory().getItemList();
-		for(String key : playerItems.keySet()) {
-			items.put(key, playerItems.get(key));
-		}
-		
-		HashMap<String, Item> spaceItems = this.currentPlayer.getCurrentSpace().getItems();
-		for(String key : spaceItems.keySet()) {
-			items.put(key, spaceItems.get(key));
-		}
-		
-		return items;
+	public ItemIndex getItemIndex() {
+		return this.currentPlayer.getItemIndex();
 	}
 	
 	/**
-	 * Check Player's health
-	 * @return Is Player alive
+	 * Get the Player of this game
+	 * @return Player or null if the game hasn't been initialized
 	 */
-	public boolean isPlayerAlive() {
-		return this.currentPlayer.isAlive();
+	public Player getPlayer() {
+		return this.currentPlayer;
 	}
 	
-	// PRIVATE
+	/**
+	 * Get the store of this game's Spaces, e.g. for its paging counters
+	 * @return WorldStore or null if the game hasn't been initialized
+	 */
+	public WorldStore getWorldStore() {
+		return this.worldStore;
+	}
 	
 	/**
-	 * Item charge action
-	 * @param a ACTION_CHARGE
+	 * Set the output of the game session, e.g. after loading the game
+	 * @param output Output of the game session
 	 */
-	private void chargeItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		if (this.currentPlayer.hasItem(item)) {
-			if (item instanceof Chargeable) {
-				if (this.currentPlayer.getCurrentSpace().hasCharging()) {
-					if (((Chargeable)item).isInfinitelyChargeable()) {
-						((Chargeable)item).charge();
-					} else if (!((Chargeable)item).wasCharged()) {
-						((Chargeable)item).charge();
-					} else {
-						System.out.println("You already charged the " + item.getName() + " once. It cannot be recharged again.");
-					}
-				} else {
-					System.out.println("The charging station is not in here");
-				}
-			} else {
-				System.out.println("You cannot charge that");
-			}
-		} else {
-			System.out.println("You don't have that item in your inventory");
-		}
+	public void setOutput(Output output) {
+		this.output = output;
 	}
-
+	
 	/**
-	 * Item power off action
-	 * @param a ACTION_POWER_OFF
+	 * Get the ThreadManager of this game
+	 * @return ThreadManager or null if the game hasn't been initialized
 	 */
-	private void powerOffItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			if (item instanceof Powerable) {
-				((Powerable)item).powerOff();
-			} else {
-				System.out.println("Cannot power on this item");
-			}
-		} else {
-			System.out.println("That item isn't in here");
-		}
+	public ThreadManager getThreadManager() {
+		return this.threadManager;
 	}
-
+	
 	/**
-	 * Power item on action
-	 * @param a ACTION_POWER_ON
+	 * Check Player's health
+	 * @return Is Player alive
 	 */
-	private void powerOnItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			if (item instanceof Powerable) {
-				((Powerable)item).powerOn();
-			} else {
-				System.out.println("Cannot power on this item");
-			}
-		} else {
-			System.out.println("That item isn't in here");
-		}
+	public boolean isPlayerAlive() {
+		return this.currentPlayer.isAlive();
 	}
-
+	
+	// PRIVATE
+	
 	/**
-	 * Item close action
-	 * @param a ACTION_CLOSE
+	 * Add an Action's rule
+	 * @param action Action of TYPE_HASDIRECTOBJECT
+	 * @param scope Where the Item must be
+	 * @param capability What the Item must be capable of, null for any Item
+	 * @param outOfScope Message when the Item isn't in scope
+	 * @param incapable Message when the Item isn't capable, ITEM_NAME is replaced with the Item's name
 	 */
-	private void closeItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		// Can't open something that isn't here
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			// Item must be Openable
-			if (item instanceof Openable) {
-				((Openable) item).close();
-			} else {
-				System.out.println("Cannot close this item");
-			}
-		} else {
-			System.out.println("That item isn't in here");
-		}
+	private static void rule(Action action, Scope scope, Capability capability, String outOfScope, String incapable) {
+		ITEM_RULES[action.ordinal()] = new ItemRule(scope, capability == null ? 0 : capability.getBit(), outOfScope, incapable);
 	}
-
+	
 	/**
-	 * Item open action
-	 * @param a ACTION_OPEN
+	 * Execute an Action directed towards an Item: check the Item's scope
+	 * and capability from the Action's rule once, then run the Action's handler
+	 * @param command Command of TYPE_HASDIRECTOBJECT
 	 */
-	private void openItem(Action a) {
-		Item item = a.getDirectObject();
+	private void useItem(ParsedCommand command) {
+		Action action = command.getAction();
+		ItemRule rule = ITEM_RULES[action.ordinal()];
+		Item item = command.getDirectObject();
 		
-		// Can't open something that isn't here
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			// Item must be Openable
-			if (item instanceof Openable) {
-				
-				// Exit hatch grants victory on open
-				if (((Openable)item).winOnOpen()) {
-					((Openable)item).open();
-					this.win();
-				} else {
-					((Openable) item).open();
-				}
+		if (!this.isInScope(item, rule.scope)) {
+			// Picking up something the Player already has isn't an unknown Item
+			if (rule.scope == Scope.SPACE && this.currentPlayer.hasItem(item)) {
+				this.output.println("You already have that in your inventory");
 			} else {
-				System.out.println("Cannot open this item");
+				this.output.println(rule.outOfScope);
 			}
-		} else {
-			System.out.println("That item isn't in here");
+			return;
+		}
+		if ((item.getCapabilities() & rule.capabilities) != rule.capabilities) {
+			this.output.println(rule.namesItem ? rule.incapable.replace(ITEM_NAME, item.getName()) : rule.incapable);
+			return;
+		}
+		
+		// Every handler is called directly, the Item's capability is already checked
+		switch (action) {
+			case ACTION_PICKUP:
+				this.pickupItem(item);
+				break;
+			case ACTION_INSPECT:
+				((Inspectable)item).inspect(this.output);
+				break;
+			case ACTION_DROP:
+				this.dropItem(item);
+				break;
+			case ACTION_EAT:
+				this.currentPlayer.eat((Food)item, this.output);
+				break;
+			case ACTION_OPEN:
+				this.openItem((Openable)item);
+				break;
+			case ACTION_CLOSE:
+				((Openable)item).close(this.output);
+				break;
+			case ACTION_POWER_ON:
+				((Powerable)item).powerOn(this.output);
+				break;
+			case ACTION_POWER_OFF:
+				((Powerable)item).powerOff(this.output);
+				break;
+			case ACTION_CHARGE:
+				this.chargeItem((Chargeable)item);
+				break;
+			case ACTION_PLAY:
+				((Playable)item).play(this.output);
+				break;
+			case ACTION_STOP:
+				((Playable)item).stop(this.output);
+				break;
+			case ACTION_SKIP:
+				((Playable)item).next(this.output);
+				break;
+			case ACTION_PREV:
+				((Playable)item).prev(this.output);
+				break;
+			default:
+				this.output.println("I don't understand what you're trying to do");
+				break;
 		}
 	}
-
+	
 	/**
-	 * Item eat action
-	 * @param a ACTION_EAT
+	 * Check if an Item is where an Action needs it
+	 * @param item Item or null
+	 * @param scope Where the Item must be
+	 * @return Is the Item in scope
 	 */
-	private void eatItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		// Eatable item must either be in Player's Inventory
-		//  or in the current Space.
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			// Item must be Eatable
-			if (item instanceof Eatable) {
-				this.currentPlayer.eat((Food)item);
-			} else {
-				System.out.println("What are you doing?! You can't eat that!");
-			}
-		} else {
-			System.out.println("You can't eat something that isn't in here or with you");
+	private boolean isInScope(Item item, Scope scope) {
+		switch (scope) {
+			case INVENTORY:
+				return this.currentPlayer.hasItem(item);
+			case SPACE:
+				return this.currentPlayer.getCurrentSpace().hasItem(item);
+			default:
+				return this.getItemIndex().isReachable(item);
 		}
 	}
-
+	
 	/**
-	 * Item drop action
-	 * @param a ACTION_DROP
+	 * Item charge action
+	 * @param item Chargeable in the Inventory
 	 */
-	private void dropItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		// Can't drop Item if Player doesn't have it in their Inventory
-		if (this.currentPlayer.hasItem(item)) {
-			
-			// Some Items might not be droppable
-			if (item instanceof Holdable) {
-				System.out.println("Dropped " + item.getName());
-				
-				// Item is implicitly added to current Space
-				this.currentPlayer.dropItem(item);
+	private void chargeItem(Chargeable item) {
+		if (this.currentPlayer.getCurrentSpace().hasCharging()) {
+			if (item.isInfinitelyChargeable()) {
+				item.charge(this.output);
+			} else if (!item.wasCharged()) {
+				item.charge(this.output);
 			} else {
-				System.out.println("You cannot drop this item");
+				this.output.println("You already charged the " + ((Item)item).getName() + " once. It cannot be recharged again.");
 			}
 		} else {
-			System.out.println("You don't have that item");
+			this.output.println("The charging station is not in here");
 		}
 	}
-
+	
 	/**
-	 * Item inspect action
-	 * @param a ACTION_INSPECT
+	 * Item open action
+	 * @param item Openable in reach
 	 */
-	private void inspectItem(Action a) {
-		Item item = a.getDirectObject();
+	private void openItem(Openable item) {
+		item.open(this.output);
 		
-		// Only items in Inventory or current Space can be inspected
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			if (item instanceof Inspectable) {
-				((Inspectable)item).inspect();
-			} else {
-				System.out.println("You cannot inspect this item");
-			}
-		} else {
-			System.out.println("That item isn't in here");
+		// Exit hatch grants victory on open
+		if (item.winOnOpen()) {
+			this.win();
 		}
 	}
-
+	
 	/**
-	 * Item pickup action
-	 * @param a ACTION_PICKUP
+	 * Item drop action
+	 * @param item Holdable in the Inventory
 	 */
-	private void pickupItem(Action a) {
-		Item item = a.getDirectObject();
+	private void dropItem(Item item) {
+		this.output.println("Dropped " + item.getName());
 		
-		// Don't allow picking up items that don't exist in
-		//  Player's current location.
-		if (this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			// Can't pickup non-holdable Items (e.g. CDShelf)
-			if (item instanceof Holdable) {
-				System.out.println("Picked up "+ item.getName());
-				Item tempItem = this.currentPlayer.getCurrentSpace().takeItem(item.getName());
-				this.currentPlayer.pickupItem(tempItem);
-			} else {
-				System.out.println("You can't pick up this item");
-			}
-		} else if (this.currentPlayer.hasItem(item)) {
-			System.out.println("You already have that in your inventory");
-		} else {
-			System.out.println("That item isn't in here");
-		}
+		// Item is implicitly added to current Space
+		this.currentPlayer.dropItem(item, this.output);
 	}
-
+	
 	/**
-	 * Item playback action
-	 * @param a Playback-related Action
+	 * Item pickup action
+	 * @param item Holdable in the current Space
 	 */
-	private void playbackItem(Action a) {
-		Item item = a.getDirectObject();
-		
-		// Either the Player or the Space must have the item
-		if (this.currentPlayer.hasItem(item) ||
-				this.currentPlayer.getCurrentSpace().hasItem(item)) {
-			// And it must support playback
-			if (item instanceof Playable) {
-				switch (a) {
-					case ACTION_PLAY:
-						((Playable)item).play();
-						break;
-					case ACTION_STOP:
-						((Playable)item).stop();
-						break;
-					case ACTION_SKIP:
-						((Playable)item).next();
-						break;
-					case ACTION_PREV:
-						((Playable)item).prev();
-						break;
-					default:
-						System.out.println("Unknow playback command");
-						break;
-				}
-			} else {
-				System.out.println(item.getName() + " doesn't support playback. You do know it's a " + item.getName() + ", right?");
-			}
-		} else {
-			System.out.println("You don't have that item in your inventory");
-		}
+	private void pickupItem(Item item) {
+		this.output.println("Picked up "+ item.getName());
+		Item tempItem = this.currentPlayer.getCurrentSpace().takeItem(item.getName());
+		this.currentPlayer.pickupItem(tempItem, this.output);
 	}
-
+	
 	/**
 	 * Taking action (taking Installable out of Hostable)
-	 * @param a ActionTake
+	 * @param command ActionTake
 	 */
-	private void takeItem(Action a) {
-		if (a == Action.ACTION_TAKE) {
-			Item contents = a.getDirectObject();
-			Item container = a.getInDirectObject();
+	private void takeItem(ParsedCommand command) {
+		if (command.getAction() == Action.ACTION_TAKE) {
+			Item contents = command.getDirectObject();
+			Item container = command.getInDirectObject();
 			
 			// The container must be Hostable (otherwise there can't be
 			//  anything inside of it, e.g. nothing to take).
 			if (!(container instanceof Hostable)) {
-				System.out.println(container.getName() + " cannot hold any items, so there's nothing to take");
+				this.output.println(container.getName() + " cannot hold any items, so there's nothing to take");
 				
 			} else {
 				// Check that the container's installedItem is the same as the
 				//  contents.
 				if(((Hostable)container).installedItem() == (Installable)contents) {
-					boolean ok = ((Hostable)container).uninstall((Installable)contents);
+					boolean ok = ((Hostable)container).uninstall((Installable)contents, this.output);
 					if (!ok) {
-						System.out.println("Failed to remove item");
+						this.output.println("Failed to remove item");
 					} else {
 						((Installable)contents).setIsInstalled(false);
-						System.out.println("Removed " + contents.getName());
+						this.output.println("Removed " + contents.getName());
 					}
 				}	
 				else {
-					System.out.println("That item is not inside this " + container.getName());
+					this.output.println("That item is not inside this " + container.getName());
 				}
 			}
 		}
@@ -571,47 +467,47 @@ public class GameEngine implements Serializable {
 
 	/**
 	 * Putting action (inserting Installables into Hostables)
-	 * @param a ActionPut
+	 * @param command ActionPut
 	 */
-	private void putItem(Action a) {
-		if (a == Action.ACTION_PUT) {
-			Item itemToPut = a.getDirectObject();
-			Item itemToPutInto = a.getInDirectObject();
+	private void putItem(ParsedCommand command) {
+		if (command.getAction() == Action.ACTION_PUT) {
+			Item itemToPut = command.getDirectObject();
+			Item itemToPutInto = command.getInDirectObject();
 			
 			// Can't insert something that isn't in Player Inventory
 			if (!this.currentPlayer.hasItem(itemToPut)) {
-				System.out.println("You don't have that in your inventory");
+				this.output.println("You don't have that in your inventory");
 				
 			} else if (itemToPutInto == null) { // Target cannot be null
-				System.out.println("You must give a target to put that into");
+				this.output.println("You must give a target to put that into");
 				
 			} else if (!this.currentPlayer.hasItem(itemToPutInto)) {
 				// The host-item must be in Player's inventory
 				// TODO Implement an improved solution where Items can be inserted into Items in Spaces
-				System.out.println("You can't put " + itemToPut.getName() + " into something that you don't have in your inventory");
+				this.output.println("You can't put " + itemToPut.getName() + " into something that you don't have in your inventory");
 				
 			} else if (!(itemToPutInto instanceof Hostable) ||
 					!(itemToPut instanceof Installable)) {
 				// Both Items need to implement the correct methods
-				System.out.println("You cannot put " + itemToPut.getName() + " into " + itemToPutInto.getName());
+				this.output.println("You cannot put " + itemToPut.getName() + " into " + itemToPutInto.getName());
 				
 			} else {
 				// Cannot insert something that is already inserted somewhere else
 				if (!((Installable)itemToPut).isInstalled()) {
 					// Attempt to put Item into Item
-					boolean ok = this.currentPlayer.putItemInItem((Installable)itemToPut, (Hostable)itemToPutInto);
+					boolean ok = this.currentPlayer.putItemInItem((Installable)itemToPut, (Hostable)itemToPutInto, this.output);
 					if (!ok) {
-						System.out.println("Failed to insert item");
+						this.output.println("Failed to insert item");
 					} else {
 						((Installable)itemToPut).setIsInstalled(true);
-						System.out.println("Inserted " + itemToPut.getName());
+						this.output.println("Inserted " + itemToPut.getName());
 					}
 				} else {
 					// Find where the Installable is already inserted
 					Hostable existingHost = null;
-					for (Entry<String, Item> entry : this.getAvailableItems().entrySet()) {
-						if (entry.getValue() instanceof Hostable) {
-							Hostable host = (Hostable)entry.getValue();
+					for (Item available : this.getItemIndex().getItems()) {
+						if (available instanceof Hostable) {
+							Hostable host = (Hostable)available;
 							if (host.installedItem() == (Installable)itemToPut) {
 								existingHost = host;
 								break;
@@ -619,9 +515,9 @@ public class GameEngine implements Serializable {
 						}
 					}
 					if (existingHost != null) {
-						System.out.println(itemToPut.getName() + " is already inserted into " + ((Item) existingHost).getName());
+						this.output.println(itemToPut.getName() + " is already inserted into " + ((Item) existingHost).getName());
 					} else {
-						System.out.println(itemToPut.getName() + " is already inserted into something else");
+						this.output.println(itemToPut.getName() + " is already inserted into something else");
 					}
 				}
 			}
@@ -629,64 +525,138 @@ public class GameEngine implements Serializable {
 	}
 	
 	/**
-	 * Move Player based on Action
-	 * @param a Directional Action
+	 * Move Player based on Action. The Player says when it starts moving,
+	 * a named place is checked first.
+	 * @param command Directional command
 	 */
-	private void movePlayer(Action a) {
-		System.out.println("You start moving...");
-		this.currentPlayer.move(a);
+	private void movePlayer(ParsedCommand command) {
+		this.currentPlayer.move(command, this.output);
 	}
 	
 	/**
 	 * Print out the help menu
 	 */
 	private void help() {
-		System.out.println(" ---- Help ---- ");
+		this.output.println(" ---- Help ---- ");
 		
-		System.out.println("To view your current items, type \"Inventory\"");
-		System.out.println("To travel in a direction like north, type \"Go North\"");
-		System.out.println("Or for a specific currently visible place, type \"GoTo <name>\"");
-		System.out.println("And to check what you see, type \"look\"");
-		System.out.println("Some things can be inspected, type \"Inspect <item>\"");
-		System.out.println("You can pick up items, type \"Take <item>\", e.g. \"Take Banana\"");
-		System.out.println("And you can use them, type \"<item> <action>\", e.g. \"CD-Player Open\"");
-		System.out.println("You can power on a powerable item by typing \"<item> On\"");
-		System.out.println("To save you progress, type \"save\" and to quit, type \"quit\"");
-		System.out.println("The rest you can find out yourself...");
+		this.output.println("To view your current items, type \"Inventory\"");
+		this.output.println("To travel in a direction like north, type \"Go North\"");
+		this.output.println("Or for any place you know of, type \"GoTo <name>\"");
+		this.output.println("And to check what you see, type \"look\"");
+		this.output.println("Some things can be inspected, type \"Inspect <item>\"");
+		this.output.println("You can pick up items, type \"Take <item>\", e.g. \"Take Banana\"");
+		this.output.println("And you can use them, type \"<item> <action>\", e.g. \"CD-Player Open\"");
+		this.output.println("You can power on a powerable item by typing \"<item> On\"");
+		this.output.println("To save you progress, type \"save\" and to quit, type \"quit\"");
+		this.output.println("The rest you can find out yourself...");
 		
-		System.out.println(" -- Help END -- ");
+		this.output.println(" -- Help END -- ");
 	}
 	
 	/**
-	 * Game win
+	 * Game win. The ending is shown part by part from timers on the session,
+	 * so no thread waits through its pauses.
 	 */
 	private void win() {
-		try {
-			this.gameState.setGameState(State.MENU_STATE);
-			ThreadManager.clearAllThreads();
-			System.out.println("You are blinded by a bright light as you open the hatch");
-			System.out.println("Was this the way out?");
-			System.out.print(".");
-			Thread.sleep(1000);
-			System.out.print(".");
-			Thread.sleep(1000);
-			System.out.print(".\n");
-			Thread.sleep(1000);
-			System.out.println("An audible sigh leaves you, as you slowly regain your vision and see the rescue team heading towards you.");
-			Thread.sleep(3000);
-			System.out.println("*************************************");
-			Thread.sleep(500);
-			System.out.println("***************THE END***************");
-			Thread.sleep(500);
-			System.out.println("*************************************");
-			Thread.sleep(1000);
-			System.out.println("A game by: Mikko Piuhola");
-			Thread.sleep(1000);
-			System.out.println();
-			Thread.sleep(3000);
-		} catch (Exception e) {
-			System.out.println("Is the hatch broken? Or did you just break the game?");
-			System.out.println("Type anything to return to the main menu:");
+		this.gameState.setGameState(State.MENU_STATE);
+		this.threadManager.clearAllThreads();
+		this.output.println("You are blinded by a bright light as you open the hatch");
+		this.output.println("Was this the way out?");
+		this.output.print(".");
+		this.stopEnding();
+		this.showEnding(0, this.endingGeneration);
+	}
+	
+	/**
+	 * Schedule the next part of the ending
+	 * @param part Index of the part in ENDING, its length for leaving the ending
+	 * @param generation Generation of the ending being shown, see stopEnding()
+	 */
+	private void showEnding(final int part, final int generation) {
+		this.ending = this.threadManager.scheduleInSession(new Runnable() {
+			@Override
+			public void run() {
+				// Runs on the session, so a stop in between is always seen
+				if (generation != GameEngine.this.endingGeneration) {
+					return;
+				}
+				if (part < ENDING.length) {
+					GameEngine.this.output.print(ENDING[part]);
+					GameEngine.this.output.flush();
+					GameEngine.this.showEnding(part + 1, generation);
+				} else {
+					Runnable after = GameEngine.this.afterEnding;
+					GameEngine.this.ending = null;
+					GameEngine.this.afterEnding = null;
+					if (after != null) {
+						after.run();
+					}
+				}
+			}
+		}, ENDING_PAUSES[part]);
+	}
+	
+	/**
+	 * Is the ending still being shown
+	 * @return Are parts of the ending left
+	 */
+	public boolean isEnding() {
+		return this.ending != null;
+	}
+	
+	/**
+	 * Set a task to run on the session once the ending has been shown, e.g. returning to the menu
+	 * @param task Task to run, not run if the ending is stopped
+	 */
+	public void setAfterEnding(Runnable task) {
+		this.afterEnding = task;
+	}
+	
+	/**
+	 * Skip the rest of the ending, e.g. when the player returns to the menu before it's over
+	 */
+	public void stopEnding() {
+		this.endingGeneration++;
+		this.afterEnding = null;
+		if (this.ending != null) {
+			this.ending.cancel();
+			this.ending = null;
+		}
+	}
+	
+	/**
+	 * Where an Action needs its Item to be
+	 */
+	private enum Scope {
+		REACHABLE,
+		INVENTORY,
+		SPACE
+	}
+	
+	/**
+	 * What an Action needs of its Item, checked before the Action's handler is run
+	 */
+	private static final class ItemRule {
+		
+		private final Scope scope;
+		private final int capabilities;
+		private final String outOfScope;
+		private final String incapable;
+		private final boolean namesItem;
+		
+		/**
+		 * Create a rule
+		 * @param scope Where the Item must be
+		 * @param capabilities Capability bits the Item must have
+		 * @param outOfScope Message when the Item isn't in scope
+		 * @param incapable Message when the Item isn't capable, ITEM_NAME is replaced with the Item's name
+		 */
+		ItemRule(Scope scope, int capabilities, String outOfScope, String incapable) {
+			this.scope = scope;
+			this.capabilities = capabilities;
+			this.outOfScope = outOfScope;
+			this.incapable = incapable;
+			this.namesItem = incapable.contains(ITEM_NAME);
 		}
 	}
 }
@@ -0,0 +1,102 @@
+package dungeonadventure;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts any amount of independent GameSessions in one JVM.
+ * Sessions don't own threads: each one gets a serial executor on top of
+ * the host's bounded worker pool, so a session's input and events are
+ * handled in order while different sessions run in parallel.
+ * Saves go into the host's save directory, a host without one, e.g. one
+ * serving network players who shouldn't see each other's saves, has
+ * saving turned off.
+ * @author Mikko Piuhola
+ */
+public class GameHost {
+	
+	private final ExecutorService workers;
+	private final ConcurrentHashMap<Long, GameSession> sessions;
+	private final AtomicLong nextId;
+	private final File saveDirectory;
+	
+	/**
+	 * Create a host with a worker for each available processor, saving into the working directory
+	 */
+	public GameHost() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Create a host saving into the working directory
+	 * @param workers Amount of worker threads shared by all the sessions
+	 */
+	public GameHost(int workers) {
+		this(workers, new File("."));
+	}
+	
+	/**
+	 * Create a host
+	 * @param workers Amount of worker threads shared by all the sessions
+	 * @param saveDirectory Directory the sessions save into, null turns saving off
+	 */
+	public GameHost(int workers, File saveDirectory) {
+		this.workers = Executors.newFixedThreadPool(Math.max(1, workers), new DaemonThreadFactory("session-worker"));
+		this.sessions = new ConcurrentHashMap<Long, GameSession>();
+		this.nextId = new AtomicLong();
+		this.saveDirectory = saveDirectory;
+	}
+	
+	/**
+	 * Open a new session and show it the main menu
+	 * @param out Output of the session
+	 * @return New session
+	 */
+	public GameSession openSession(PrintStream out) {
+		long id = this.nextId.incrementAndGet();
+		GameSession session = new GameSession(id, new SerialExecutor(this.workers, "session " + id), out, this.saveDirectory);
+		this.sessions.put(session.getId(), session);
+		session.start();
+		return session;
+	}
+	
+	/**
+	 * Close a session and forget it
+	 * @param session Session to close
+	 */
+	public void closeSession(GameSession session) {
+		if (this.sessions.remove(session.getId()) != null) {
+			session.close();
+		}
+	}
+	
+	/**
+	 * Get a session by its identifier
+	 * @param id Session id
+	 * @return Session or null if there's no such session
+	 */
+	public GameSession getSession(long id) {
+		return this.sessions.get(id);
+	}
+	
+	/**
+	 * Get the amount of open sessions
+	 * @return Session count
+	 */
+	public int getSessionCount() {
+		return this.sessions.size();
+	}
+	
+	/**
+	 * Close all sessions and stop the workers once they're done
+	 */
+	public void shutdown() {
+		for (GameSession session : this.sessions.values()) {
+			this.closeSession(session);
+		}
+		this.workers.shutdown();
+	}
+}
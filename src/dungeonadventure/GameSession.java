@@ -0,0 +1,413 @@
+package dungeonadventure;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * One player's game: its GameEngine, GameState, threads and output.
+ * Input lines are pushed in by a front end (console, network) and handled
+ * one at a time on the session's serial executor, together with the
+ * session's observable events. A session never blocks waiting for input,
+ * so any amount of them can share a small pool of threads.
+ * @author Mikko Piuhola
+ */
+public class GameSession {
+	
+	private static final Logger LOG = Logger.getLogger(GameSession.class.getName());
+	
+	private final long id;
+	private final Executor executor;
+	private final Output out;
+	private final CommandInterpreter ci;
+	private final File saveDirectory;
+	private GameEngine engine;
+	private GameState gameState;
+	private volatile boolean finished;
+	
+	/**
+	 * Create a session, starting in the menu
+	 * @param id Identifier of the session
+	 * @param executor Serial executor of the session
+	 * @param out Stream the session's output is written to, once per command
+	 * @param saveDirectory Directory the session's saves are kept in, null turns saving off
+	 */
+	public GameSession(long id, Executor executor, PrintStream out, File saveDirectory) {
+		this.id = id;
+		this.executor = executor;
+		this.out = new BufferedOutput(out);
+		this.ci = new CommandInterpreter(null);
+		this.saveDirectory = saveDirectory;
+		this.engine = new GameEngine();
+		this.gameState = new GameState();
+		this.finished = false;
+	}
+	
+	/**
+	 * Get the identifier of the session
+	 * @return Session id
+	 */
+	public long getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Has the player exited the game
+	 * @return Is finished
+	 */
+	public boolean isFinished() {
+		return this.finished;
+	}
+	
+	/**
+	 * Get the session's executor
+	 * @return Serial executor
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+	
+	/**
+	 * Show the main menu
+	 * @return Future completing once the menu has been drawn
+	 */
+	public Future<?> start() {
+		return this.submit(new Runnable() {
+			@Override
+			public void run() {
+				GameSession.this.drawMenu();
+			}
+		});
+	}
+	
+	/**
+	 * Queue a line of player input for handling
+	 * @param line Input line
+	 * @return Future completing once the line has been handled
+	 */
+	public Future<?> handleLine(final String line) {
+		return this.submit(new Runnable() {
+			@Override
+			public void run() {
+				GameSession.this.processLine(line.trim().toLowerCase());
+			}
+		});
+	}
+	
+	/**
+	 * End the session, e.g. when the player disconnects
+	 * @return Future completing once the session has been closed
+	 */
+	public Future<?> close() {
+		return this.submit(new Runnable() {
+			@Override
+			public void run() {
+				GameSession.this.exit();
+			}
+		});
+	}
+	
+	/**
+	 * Run a task on the session's executor, flushing its output in one go afterwards.
+	 * A failing task is logged here with the session's id, and the player is told
+	 * the command didn't go through.
+	 * @param task Task to run
+	 * @return Future of the task
+	 */
+	private Future<?> submit(final Runnable task) {
+		FutureTask<Void> future = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					LOG.log(Level.SEVERE, "Session " + GameSession.this.id + " failed", e);
+					GameSession.this.out.println("Something went wrong, that didn't work");
+				} finally {
+					GameSession.this.out.flush();
+				}
+			}
+		}, null);
+		this.executor.execute(future);
+		return future;
+	}
+	
+	/**
+	 * Handle one line of input according to the game state
+	 * @param input Trimmed, lower case input
+	 */
+	private void processLine(String input) {
+		if (this.finished || input.length() < 1) {
+			return;
+		}
+		
+		// Any input skips the rest of the ending
+		if (this.engine.isEnding()) {
+			this.leaveGame(State.MENU_STATE);
+			this.drawMenu();
+			return;
+		}
+		
+		switch (this.gameState.getGameState()) {
+			case MENU_STATE:
+				this.processMenu(input);
+				break;
+			case SAVE_STATE:
+				this.save(input);
+				break;
+			case LOAD_STATE:
+				this.load(input);
+				break;
+			case RUN_STATE:
+				this.processCommand(input);
+				break;
+			case EXIT_STATE:
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Handle a menu selection
+	 * @param input Player input
+	 */
+	private void processMenu(String input) {
+		switch (input) {
+			case "1":
+				// The world is read on first use, a broken installation mustn't end the session
+				try {
+					WorldTemplate.getDefault();
+				} catch (IllegalStateException e) {
+					this.out.println("The mine can't be opened: " + e.getMessage());
+					this.drawMenu();
+					break;
+				}
+				this.out.println("Starting new game...");
+				this.clearThreads();
+				this.engine.init(this.gameState, new ThreadManager(new RealTimeClock(), this.executor, this.out), this.out);
+				this.enterGame();
+				break;
+			case "2":
+				if (this.saveDirectory == null) {
+					this.out.println("Saved games aren't available here");
+					this.drawMenu();
+					break;
+				}
+				this.gameState.setGameState(State.LOAD_STATE);
+				this.out.println("Give save's name:");
+				break;
+			case "3":
+				this.exit();
+				break;
+			default:
+				this.out.println("Please choose an item from the list");
+				break;
+		}
+	}
+	
+	/**
+	 * Handle a command during the game
+	 * @param input Player input
+	 */
+	private void processCommand(String input) {
+		// Catch Player lose and win situations (the state has changed
+		//  since the last input)
+		if (!this.engine.isPlayerAlive() || this.gameState.getGameState() == State.MENU_STATE) {
+			this.out.println("Returning to the menu...");
+			this.leaveGame(State.MENU_STATE);
+			this.drawMenu();
+			return;
+		}
+		
+		// Catch exit, save and menu commands
+		if (input.compareTo("exit") == 0 ||
+				input.compareTo("quit") == 0) {
+			this.exit();
+		} else if (input.compareTo("save") == 0 && this.saveDirectory == null) {
+			this.out.println("Saving isn't available here");
+		} else if (input.compareTo("save") == 0) {
+			this.leaveGame(State.SAVE_STATE);
+			this.out.println("Give a name for your save:");
+		} else if (input.compareTo("menu") == 0) {
+			this.leaveGame(State.MENU_STATE);
+			this.drawMenu();
+		} else {
+			// Any other user actions (actual game input), unknown input is handled by the engine
+			ParsedCommand command = this.ci.interpretCommand(input, this.engine.getItemIndex(), this.engine.getWorldStore().getTemplate(), this.out);
+			this.engine.executeCommand(command);
+			
+			// The command itself may have ended the game, the menu waits for the ending
+			if (this.gameState.getGameState() == State.MENU_STATE && this.engine.isPlayerAlive()) {
+				if (this.engine.isEnding()) {
+					this.engine.setAfterEnding(new Runnable() {
+						@Override
+						public void run() {
+							GameSession.this.leaveGame(State.MENU_STATE);
+							GameSession.this.drawMenu();
+							GameSession.this.out.flush();
+						}
+					});
+				} else {
+					this.leaveGame(State.MENU_STATE);
+					this.drawMenu();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Save the game and return to it
+	 * @param name Save's name
+	 */
+	private void save(String name) {
+		if (!isValidSaveName(name)) {
+			this.out.println("Save names can only contain letters, numbers, - and _");
+			this.out.println("Give a name for your save:");
+			return;
+		}
+		
+		// The engine carries its ThreadManager, so the threads are saved with it
+		this.saveDirectory.mkdirs();
+		try (ObjectOutputStream os = new ObjectOutputStream(new FileOutputStream(this.saveFile(name)))) {
+			os.writeObject(this.gameState);
+			os.writeObject(this.engine);
+			
+			this.out.println("Saved game successfully");
+		} catch (IOException e) {
+			this.out.println("Save file inaccessible");
+		}
+		
+		// Return to game
+		this.out.println("Returning to the game...");
+		this.enterGame();
+	}
+	
+	/**
+	 * Load a saved game and start it
+	 * @param name Save's name
+	 */
+	private void load(String name) {
+		if (!isValidSaveName(name)) {
+			this.out.println("Save file not found");
+			this.gameState.setGameState(State.MENU_STATE);
+			this.drawMenu();
+			return;
+		}
+		
+		try (ObjectInputStream os = new ObjectInputStream(new FileInputStream(this.saveFile(name)))) {
+			// Read GameState and GameEngine (with its threads) from file
+			GameState loadedState = (GameState)os.readObject();
+			GameEngine loadedEngine = (GameEngine)os.readObject();
+			
+			// Clear any residue threads of the previous game first
+			this.clearThreads();
+			this.gameState = loadedState;
+			this.engine = loadedEngine;
+			this.engine.setOutput(this.out);
+			if (this.engine.getThreadManager() != null) {
+				this.engine.getThreadManager().attach(this.executor, this.out);
+			}
+			
+			// Begin game
+			this.out.println("Loaded game");
+			this.enterGame();
+			return;
+		} catch (FileNotFoundException e) {
+			this.out.println("Save file not found");
+		} catch (IOException e) {
+			this.out.println("Save file inaccessible");
+		} catch (ClassNotFoundException e) {
+			this.out.println("Something wrong in the save file");
+		}
+		
+		this.gameState.setGameState(State.MENU_STATE);
+		this.drawMenu();
+	}
+	
+	/**
+	 * Get the file of a save in the session's save directory
+	 * @param name Valid save name
+	 * @return Save file
+	 */
+	private File saveFile(String name) {
+		return new File(this.saveDirectory, name + ".bin");
+	}
+	
+	/**
+	 * Start or continue the game, resuming any pre-existing threads
+	 */
+	private void enterGame() {
+		this.gameState.setGameState(State.RUN_STATE);
+		if (this.engine.getThreadManager() != null) {
+			this.engine.getThreadManager().restartAllThreads();
+		}
+	}
+	
+	/**
+	 * "Pause" all threads (Objects keep state, threads are resumed on return)
+	 * @param state State to move to
+	 */
+	private void leaveGame(State state) {
+		this.engine.stopEnding();
+		if (this.engine.getThreadManager() != null) {
+			this.engine.getThreadManager().stopAllThreads();
+		}
+		this.gameState.setGameState(state);
+	}
+	
+	/**
+	 * Stop the game for good
+	 */
+	private void exit() {
+		if (this.finished) {
+			return;
+		}
+		this.finished = true;
+		this.gameState.setGameState(State.EXIT_STATE);
+		this.clearThreads();
+		this.out.println("Exiting...");
+	}
+	
+	/**
+	 * Stop and remove the current game's threads and ending, if a game has been started
+	 */
+	private void clearThreads() {
+		this.engine.stopEnding();
+		ThreadManager threadManager = this.engine.getThreadManager();
+		if (threadManager != null) {
+			threadManager.clearAllThreads();
+		}
+	}
+	
+	/**
+	 * Draw main menu
+	 */
+	private void drawMenu() {
+		this.out.println("======================Menu======================");
+		this.out.println("Type the number to select:");
+		this.out.println();
+		this.out.println("[1] Start new game");
+		this.out.println("[2] Load saved game");
+		this.out.println("[3] Exit game");
+		this.out.println("================================================");
+	}
+	
+	/**
+	 * Save names become file names, so keep them to plain characters
+	 * @param name Save's name
+	 * @return Is the name usable
+	 */
+	private static boolean isValidSaveName(String name) {
+		return name.matches("[a-z0-9_-]{1,64}");
+	}
+}
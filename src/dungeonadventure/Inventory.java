@@ -1,54 +1,96 @@
 package dungeonadventure;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.Map.Entry;
+import java.util.LinkedHashMap;
+import java.util.List;
 
+import dungeonadventure.items.Capability;
 import dungeonadventure.items.Item;
 
 /**
  * Inventory. Can contain Items (up to 10 at a time).
+ * The Items of every Capability are kept in their own list as Items are
+ * added and removed, so type queries are a lookup. The lists are rebuilt
+ * from the Items when a saved Inventory is loaded.
  * @author Mikko Piuhola
  */
 public class Inventory implements Serializable {
 
 	private static final long serialVersionUID = -8877074895886372762L;
 	
+	private static final Capability[] CAPABILITIES = Capability.values();
+	
 	private HashMap<String,Item> itemList;
+	transient private EnumMap<Capability, ArrayList<Item>> itemsByCapability;
+	transient private EnumMap<Capability, List<Item>> readOnlyByCapability;
 	private final int INVENTORY_LIMIT = 10; // Static inventory size, could be expanded
+	transient private ItemIndex itemIndex;
 	
 	/**
 	 * Create an empty inventory
 	 */
 	public Inventory() {
-		this.itemList = new HashMap<String,Item>();
+		// Kept in insertion order, so a loaded Inventory lists its Items as they were added
+		this.itemList = new LinkedHashMap<String,Item>();
+		this.indexCapabilities();
+	}
+	
+	/**
+	 * Build the lists of Items by Capability, and their read-only views,
+	 * from the Items in the inventory
+	 */
+	private void indexCapabilities() {
+		this.itemsByCapability = new EnumMap<Capability, ArrayList<Item>>(Capability.class);
+		this.readOnlyByCapability = new EnumMap<Capability, List<Item>>(Capability.class);
+		for (Capability capability : CAPABILITIES) {
+			ArrayList<Item> items = new ArrayList<Item>(2);
+			this.itemsByCapability.put(capability, items);
+			this.readOnlyByCapability.put(capability, Collections.unmodifiableList(items));
+		}
+		for (Item item : this.itemList.values()) {
+			for (int rest = item.getCapabilities(); rest != 0; rest &= rest - 1) {
+				this.itemsByCapability.get(CAPABILITIES[Integer.numberOfTrailingZeros(rest)]).add(item);
+			}
+		}
 	}
 	
 	/**
 	 * Add item to inventory
 	 * @param item Item to add
+	 * @param out Output for messages
 	 * @return Was item successfully added
 	 */
-	public boolean addItem(Item item) {
+	public boolean addItem(Item item, Output out) {
 		
 		boolean addSuccess;
 		
 		if (this.itemList.size() < this.INVENTORY_LIMIT) {
 			if (this.itemList.get(item.getName().toLowerCase()) == null) {
 				this.itemList.put(item.getName().toLowerCase(), item);
+				for (int rest = item.getCapabilities(); rest != 0; rest &= rest - 1) {
+					this.itemsByCapability.get(CAPABILITIES[Integer.numberOfTrailingZeros(rest)]).add(item);
+				}
+				if (this.itemIndex != null) {
+					this.itemIndex.add(item);
+				}
 				
 				if (this.itemList.size() == this.INVENTORY_LIMIT) {
-					System.out.println("Inventory is now full");
+					out.println("Inventory is now full");
 				}
 				
 				addSuccess = true;
 			} else {
-				System.out.println(item.getName()
+				out.println(item.getName()
 						+ " is already in the inventory!");
 				addSuccess = false;
 			}
 		} else {
-			System.out.println("Inventory full!");
+			out.println("Inventory full!");
 			addSuccess = false;
 		}
 		
@@ -58,27 +100,45 @@ public class Inventory implements Serializable {
 	/**
 	 * Remove item from inventory
 	 * @param itemName Name of item to remove
+	 * @param out Output for messages
 	 * @return Was item successfully removed
 	 */
-	public boolean removeItem(String itemName) {
+	public boolean removeItem(String itemName, Output out) {
 		
 		boolean removeSuccess;
 		
-		if (this.itemList.get(itemName.toLowerCase()) != null) {
-			this.itemList.remove(itemName.toLowerCase());
+		Item removed = this.itemList.remove(itemName.toLowerCase());
+		if (removed != null) {
+			for (int rest = removed.getCapabilities(); rest != 0; rest &= rest - 1) {
+				this.itemsByCapability.get(CAPABILITIES[Integer.numberOfTrailingZeros(rest)]).remove(removed);
+			}
+			if (this.itemIndex != null) {
+				this.itemIndex.remove(removed);
+			}
 			removeSuccess = true;
 		} else {
-			System.out.println("No '" + itemName + "' exists in inventory");
+			out.println("No '" + itemName + "' exists in inventory");
 			removeSuccess = false;
 		}
 		
 		if (this.itemList.size() == 0) {
-			System.out.println("Inventory is now empty");
+			out.println("Inventory is now empty");
 		}
 		
 		return removeSuccess;
 	}
 	
+	/**
+	 * Keep an index of reachable Items up to date with this inventory's Items
+	 * @param itemIndex Index of the Player's reachable Items
+	 */
+	public void setItemIndex(ItemIndex itemIndex) {
+		this.itemIndex = itemIndex;
+		for (Item item : this.itemList.values()) {
+			itemIndex.add(item);
+		}
+	}
+	
 	/**
 	 * Get item by name
 	 * @param itemName Name of the item to get
@@ -99,53 +159,61 @@ public class Inventory implements Serializable {
 	
 	/**
 	 * Print list of items in inventory
+	 * @param out Output for messages
 	 */
-	public void printInventory() {
+	public void printInventory(Output out) {
 		for (String key : this.itemList.keySet()) {
 			Item currentItem = this.itemList.get(key);
-			System.out.println("You have a " + currentItem.getName());
+			out.println("You have a " + currentItem.getName());
 		}
 	}
 	
+	/**
+	 * Check for Items with a capability
+	 * @param capability Capability to check for
+	 * @return Such Item exists in Inventory
+	 */
+	public boolean hasItemOf(Capability capability) {
+		return !this.itemsByCapability.get(capability).isEmpty();
+	}
+	
+	/**
+	 * Get all Items with a capability, in the order they were added
+	 * @param capability Capability of the Items
+	 * @return Unmodifiable live view of the Items, shared between calls
+	 */
+	public List<Item> getItemsOf(Capability capability) {
+		return this.readOnlyByCapability.get(capability);
+	}
+	
 	/**
 	 * Check for specific type of Items
-	 * @param str Type name
+	 * @param str Type name, e.g. "Lightsource", see Capability
 	 * @return Such Item exists in Inventory
 	 */
 	public boolean hasItemOfType(String str) {
-		try {
-			for (Entry<String, Item> entry : this.itemList.entrySet()) {
-				Item item = entry.getValue();
-				if (Class.forName(str).isInstance(item)) {
-					return true;
-				}
-			}
-		} catch(ClassNotFoundException e) {
-			// No reaction
-		}
-		
-		return false;
+		Capability capability = Capability.forName(str);
+		return capability != null && this.hasItemOf(capability);
 	}
 	
 	/**
 	 * Get all items of specific type
-	 * @param str Type's name
+	 * @param str Type's name, e.g. "Lightsource", see Capability
 	 * @return ArrayList of items of the given type
 	 */
 	public ArrayList<Item> getItemsOfType(String str) {
-		ArrayList<Item> items = new ArrayList<Item>();
-		
-		try {
-			for (Entry<String, Item> entry : this.itemList.entrySet()) {
-				Item item = entry.getValue();
-				if (Class.forName(str).isInstance(item)) {
-					items.add(item);
-				}
-			}
-		} catch(ClassNotFoundException e) {
-			// No reaction
-		}
-		
-		return items;
+		Capability capability = Capability.forName(str);
+		return capability == null ? new ArrayList<Item>() : new ArrayList<Item>(this.itemsByCapability.get(capability));
+	}
+	
+	/**
+	 * Restore the lists of Items by Capability of a loaded Inventory
+	 * @param in Object stream
+	 * @throws IOException On read failure
+	 * @throws ClassNotFoundException On unknown classes in the stream
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.indexCapabilities();
 	}
 }
@@ -0,0 +1,172 @@
+package dungeonadventure;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import dungeonadventure.items.Item;
+
+/**
+ * Index of the Items the Player can reach: the ones in the Inventory and in the
+ * current Space, by their names and aliases. The Inventory and the current
+ * Space keep the index up to date as Items are added and removed, so
+ * commands can look Items up without collecting them first. An Item moving
+ * between the two may briefly be in both, so the index counts its holders.
+ * @author Mikko Piuhola
+ */
+public final class ItemIndex {
+	
+	private final HashMap<String, Item> byWord;
+	private final IdentityHashMap<Item, Integer> holders;
+	private WordTable<Item> wordTable;
+	private TypoIndex<Item> typoIndex;
+	
+	/**
+	 * Create an empty index
+	 */
+	public ItemIndex() {
+		this.byWord = new HashMap<String, Item>();
+		this.holders = new IdentityHashMap<Item, Integer>();
+	}
+	
+	/**
+	 * Add an Item by its name and aliases. If another Item already has
+	 * one of the words, the word keeps referring to the other Item.
+	 * @param item Item to add
+	 */
+	public void add(Item item) {
+		Integer count = this.holders.get(item);
+		if (count != null) {
+			this.holders.put(item, count + 1);
+			return;
+		}
+		this.holders.put(item, 1);
+		this.wordTable = null;
+		this.typoIndex = null;
+		this.put(item.getName().toLowerCase(), item);
+		for (String alias : item.getAliases()) {
+			this.put(alias, item);
+		}
+	}
+	
+	/**
+	 * Remove an Item, once it's removed as many times as it was added
+	 * @param item Item to remove
+	 */
+	public void remove(Item item) {
+		Integer count = this.holders.get(item);
+		if (count == null) {
+			return;
+		} else if (count > 1) {
+			this.holders.put(item, count - 1);
+			return;
+		}
+		this.holders.remove(item);
+		this.wordTable = null;
+		this.typoIndex = null;
+		this.unmap(item.getName().toLowerCase(), item);
+		for (String alias : item.getAliases()) {
+			this.unmap(alias, item);
+		}
+	}
+	
+	/**
+	 * Get an Item by its name or alias
+	 * @param word Lower case name or alias
+	 * @return Item or null if no reachable Item has the name
+	 */
+	public Item get(String word) {
+		return this.byWord.get(word);
+	}
+	
+	/**
+	 * Is an Item with the name or alias reachable
+	 * @param word Lower case name or alias
+	 * @return Is there such an Item
+	 */
+	public boolean contains(String word) {
+		return this.byWord.containsKey(word);
+	}
+	
+	/**
+	 * Is an Item reachable
+	 * @param item Item or null
+	 * @return Is the Item in the Inventory or the current Space
+	 */
+	public boolean isReachable(Item item) {
+		return item != null && this.holders.containsKey(item);
+	}
+	
+	/**
+	 * Get the names and aliases of the reachable Items for looking them up
+	 * straight from the player's input, without creating Strings.
+	 * The table is built when it's first needed after the Items have changed.
+	 * @return Table of Item words
+	 */
+	public WordTable<Item> getWordTable() {
+		if (this.wordTable == null) {
+			WordTable<Item> table = new WordTable<Item>();
+			for (Map.Entry<String, Item> entry : this.byWord.entrySet()) {
+				table.add(entry.getKey(), entry.getValue());
+			}
+			this.wordTable = table;
+		}
+		return this.wordTable;
+	}
+	
+	/**
+	 * Get the names and aliases of the reachable Items for finding misspelled ones.
+	 * The index is built when it's first needed after the Items have changed.
+	 * @return Typo index of Item words
+	 */
+	public TypoIndex<Item> getTypoIndex() {
+		if (this.typoIndex == null) {
+			String[] words = this.byWord.keySet().toArray(new String[this.byWord.size()]);
+			Item[] items = new Item[words.length];
+			for (int i = 0; i < words.length; i++) {
+				items[i] = this.byWord.get(words[i]);
+			}
+			this.typoIndex = new TypoIndex<Item>(words, items);
+		}
+		return this.typoIndex;
+	}
+	
+	/**
+	 * Get all the reachable Items
+	 * @return Unmodifiable collection of Items
+	 */
+	public Collection<Item> getItems() {
+		return Collections.unmodifiableSet(this.holders.keySet());
+	}
+	
+	/**
+	 * Map a word to an Item, unless it's already taken
+	 * @param word Lower case word
+	 * @param item Item
+	 */
+	private void put(String word, Item item) {
+		if (!this.byWord.containsKey(word)) {
+			this.byWord.put(word, item);
+		}
+	}
+	
+	/**
+	 * Remove a word of a removed Item, handing it over to another Item with the same word
+	 * @param word Lower case word
+	 * @param item Removed Item
+	 */
+	private void unmap(String word, Item item) {
+		if (this.byWord.get(word) != item) {
+			return;
+		}
+		this.byWord.remove(word);
+		for (Item other : this.holders.keySet()) {
+			if (other.getName().equalsIgnoreCase(word) || Arrays.asList(other.getAliases()).contains(word)) {
+				this.byWord.put(word, other);
+				return;
+			}
+		}
+	}
+}
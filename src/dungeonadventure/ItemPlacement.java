@@ -0,0 +1,133 @@
+package dungeonadventure;
+
+import dungeonadventure.items.Bomb;
+import dungeonadventure.items.CD;
+import dungeonadventure.items.CDPlayer;
+import dungeonadventure.items.Door;
+import dungeonadventure.items.Flashlight;
+import dungeonadventure.items.Food;
+import dungeonadventure.items.Item;
+import dungeonadventure.items.Lantern;
+import dungeonadventure.items.WaterPipe;
+
+/**
+ * An Item a world starts with and the Space it starts in. Every game
+ * creates its own Item from the placement, since Items change during the game.
+ * @author Mikko Piuhola
+ */
+final class ItemPlacement {
+	
+	/**
+	 * Kinds of Items a world can place
+	 */
+	enum Kind {
+		FLASHLIGHT("Flashlight", true),
+		LANTERN("Lantern", true),
+		FOOD(null, true),
+		CD("CD", false),
+		CDPLAYER("CD-Player", false),
+		DOOR(null, true),
+		BOMB("Bomb", false),
+		WATERPIPE("Pipe", false);
+		
+		private final String defaultName;
+		private final boolean nameable;
+		
+		/**
+		 * Constructor for Kind
+		 * @param defaultName Name of the Item if the world doesn't name it, null if the world must
+		 * @param nameable Can the world give the Item's name and description
+		 */
+		Kind(String defaultName, boolean nameable) {
+			this.defaultName = defaultName;
+			this.nameable = nameable;
+		}
+		
+		/**
+		 * Get the name of the Item if the world doesn't name it
+		 * @return Default name or null if the world must name the Item
+		 */
+		String getDefaultName() {
+			return this.defaultName;
+		}
+		
+		/**
+		 * Can the world give the Item's name and description
+		 * @return Is the Item nameable
+		 */
+		boolean isNameable() {
+			return this.nameable;
+		}
+	}
+	
+	private final int space;
+	private final Kind kind;
+	private final String name;
+	private final String description;
+	private final boolean winOnOpen;
+	
+	/**
+	 * Create a placement
+	 * @param space Index of the Space the Item starts in
+	 * @param kind Kind of the Item
+	 * @param name Item's name given by the world or null
+	 * @param description Item's description given by the world or null
+	 * @param winOnOpen Does opening the Item win the game, for doors
+	 */
+	ItemPlacement(int space, Kind kind, String name, String description, boolean winOnOpen) {
+		this.space = space;
+		this.kind = kind;
+		this.name = name;
+		this.description = description;
+		this.winOnOpen = winOnOpen;
+	}
+	
+	/**
+	 * Get the Space the Item starts in
+	 * @return Index of the Space
+	 */
+	int getSpace() {
+		return this.space;
+	}
+	
+	/**
+	 * Get the placement as a world file statement, see WorldLoader
+	 * @return Item statement without the line break
+	 */
+	String toStatement() {
+		String statement = "item " + this.kind.name().toLowerCase();
+		if (this.name != null) {
+			statement += " " + this.name + " | " + this.description;
+		}
+		return this.winOnOpen ? statement + " | win" : statement;
+	}
+	
+	/**
+	 * Create a game's own Item
+	 * @param world World with the CD's album
+	 * @param threadManager ThreadManager of the game, for timed Items
+	 * @return New Item
+	 */
+	Item createItem(WorldTemplate world, ThreadManager threadManager) {
+		switch (this.kind) {
+			case FLASHLIGHT:
+				return this.name == null ? new Flashlight(threadManager) : new Flashlight(threadManager, this.name, this.description);
+			case LANTERN:
+				return this.name == null ? new Lantern(threadManager) : new Lantern(threadManager, this.name, this.description);
+			case FOOD:
+				return new Food(this.name, this.description);
+			case CD:
+				return new CD(world.getAlbumName(), world.getArtistName(), world.getTracks());
+			case CDPLAYER:
+				return new CDPlayer();
+			case DOOR:
+				return new Door(this.name, this.description, this.winOnOpen);
+			case BOMB:
+				return new Bomb(threadManager);
+			case WATERPIPE:
+				return new WaterPipe(threadManager);
+			default:
+				throw new IllegalStateException("Unknown item kind: " + this.kind);
+		}
+	}
+}
@@ -1,4 +1,7 @@
 package dungeonadventure;
+import java.io.IOException;
+
+import dungeonadventure.net.TelnetServer;
 
 /**
  * Main entry point to the application
@@ -6,7 +9,84 @@ package dungeonadventure;
  */
 public class Main {
 
+	private final static int DEFAULT_PORT = 4000;
+
+	/**
+	 * Start the game.
+	 * Give "--virtual-threads" to run timed objects on virtual threads
+	 * instead of the shared timing wheel, on Java 21 or newer.
+	 * Give "--server" to host games for telnet clients on localhost
+	 * instead of playing on the console, "--port=N" to choose the port.
+	 * Give "--world=FILE" to play in a world read from a world file instead of the mine,
+	 * "--world-budget=SPACES" to choose how many of its Spaces a game keeps on heap.
+	 * @param args Command line arguments
+	 */
 	public static void main(String[] args) {
+		boolean server = false;
+		int port = DEFAULT_PORT;
+		
+		for (String arg : args) {
+			switch (arg) {
+				case "--virtual-threads":
+					try {
+						ThreadManager.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+					} catch (UnsupportedOperationException e) {
+						System.err.println(e.getMessage() + ", using the timing wheel instead");
+					}
+					break;
+				case "--timing-wheel":
+					ThreadManager.setExecutionMode(ExecutionMode.TIMING_WHEEL);
+					break;
+				case "--server":
+					server = true;
+					break;
+				default:
+					if (arg.startsWith("--world=")) {
+						try {
+							WorldTemplate.setDefault(WorldTemplate.load(arg.substring("--world=".length())));
+						} catch (IOException e) {
+							System.err.println("Could not load the world: " + e.getMessage());
+							return;
+						}
+					} else if (arg.startsWith("--world-budget=")) {
+						try {
+							WorldStore.setBudget(Integer.parseInt(arg.substring("--world-budget=".length())));
+						} catch (IllegalArgumentException e) {
+							System.err.println("Invalid world budget: " + arg);
+						}
+					} else if (arg.startsWith("--port=")) {
+						try {
+							port = Integer.parseInt(arg.substring("--port=".length()));
+						} catch (NumberFormatException e) {
+							System.err.println("Invalid port: " + arg);
+						}
+					} else {
+						System.err.println("Unknown option: " + arg);
+					}
+					break;
+			}
+		}
+		
+		if (server) {
+			// Network players share the server's disk, so they get no saves
+			final GameHost host = new GameHost(Runtime.getRuntime().availableProcessors(), null);
+			final TelnetServer telnet = new TelnetServer(host, port);
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					telnet.stop();
+					host.shutdown();
+				}
+			}, "telnet-shutdown"));
+			try {
+				telnet.start();
+				System.out.println("Listening for telnet players on localhost:" + telnet.getPort());
+			} catch (IOException e) {
+				System.err.println("Could not start the server: " + e.getMessage());
+			}
+			return;
+		}
+		
 		GameController gc = new GameController();
 		gc.init();
 	}
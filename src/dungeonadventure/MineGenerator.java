@@ -0,0 +1,242 @@
+package dungeonadventure;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dungeonadventure.items.resources.Track;
+
+/**
+ * Generates mines of any size from the mine's building blocks: charging
+ * stations, a bomb and a water pipe, lightsources, food and a winning hatch.
+ * The Spaces are laid out in a grid and carved into a maze where every
+ * Space has a path to every other one: each Space connects to the Space
+ * north or west of it, plus now and then to both for loops. Since a Space
+ * only decides its own connections, the grid is generated in chunks in
+ * parallel, and every chunk has its own random numbers derived from the
+ * seed, so a seed always generates the same mine whatever the amount of threads.
+ * Run with: java dungeonadventure.MineGenerator spaces seed [world file]
+ * @author Mikko Piuhola
+ */
+public final class MineGenerator {
+	
+	private static final int CHUNK_SIZE = 4096;
+	
+	// Chances per Space, out of 1000
+	private static final int LOOP_CHANCE = 150;
+	private static final int CHARGING_CHANCE = 4;
+	private static final int LANTERN_CHANCE = 5;
+	private static final int FOOD_CHANCE = 10;
+	
+	private static final String[] KINDS = {
+		"Tunnel", "Gallery", "Chamber", "Shaft", "Drift", "Crosscut", "Stope", "Cavern"
+	};
+	private static final String[] SIGHTS = {
+		"The walls are wet and the air smells of dust.",
+		"Old rails run along the floor, rusted to the sleepers.",
+		"A collapsed timber frame leans against the wall.",
+		"Somebody left a helmet here in a hurry.",
+		"The ceiling is low, you have to crouch to get through.",
+		"Water drips somewhere in the dark.",
+		"The rock has been blasted recently, the edges are still sharp.",
+		"Empty dynamite crates are piled in the corner."
+	};
+	private static final String CHARGING_SIGHT = "There's a charging station for the mine's flashlights.";
+	private static final String[] FOODS = {"Sandwich", "Apple", "Chocolate", "Pizza"};
+	
+	private final long seed;
+	
+	/**
+	 * Create a generator
+	 * @param seed Seed of the generated mines
+	 */
+	public MineGenerator(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Generate a mine using every available processor
+	 * @param spaceCount Amount of Spaces, at least 2
+	 * @return Generated mine
+	 */
+	public WorldTemplate generate(int spaceCount) {
+		return this.generate(spaceCount, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Generate a mine
+	 * @param spaceCount Amount of Spaces, at least 2
+	 * @param threads Amount of threads generating the chunks
+	 * @return Generated mine, the same for the same seed and space count
+	 */
+	public WorldTemplate generate(final int spaceCount, int threads) {
+		if (spaceCount < 2) {
+			throw new IllegalArgumentException("A mine needs at least 2 spaces: " + spaceCount);
+		}
+		final int width = (int) Math.ceil(Math.sqrt(spaceCount));
+		final String[] names = new String[spaceCount];
+		final String[] descriptions = new String[spaceCount];
+		final boolean[] charging = new boolean[spaceCount];
+		final int[] neighbours = new int[spaceCount * Direction.COUNT];
+		Arrays.fill(neighbours, -1);
+		final String[] descriptionPool = descriptionPool();
+		
+		// Every chunk writes only its own Spaces' names and the exits its Spaces decide on
+		int chunks = (spaceCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		ArrayList<Callable<List<ItemPlacement>>> tasks = new ArrayList<Callable<List<ItemPlacement>>>(chunks);
+		for (int c = 0; c < chunks; c++) {
+			final int chunk = c;
+			tasks.add(new Callable<List<ItemPlacement>>() {
+				@Override
+				public List<ItemPlacement> call() {
+					return generateChunk(chunk, spaceCount, width, names, descriptions, charging, neighbours, descriptionPool);
+				}
+			});
+		}
+		List<ItemPlacement> placements = new ArrayList<ItemPlacement>();
+		ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), new DaemonThreadFactory("mine-generator"));
+		try {
+			for (Future<List<ItemPlacement>> chunk : workers.invokeAll(tasks)) {
+				placements.addAll(chunk.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Generating failed", e.getCause());
+		} finally {
+			workers.shutdown();
+		}
+		
+		// The Player starts in the corner with a flashlight, the hatch is in the opposite corner
+		Random random = new Random(this.seed);
+		int exit = spaceCount - 1;
+		placements.add(new ItemPlacement(0, ItemPlacement.Kind.FLASHLIGHT, null, null, false));
+		placements.add(new ItemPlacement(1 + random.nextInt(spaceCount - 1), ItemPlacement.Kind.BOMB, null, null, false));
+		placements.add(new ItemPlacement(1 + random.nextInt(spaceCount - 1), ItemPlacement.Kind.WATERPIPE, null, null, false));
+		placements.add(new ItemPlacement(exit, ItemPlacement.Kind.DOOR, "Hatch",
+				"Could this be the emergency exit hatch? It doesn't look like it's locked -- maybe try opening it.", true));
+		
+		HashMap<String, Integer> spacesByName = new HashMap<String, Integer>(spaceCount * 2);
+		for (int i = 0; i < spaceCount; i++) {
+			spacesByName.put(names[i].toLowerCase(), i);
+		}
+		WorldTemplate world = new WorldTemplate("generated-" + this.seed + "-" + spaceCount, names, descriptions, charging,
+				neighbours, spacesByName, 0, placements.toArray(new ItemPlacement[placements.size()]),
+				null, null, Collections.<Track>emptyList());
+		WorldTemplate.register(world);
+		return world;
+	}
+	
+	/**
+	 * Generate one chunk of Spaces
+	 * @param chunk Index of the chunk
+	 * @param spaceCount Amount of Spaces in the mine
+	 * @param width Width of the grid
+	 * @param names Names being generated
+	 * @param descriptions Descriptions being generated
+	 * @param charging Charging stations being generated
+	 * @param neighbours Adjacency array being generated
+	 * @param descriptionPool Shared descriptions, without and with a charging station
+	 * @return Items placed in the chunk
+	 */
+	private List<ItemPlacement> generateChunk(int chunk, int spaceCount, int width, String[] names, String[] descriptions,
+			boolean[] charging, int[] neighbours, String[] descriptionPool) {
+		Random random = new Random(this.seed * 0x9E3779B97F4A7C15L + chunk);
+		ArrayList<ItemPlacement> placements = new ArrayList<ItemPlacement>();
+		int end = Math.min(spaceCount, (chunk + 1) * CHUNK_SIZE);
+		for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+			int x = i % width;
+			int y = i / width;
+			names[i] = KINDS[random.nextInt(KINDS.length)] + "-" + x + "-" + y;
+			charging[i] = random.nextInt(1000) < CHARGING_CHANCE;
+			int sight = random.nextInt(SIGHTS.length);
+			descriptions[i] = descriptionPool[charging[i] ? SIGHTS.length + sight : sight];
+			
+			// The first row connects west and the first column north, the rest randomly, sometimes both ways
+			boolean north = y > 0 && (x == 0 || random.nextBoolean());
+			boolean west = x > 0 && (y == 0 || !north);
+			if (x > 0 && y > 0 && random.nextInt(1000) < LOOP_CHANCE) {
+				north = true;
+				west = true;
+			}
+			if (north) {
+				connect(neighbours, i, Direction.NORTH, i - width);
+			}
+			if (west) {
+				connect(neighbours, i, Direction.WEST, i - 1);
+			}
+			
+			// Names are made unique by the Space's index
+			if (random.nextInt(1000) < LANTERN_CHANCE) {
+				placements.add(new ItemPlacement(i, ItemPlacement.Kind.LANTERN, "Lantern-" + i,
+						"a rusty old lantern with some petroleum left in it", false));
+			}
+			if (random.nextInt(1000) < FOOD_CHANCE) {
+				String food = FOODS[random.nextInt(FOODS.length)];
+				placements.add(new ItemPlacement(i, ItemPlacement.Kind.FOOD, food + "-" + i,
+						"A " + food.toLowerCase() + " someone left behind", false));
+			}
+		}
+		return placements;
+	}
+	
+	/**
+	 * Connect two Spaces both ways
+	 * @param neighbours Adjacency array being generated
+	 * @param from Index of the Space deciding on the connection
+	 * @param direction Direction of the other Space
+	 * @param to Index of the other Space
+	 */
+	private static void connect(int[] neighbours, int from, Direction direction, int to) {
+		neighbours[from * Direction.COUNT + direction.ordinal()] = to;
+		neighbours[to * Direction.COUNT + direction.opposite().ordinal()] = from;
+	}
+	
+	/**
+	 * Create the descriptions shared by the generated Spaces
+	 * @return Every sight, then every sight with a charging station
+	 */
+	private static String[] descriptionPool() {
+		String[] pool = new String[SIGHTS.length * 2];
+		for (int i = 0; i < SIGHTS.length; i++) {
+			pool[i] = SIGHTS[i];
+			pool[SIGHTS.length + i] = SIGHTS[i] + "\n" + CHARGING_SIGHT;
+		}
+		return pool;
+	}
+	
+	/**
+	 * Generate a mine and write it as a world file, or print its size
+	 * @param args Amount of Spaces, seed and optionally the world file
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: java dungeonadventure.MineGenerator spaces seed [world file]");
+			return;
+		}
+		long start = System.nanoTime();
+		WorldTemplate mine = new MineGenerator(Long.parseLong(args[1])).generate(Integer.parseInt(args[0]));
+		System.out.println("Generated " + mine.getSpaceCount() + " spaces in " + (System.nanoTime() - start) / 1000000 + " ms");
+		
+		if (args.length > 2) {
+			try (Writer out = new OutputStreamWriter(new FileOutputStream(args[2]), StandardCharsets.UTF_8)) {
+				mine.write(out);
+			} catch (IOException e) {
+				System.err.println("Could not write the world: " + e.getMessage());
+			}
+		}
+	}
+}
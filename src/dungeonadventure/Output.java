@@ -0,0 +1,31 @@
+package dungeonadventure;
+
+/**
+ * Where a game session's text goes: a console, a socket or a test capture.
+ * Text is collected until flushed, which the session does once per command.
+ * @author Mikko Piuhola
+ */
+public interface Output {
+	
+	/**
+	 * Add text without a line break
+	 * @param text Text to add
+	 */
+	public void print(String text);
+	
+	/**
+	 * Add a line of text
+	 * @param line Line to add
+	 */
+	public void println(String line);
+	
+	/**
+	 * Add an empty line
+	 */
+	public void println();
+	
+	/**
+	 * Send everything added so far to its destination
+	 */
+	public void flush();
+}
@@ -0,0 +1,117 @@
+package dungeonadventure;
+
+import dungeonadventure.items.Item;
+
+/**
+ * A command interpreted from the player's input: the Action and what it's
+ * directed at. Parsed commands are immutable, so any amount of game
+ * sessions can parse and execute commands at the same time.
+ * The trade-off is an allocation per command with an object or a location:
+ * one small ParsedCommand, at most 40 bytes. Commands without them share
+ * one instance per Action and allocate nothing. Reusing a mutable command
+ * per interpreter would save the allocation, but a command could then
+ * change under a session that's still executing it.
+ * @author Mikko Piuhola
+ */
+public final class ParsedCommand {
+	
+	// Commands without objects are always the same, share one per Action
+	private static final ParsedCommand[] BARE;
+	static {
+		Action[] actions = Action.values();
+		BARE = new ParsedCommand[actions.length];
+		for (Action a : actions) {
+			BARE[a.ordinal()] = new ParsedCommand(a, null, null, null);
+		}
+	}
+	
+	private final Action action;
+	private final Item directObject;
+	private final Item indirectObject;
+	private final String location;
+	
+	/**
+	 * Create a command
+	 * @param action Action of the command
+	 * @param directObject Object Action is directed towards, or null
+	 * @param indirectObject Object Action is indirectly directed towards, or null
+	 * @param location Targeted location's name, or null
+	 */
+	private ParsedCommand(Action action, Item directObject, Item indirectObject, String location) {
+		this.action = action;
+		this.directObject = directObject;
+		this.indirectObject = indirectObject;
+		this.location = location;
+	}
+	
+	/**
+	 * Get a command with only an Action, e.g. "look"
+	 * @param action Action of the command
+	 * @return Command
+	 */
+	public static ParsedCommand of(Action action) {
+		return BARE[action.ordinal()];
+	}
+	
+	/**
+	 * Create a command directed towards an object, e.g. "eat pizza"
+	 * @param action Action of the command
+	 * @param directObject Object Action is directed towards, may be null (handled in engine)
+	 * @return Command
+	 */
+	public static ParsedCommand withObject(Action action, Item directObject) {
+		return new ParsedCommand(action, directObject, null, null);
+	}
+	
+	/**
+	 * Create a command with an indirect object, e.g. "insert cd in cdplayer"
+	 * @param action Action of the command
+	 * @param directObject Object Action is directed towards, may be null (handled in engine)
+	 * @param indirectObject Object Action is indirectly directed towards, may be null (handled in engine)
+	 * @return Command
+	 */
+	public static ParsedCommand withObjects(Action action, Item directObject, Item indirectObject) {
+		return new ParsedCommand(action, directObject, indirectObject, null);
+	}
+	
+	/**
+	 * Create a command to go to a location by its name, e.g. "goto tunnel"
+	 * @param location Targeted location's name
+	 * @return Command
+	 */
+	public static ParsedCommand goTo(String location) {
+		return new ParsedCommand(Action.ACTION_GO_LOCATION, null, null, location);
+	}
+	
+	/**
+	 * Get the command's Action
+	 * @return Action
+	 */
+	public Action getAction() {
+		return this.action;
+	}
+	
+	/**
+	 * Get the object this command is directed towards
+	 * @return Item or null
+	 */
+	public Item getDirectObject() {
+		return this.directObject;
+	}
+	
+	/**
+	 * Get the object this command is indirectly directed towards, e.g. CDPlayer in "insert cd in cdplayer"
+	 * @return Item or null
+	 */
+	public Item getInDirectObject() {
+		return this.indirectObject;
+	}
+	
+	/**
+	 * Get the targeted location for ACTION_GO_LOCATION
+	 * @return Targeted location's name or null
+	 */
+	public String getLocation() {
+		return this.location;
+	}
+}
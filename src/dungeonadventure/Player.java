@@ -1,9 +1,10 @@
 package dungeonadventure;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 
+import dungeonadventure.items.Capability;
 import dungeonadventure.items.Food;
 import dungeonadventure.items.Item;
 import dungeonadventure.items.Lightsource;
@@ -25,39 +26,51 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 
 	private static final long serialVersionUID = -1860691229021937577L;
 	
+	// Seconds a step takes when walking a route
+	private static final int WALK_SECONDS = 5;
+	
+	private static final String START_MOVING = "You start moving...";
+	
 	private String name;
 	private String description;
 	private Inventory inventory;
 	private Space currentSpace;
-	private String currentDirection;
+	private Direction currentDirection;
 	
 	private boolean alive;
 	private GameState gameState;
+	private ThreadManager threadManager;
+	transient private ItemIndex itemIndex;
+	transient private VisibleSpaces visibleSpaces;
 
 	/**
 	 * Create a Player with a starting Space.
 	 * Player must always be constructed with a default Space
 	 * @param gameState GameState-object
+	 * @param threadManager ThreadManager of the game session
 	 * @param space Starting Space
 	 */
-	public Player(GameState gameState, Space space) {
-		this(gameState, new Inventory(), space);
+	public Player(GameState gameState, ThreadManager threadManager, Space space) {
+		this(gameState, threadManager, new Inventory(), space);
 	}
 	
 	/**
 	 * Create a Player with an pre-set Inventory and a starting Space
 	 * @param gameState GameState-object
+	 * @param threadManager ThreadManager of the game session
 	 * @param inventory Player inventory
 	 * @param space Current location
 	 */
-	public Player(GameState gameState, Inventory inventory, Space space) {
+	public Player(GameState gameState, ThreadManager threadManager, Inventory inventory, Space space) {
 		this.name = "Mark";
 		this.description = "a miner";
 		this.inventory = inventory;
 		this.currentSpace = space;
-		this.currentDirection  = "north";
+		this.currentSpace.enter();
+		this.currentDirection = Direction.NORTH;
 		this.alive = true;
 		this.gameState = gameState;
+		this.threadManager = threadManager;
 	}
 	
 	// NAMEABLE
@@ -82,9 +95,10 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	
 	/**
 	 * Describe Player
+	 * @param out Output for messages
 	 */
-	public void inspect() {
-		System.out.println(this.toString());
+	public void inspect(Output out) {
+		out.println(this.toString());
 	}
 	
 	/**
@@ -102,10 +116,11 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	/**
 	 * Pickup item and add to player inventory
 	 * @param item Item to pickup
+	 * @param out Output for messages
 	 */
-	public void pickupItem(Item item) {
+	public void pickupItem(Item item, Output out) {
 		if (item != null) {
-			this.inventory.addItem(item);
+			this.inventory.addItem(item, out);
 		}
 	}
 
@@ -113,10 +128,11 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	 * Completely drop item, without leaving in current Space.
 	 * Might be that the Player uses some Item, or inserts it into something.
 	 * @param item Item to drop
+	 * @param out Output for messages
 	 * @return Item that was dropped
 	 */
-	public Item drop(Item item) {
-		if (this.inventory.removeItem(item.getName())) {
+	public Item drop(Item item, Output out) {
+		if (this.inventory.removeItem(item.getName(), out)) {
 			return item;
 		} else {
 			return null;
@@ -126,11 +142,12 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	/**
 	 * Drop item and leave it in current Space
 	 * @param item Item to drop
+	 * @param out Output for messages
 	 */
-	public void dropItem(Item item) {
+	public void dropItem(Item item, Output out) {
 		Item tempItem = this.inventory.getItem(item.getName());
 		this.currentSpace.addItem(tempItem.getName(), tempItem); // Add to Space
-		this.inventory.removeItem(tempItem.getName()); // Remove from Inventory
+		this.inventory.removeItem(tempItem.getName(), out); // Remove from Inventory
 	}
 	
 	/**
@@ -144,19 +161,35 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	/**
 	 * Print list of items in player's inventory
 	 * Pass-through to Inventory.printInventory
+	 * @param out Output for messages
 	 */
-	public void printInventoryList() {
-		this.inventory.printInventory();
+	public void printInventoryList(Output out) {
+		this.inventory.printInventory(out);
 	}
 	
 	/**
 	 * Insert one Item into another
 	 * @param itemToPut Item to put into the other Item
 	 * @param itemToPutInto Item that will hold the other Item
+	 * @param out Output for messages
 	 * @return Success or not
 	 */
-	public boolean putItemInItem(Installable itemToPut, Hostable itemToPutInto) {
-		return itemToPutInto.install(itemToPut);
+	public boolean putItemInItem(Installable itemToPut, Hostable itemToPutInto, Output out) {
+		return itemToPutInto.install(itemToPut, out);
+	}
+	
+	/**
+	 * Get the index of the Items the Player can reach (in the Inventory or the current Space).
+	 * The index is built on first use, e.g. after loading a game, and kept up to date after that.
+	 * @return Index of reachable Items
+	 */
+	public ItemIndex getItemIndex() {
+		if (this.itemIndex == null) {
+			this.itemIndex = new ItemIndex();
+			this.inventory.setItemIndex(this.itemIndex);
+			this.currentSpace.setItemIndex(this.itemIndex);
+		}
+		return this.itemIndex;
 	}
 	
 	/**
@@ -168,225 +201,198 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	}
 	
 	/**
-	 * Move player to direction or space (by name)
-	 * @param a Directional Action
+	 * Move player to direction or space (by name).
+	 * A named place must be known and reachable before the player starts moving.
+	 * @param command Directional command
+	 * @param out Output for messages
 	 */
-	public void move(Action a) {
-		switch (a) {
+	public void move(ParsedCommand command, Output out) {
+		switch (command.getAction()) {
 			case ACTION_GO_NORTH:
-				this.moveToSpace(this.currentSpace.getNextSpace("north"));
+				this.moveToSpace(this.currentSpace.getNextSpace(Direction.NORTH), out);
 				break;
 			case ACTION_GO_EAST:
-				this.moveToSpace(this.currentSpace.getNextSpace("east"));
+				this.moveToSpace(this.currentSpace.getNextSpace(Direction.EAST), out);
 				break;
 			case ACTION_GO_SOUTH:
-				this.moveToSpace(this.currentSpace.getNextSpace("south"));
+				this.moveToSpace(this.currentSpace.getNextSpace(Direction.SOUTH), out);
 				break;
 			case ACTION_GO_WEST:
-				this.moveToSpace(this.currentSpace.getNextSpace("west"));
+				this.moveToSpace(this.currentSpace.getNextSpace(Direction.WEST), out);
 				break;
 			case ACTION_GO_LOCATION:
-				if (this.currentSpace.hasNextSpace(a.getLocation())) {
-					this.moveToSpace(this.currentSpace.getNextSpace(a.getLocation()));
+				if (this.currentSpace.hasNextSpace(command.getLocation())) {
+					// A single step of a walk takes as long as any other
+					out.println(START_MOVING);
+					this.walkInto(this.currentSpace.getNextSpace(command.getLocation()));
+					this.look(out);
 				} else {
-					System.out.println("No such place is visible from here, you stay put");
+					this.walkTo(command.getLocation(), out);
 				}
 				break;
 			default:
-				System.out.println("There's nothing in that direction, you stay put");
+				out.println("There's nothing in that direction, you stay put");
 				break;
 		}
 	}
 	
+	/**
+	 * Walk the shortest route to a Space further away. Every step spends
+	 * WALK_SECONDS of the Timeable objects' time, e.g. the bomb's, and
+	 * the walk stops where one of them runs out.
+	 * @param name Name of the Space
+	 * @param out Output for messages
+	 */
+	private void walkTo(String name, Output out) {
+		WorldStore store = this.currentSpace.getStore();
+		WorldTemplate world = store.getTemplate();
+		int to = name == null ? -1 : world.getSpaceIndex(name.toLowerCase());
+		if (to < 0) {
+			out.println("You don't know of such a place, you stay put");
+			return;
+		}
+		int steps = world.getDistance(this.currentSpace.getIndex(), to);
+		if (steps == 0) {
+			out.println("You are already there");
+			return;
+		}
+		if (steps < 0) {
+			out.println("You can't find a way there, you stay put");
+			return;
+		}
+		
+		out.println(START_MOVING);
+		out.println("You set off towards " + world.getName(to) + ", " + steps + " places away");
+		Direction step = world.getNextStep(this.currentSpace.getIndex(), to);
+		while (step != null) {
+			if (this.walkInto(this.currentSpace.getNextSpace(step))) {
+				break;
+			}
+			step = world.getNextStep(this.currentSpace.getIndex(), to);
+			if (step != null) {
+				out.println("You walk through " + this.currentSpace.getName());
+			}
+		}
+		this.look(out);
+	}
+	
+	/**
+	 * Take one step of a walk into a Space, spending WALK_SECONDS
+	 * @param space Space to step into
+	 * @return Did something run out on the way, e.g. the bomb, so the walk ends here
+	 */
+	private boolean walkInto(Space space) {
+		this.enterSpace(space);
+		// Events of a timer that ran out, now or earlier, are delivered after this command
+		boolean ranOut = this.threadManager.advanceTime(WALK_SECONDS);
+		return ranOut || this.threadManager.getEventBus().hasPending();
+	}
+	
 	/**
 	 * Move player to space
 	 * @param space Space to move into
+	 * @param out Output for messages
 	 */
-	private void moveToSpace(Space space) {
+	private void moveToSpace(Space space, Output out) {
+		out.println(START_MOVING);
 		if (space == null) {
-			System.out.println("There's nothing in that direction");
+			out.println("There's nothing in that direction");
 		} else {
-			this.currentSpace = space;
-			this.look();
+			this.enterSpace(space);
+			this.look(out);
 		}
 	}
 	
 	/**
-	 * Turn Player to the left by 90 degrees
+	 * Make a Space the current one, its Items become reachable
+	 * @param space Space to enter
 	 */
-	public void turnLeft() {
-		switch (this.getCurrentDirection()) {
-			case "north":
-				this.setCurrentDirection("west");
-				System.out.println("You are now facing west");
-				break;
-			case "west":
-				this.setCurrentDirection("south");
-				System.out.println("You are now facing south");
-				break;
-			case "south":
-				this.setCurrentDirection("east");
-				System.out.println("You are now facing east");
-				break;
-			case "east":
-				this.setCurrentDirection("north");
-				System.out.println("You are now facing north");
-				break;
+	private void enterSpace(Space space) {
+		if (this.itemIndex != null) {
+			this.currentSpace.setItemIndex(null);
+			space.setItemIndex(this.itemIndex);
 		}
+		this.currentSpace = space;
+		space.enter();
+	}
+	
+	/**
+	 * Turn Player to the left by 90 degrees
+	 * @param out Output for messages
+	 */
+	public void turnLeft(Output out) {
+		this.currentDirection = this.currentDirection.left();
+		out.println("You are now facing " + this.currentDirection.getName());
 		
-		this.lookNextSpaces();
+		this.lookNextSpaces(out);
 	}
 	
 	/**
 	 * Turn Player to the right by 90 degrees
+	 * @param out Output for messages
 	 */
-	public void turnRight() {
-		switch (this.getCurrentDirection()) {
-			case "north":
-				this.setCurrentDirection("east");
-				System.out.println("You are now facing east");
-				break;
-			case "east":
-				this.setCurrentDirection("south");
-				System.out.println("You are now facing south");
-				break;
-			case "south":
-				this.setCurrentDirection("west");
-				System.out.println("You are now facing west");
-				break;
-			case "west":
-				this.setCurrentDirection("north");
-				System.out.println("You are now facing north");
-				break;
-		}
+	public void turnRight(Output out) {
+		this.currentDirection = this.currentDirection.right();
+		out.println("You are now facing " + this.currentDirection.getName());
 		
-		this.lookNextSpaces();
+		this.lookNextSpaces(out);
 	}
 	
 	/**
 	 * Eat food item and remove from Inventory or the current Space
 	 * @param foodItem Food to eat
+	 * @param out Output for messages
 	 */
-	public void eat(Food foodItem) {
+	public void eat(Food foodItem, Output out) {
 		if (foodItem instanceof Eatable) {
-			foodItem.eat();
+			foodItem.eat(out);
 			if (this.hasItem((Item)foodItem)) {
-				this.inventory.removeItem(foodItem.getName());
+				this.inventory.removeItem(foodItem.getName(), out);
 			} else if (this.currentSpace.hasItem((Item)foodItem)) {
 				this.currentSpace.takeItem(foodItem.getName());
 			}
 		} else {
-			System.out.println("That isn't eatable");
+			out.println("That isn't eatable");
 		}
 	}
 
 	/**
 	 * Say what Player currently sees
+	 * @param out Output for messages
 	 */
-	public void look() {
-		
-		// Get all lightsources from inventory
-		ArrayList<Item> lightsources = this.inventory.getItemsOfType("Lightsource");
+	public void look(Output out) {
 		
-		if (lightsources.size() >= 1) {
+		if (this.inventory.hasItemOf(Capability.LIGHTSOURCE)) {
 			
 			Lightsource maxLight = this.getMostPowerfulPoweredLight();
 			
 			// Light must be powered on
 			if (maxLight != null) {
 				// Check what you can see based on the given visibility range of the Lightsource
-				this.lookNextSpaces();
+				this.lookNextSpaces(out);
 				// Describe the items in the room
-				this.lookLocationItems();
+				this.lookLocationItems(out);
 			} else {
-				System.out.println("None of your lightsources are on. You cannot see anything.");
+				out.println("None of your lightsources are on. You cannot see anything.");
 			}
 
 		} else {
-			System.out.println("You don't have any lightsources. You cannot see anything in the dark.");
+			out.println("You don't have any lightsources. You cannot see anything in the dark.");
 		}
 	}
 	
 	/**
-	 * Get a ArrayList of currently visible next spaces
-	 * @return List of currently visible next spaces
+	 * Get the currently visible next spaces, see VisibleSpaces.
+	 * The view is reused, it changes on the next call.
+	 * @return Currently visible next spaces
 	 */
-	public HashMap<String,Space> getVisibleSpaces() {
-		HashMap<String,Space> visibleSpaces = new HashMap<String,Space>();
-		Lightsource light = this.getMostPowerfulPoweredLight();
-		
-		if (light != null) {
-			int deg = light.getVisibilityRange();
-			
-			if (deg >= 90 && deg < 180) {
-				if (this.currentSpace.hasNextSpace(this.getCurrentDirection())) {
-					visibleSpaces.put(this.getCurrentDirection(), this.currentSpace.getNextSpace(this.getCurrentDirection()));
-				}
-			} else if (deg < 360) {
-				switch (this.getCurrentDirection()) {
-					case "north":
-						if (this.currentSpace.hasNextSpace("east")) {
-							visibleSpaces.put("east", this.currentSpace.getNextSpace("east"));
-						}
-						if (this.currentSpace.hasNextSpace("north")) {
-							visibleSpaces.put("north", this.currentSpace.getNextSpace("north"));
-						}
-						if (this.currentSpace.hasNextSpace("west")) {
-							visibleSpaces.put("west", this.currentSpace.getNextSpace("west"));
-						}
-						break;
-					case "east":
-						if (this.currentSpace.hasNextSpace("north")) {
-							visibleSpaces.put("north", this.currentSpace.getNextSpace("north"));
-						}
-						if (this.currentSpace.hasNextSpace("east")) {
-							visibleSpaces.put("east", this.currentSpace.getNextSpace("east"));
-						}
-						if (this.currentSpace.hasNextSpace("south")) {
-							visibleSpaces.put("south", this.currentSpace.getNextSpace("south"));
-						}
-						break;
-					case "south":
-						if (this.currentSpace.hasNextSpace("east")) {
-							visibleSpaces.put("east", this.currentSpace.getNextSpace("east"));
-						}
-						if (this.currentSpace.hasNextSpace("south")) {
-							visibleSpaces.put("south", this.currentSpace.getNextSpace("south"));
-						}
-						if (this.currentSpace.hasNextSpace("west")) {
-							visibleSpaces.put("west", this.currentSpace.getNextSpace("west"));
-						}
-						break;
-					case "west":
-						if (this.currentSpace.hasNextSpace("south")) {
-							visibleSpaces.put("south", this.currentSpace.getNextSpace("south"));
-						}
-						if (this.currentSpace.hasNextSpace("west")) {
-							visibleSpaces.put("west", this.currentSpace.getNextSpace("west"));
-						}
-						if (this.currentSpace.hasNextSpace("north")) {
-							visibleSpaces.put("north", this.currentSpace.getNextSpace("north"));
-						}
-						break;
-				}
-			} else {
-				// Run through the possible directions
-				if (this.currentSpace.hasNextSpace("north")) {
-					visibleSpaces.put("north", this.currentSpace.getNextSpace("north"));
-				}
-				if (this.currentSpace.hasNextSpace("east")) {
-					visibleSpaces.put("east", this.currentSpace.getNextSpace("east"));
-				}
-				if (this.currentSpace.hasNextSpace("south")) {
-					visibleSpaces.put("south", this.currentSpace.getNextSpace("south"));
-				}
-				if (this.currentSpace.hasNextSpace("west")) {
-					visibleSpaces.put("west", this.currentSpace.getNextSpace("west"));
-				}
-			}
+	public VisibleSpaces getVisibleSpaces() {
+		if (this.visibleSpaces == null) {
+			this.visibleSpaces = new VisibleSpaces();
 		}
-		
-		return visibleSpaces;
+		Lightsource light = this.getMostPowerfulPoweredLight();
+		this.visibleSpaces.update(this.currentSpace, this.currentDirection, light == null ? 0 : light.getVisibilityRange());
+		return this.visibleSpaces;
 	}
 	
 	/**
@@ -394,12 +400,13 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	 * @return Most powerful powered Lightsource or null
 	 */
 	private Lightsource getMostPowerfulPoweredLight() {
-		ArrayList<Item> lightsources = this.inventory.getItemsOfType("Lightsource");
+		List<Item> lightsources = this.inventory.getItemsOf(Capability.LIGHTSOURCE);
 		
 		if (lightsources.size() >= 1) {
 			Lightsource light = null;
 			// Run through all the available lightsources
-			for (Item item : lightsources) {
+			for (int i = 0; i < lightsources.size(); i++) {
+				Item item = lightsources.get(i);
 				if (light == null) {
 					// Must be powered on, even if it's the first one
 					if (((Lightsource)item).isPoweredOn()) {
@@ -420,50 +427,20 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 		}
 	}
 	
-	/**
-	 * Set Player's current direction
-	 * @param dir String for direction to face, only allows: north, west, south, east
-	 */
-	private void setCurrentDirection(String dir) {
-		switch(dir) {
-			case "north":
-				this.currentDirection = dir;
-				break;
-			case "west":
-				this.currentDirection = dir;
-				break;
-			case "south":
-				this.currentDirection = dir;
-				break;
-			case "east":
-				this.currentDirection = dir;
-				break;
-			default:
-				break;
-		}
-	}
-	
-	/**
-	 * Get the direction this Player is currently looking
-	 * @return Direction name the Player is currently looking
-	 */
-	private String getCurrentDirection() {
-		return this.currentDirection;
-	}
-	
 	/**
 	 * Say the items that the Player currently sees
+	 * @param out Output for messages
 	 */
-	private void lookLocationItems() {
+	private void lookLocationItems(Output out) {
 		HashMap<String,Item> roomItems = this.currentSpace.getItems();
 		
 		// List any possible items in current Space
 		if (roomItems.size() < 1) {
-			System.out.println("There are not items in here");
+			out.println("There are not items in here");
 		} else {
-			System.out.println("You see " + (roomItems.size() > 1 ? "some things " : "only one thing") + " in here: ");
+			out.println("You see " + (roomItems.size() > 1 ? "some things " : "only one thing") + " in here: ");
 			for (Entry<String, Item> entry : roomItems.entrySet()) {
-				System.out.println(entry.getValue().getName());
+				out.println(entry.getValue().getName());
 			}
 		}
 	}
@@ -471,48 +448,50 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	/**
 	 * List all the visible next spaces from the Player's current direction
 	 * and based on their Lightsource.
+	 * @param out Output for messages
 	 */
-	private void lookNextSpaces() {
+	private void lookNextSpaces(Output out) {
 
 		Lightsource light = this.getMostPowerfulPoweredLight();
-		HashMap<String,Space> spaces = this.getVisibleSpaces();
+		VisibleSpaces spaces = this.getVisibleSpaces();
 		
-		System.out.println("You look around...");
+		out.println("You look around...");
 		
 		if (light != null) {
 			int deg = light.getVisibilityRange();
 			
 			if (deg < 90) {
-				System.out.println("You have a poor lightsource. You cannot make out anything in the dark.");
+				out.println("You have a poor lightsource. You cannot make out anything in the dark.");
 			} else if (deg < 180) {
-				System.out.println("Your " + light.getName() + " provides a narrow field of visibility...");
-				System.out.println("You stand in " + this.currentSpace.toString());
+				out.println("Your " + light.getName() + " provides a narrow field of visibility...");
+				out.println("You stand in " + this.currentSpace.toString());
 			} else if (deg < 360) {
-				System.out.println("Your " + light.getName() + " allows you to see right in front of you, and to the left and right of you...");
-				System.out.println("You stand in " + this.currentSpace.toString());
+				out.println("Your " + light.getName() + " allows you to see right in front of you, and to the left and right of you...");
+				out.println("You stand in " + this.currentSpace.toString());
 			} else {
-				System.out.println("Your " + light.getName() + " allows you to see everywhere around you...");
-				System.out.println("You stand in " + this.currentSpace.toString());
+				out.println("Your " + light.getName() + " allows you to see everywhere around you...");
+				out.println("You stand in " + this.currentSpace.toString());
 			}
 			
-			this.listVisibleSpaces(spaces);
+			this.listVisibleSpaces(spaces, out);
 		} else {
-			System.out.println("You don't see anything in the dark.");
+			out.println("You don't see anything in the dark.");
 		}
 	}
 	
 	/**
 	 * List visible spaces
-	 * @param spaces HashMap of visible spaces
+	 * @param spaces Visible spaces
+	 * @param out Output for messages
 	 */
-	private void listVisibleSpaces(HashMap<String,Space> spaces) {
+	private void listVisibleSpaces(VisibleSpaces spaces, Output out) {
 		if (spaces.size() >= 1) {
-			for (Entry<String, Space> entry : spaces.entrySet()) {
-				Space space = entry.getValue();
-				System.out.println("There's a route to the " + entry.getKey() + ", leading to " + space.getName());
+			for (int i = 0; i < spaces.size(); i++) {
+				Direction direction = spaces.getDirection(i);
+				out.println("There's a route to the " + direction.getName() + ", leading to " + spaces.get(direction).getName());
 			}
 		} else {
-			System.out.println("You cannot see any routes.");
+			out.println("You cannot see any routes.");
 		}
 	}
 	
@@ -530,41 +509,48 @@ public class Player implements Nameable,Inspectable,Serializable,ExplodeObserver
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void bombExplosion() {
+	public void bombExplosion(Output out) {
+		// Both hazards may go off in the same batch, one death is enough
+		if (!this.alive) {
+			return;
+		}
 		this.alive = false;
 		this.gameState.setGameState(State.MENU_STATE);
-		ThreadManager.clearAllThreads();
-		System.out.println();
-		System.out.println("Suddenly there's a huge explosion in the mines! It's the explosives you left armed!");
-		System.out.println("The whole mine collapses on top of you!");
-		System.out.println();
-		System.out.println("You died alone in the mines. No one would find you body in years...");
-		System.out.println("*************************************");
-		System.out.println("**************GAME OVER**************");
-		System.out.println("*************************************");
-		System.out.println("A game by: Mikko Piuhola");
-		System.out.println();
-		System.out.println("Type anything to return to the main menu:");
+		this.threadManager.clearAllThreads();
+		out.println();
+		out.println("Suddenly there's a huge explosion in the mines! It's the explosives you left armed!");
+		out.println("The whole mine collapses on top of you!");
+		out.println();
+		out.println("You died alone in the mines. No one would find you body in years...");
+		out.println("*************************************");
+		out.println("**************GAME OVER**************");
+		out.println("*************************************");
+		out.println("A game by: Mikko Piuhola");
+		out.println();
+		out.println("Type anything to return to the main menu:");
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void waterPipeBreak() {
+	public void waterPipeBreak(Output out) {
+		if (!this.alive) {
+			return;
+		}
 		this.alive = false;
 		this.gameState.setGameState(State.MENU_STATE);
-		ThreadManager.clearAllThreads();
-		System.out.println();
-		System.out.println("You hear the water main bursting open!");
-		System.out.println("You have to get out of here!");
-		System.out.println("The water reaches you seconds later and fills the mine instantly.");
-		System.out.println("You struggle for a few seconds but it's useless, there's no way out.");
-		System.out.println("*************************************");
-		System.out.println("**************GAME OVER**************");
-		System.out.println("*************************************");
-		System.out.println("A game by: Mikko Piuhola");
-		System.out.println();
-		System.out.println("Type anything to return to the main menu:");
+		this.threadManager.clearAllThreads();
+		out.println();
+		out.println("You hear the water main bursting open!");
+		out.println("You have to get out of here!");
+		out.println("The water reaches you seconds later and fills the mine instantly.");
+		out.println("You struggle for a few seconds but it's useless, there's no way out.");
+		out.println("*************************************");
+		out.println("**************GAME OVER**************");
+		out.println("*************************************");
+		out.println("A game by: Mikko Piuhola");
+		out.println();
+		out.println("Type anything to return to the main menu:");
 	}
 }
@@ -0,0 +1,25 @@
+package dungeonadventure;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game clock following the real, monotonic time
+ * @author Mikko Piuhola
+ */
+public final class RealTimeClock implements GameClock {
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void sleep(long ms) throws InterruptedException {
+		Thread.sleep(ms);
+	}
+}
@@ -0,0 +1,151 @@
+package dungeonadventure;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shortest routes between the Spaces of a world, every exit being one
+ * step. A route is found from a table of every Space's distance to the
+ * destination, built by a breadth-first search backwards from the
+ * destination; the next step is then an exit one step closer to it.
+ * Tables are built when a destination is first asked for and kept for the
+ * destinations asked for most recently, within MAX_CACHED_SPACES entries.
+ * A world's connections never change once it's loaded, so the tables stay
+ * valid as long as the world; a new world gets a Router of its own.
+ * Shared by every game of the world.
+ * @author Mikko Piuhola
+ */
+final class Router {
+	
+	// Distance table entries kept at most, 16 MB
+	private static final int MAX_CACHED_SPACES = 1 << 22;
+	
+	private final WorldTemplate world;
+	private final int[] entrancesStart;
+	private final int[] entrances;
+	private final LinkedHashMap<Integer, int[]> tables;
+	
+	/**
+	 * Create a router, indexing the exits into every Space
+	 * @param world World to route in
+	 */
+	Router(WorldTemplate world) {
+		this.world = world;
+		int spaceCount = world.getSpaceCount();
+		
+		// Exits by the Space they lead into, for searching backwards
+		this.entrancesStart = new int[spaceCount + 1];
+		for (int i = 0; i < spaceCount; i++) {
+			for (Direction direction : Direction.values()) {
+				int next = world.getExit(i, direction);
+				if (next >= 0) {
+					this.entrancesStart[next + 1]++;
+				}
+			}
+		}
+		for (int i = 0; i < spaceCount; i++) {
+			this.entrancesStart[i + 1] += this.entrancesStart[i];
+		}
+		this.entrances = new int[this.entrancesStart[spaceCount]];
+		int[] free = Arrays.copyOf(this.entrancesStart, spaceCount);
+		for (int i = 0; i < spaceCount; i++) {
+			for (Direction direction : Direction.values()) {
+				int next = world.getExit(i, direction);
+				if (next >= 0) {
+					this.entrances[free[next]++] = i;
+				}
+			}
+		}
+		
+		final int maxTables = Math.max(1, MAX_CACHED_SPACES / Math.max(1, spaceCount));
+		this.tables = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+				return this.size() > maxTables;
+			}
+		};
+	}
+	
+	/**
+	 * Get the length of the shortest route
+	 * @param from Index of the Space the route starts from
+	 * @param to Index of the destination
+	 * @return Amount of steps or -1 if there's no route
+	 */
+	int getDistance(int from, int to) {
+		return this.getTable(to)[from];
+	}
+	
+	/**
+	 * Get the first step of a shortest route
+	 * @param from Index of the Space the route starts from
+	 * @param to Index of the destination
+	 * @return Direction of the step or null if already there or there's no route
+	 */
+	Direction getNextStep(int from, int to) {
+		int[] distances = this.getTable(to);
+		int distance = distances[from];
+		if (distance <= 0) {
+			return null;
+		}
+		for (Direction direction : Direction.values()) {
+			int next = this.world.getExit(from, direction);
+			if (next >= 0 && distances[next] == distance - 1) {
+				return direction;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the distance table of a destination, building it if it isn't cached.
+	 * Games may ask at the same time, in which case both may build the table.
+	 * @param to Index of the destination
+	 * @return Every Space's distance to the destination, -1 if there's no route
+	 */
+	private int[] getTable(int to) {
+		int[] table;
+		synchronized (this.tables) {
+			table = this.tables.get(to);
+		}
+		if (table == null) {
+			table = this.search(to);
+			synchronized (this.tables) {
+				this.tables.put(to, table);
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Find every Space's distance to a destination, breadth first along the exits backwards
+	 * @param to Index of the destination
+	 * @return Distances, -1 if there's no route
+	 */
+	private int[] search(int to) {
+		int[] distances = new int[this.world.getSpaceCount()];
+		Arrays.fill(distances, -1);
+		int[] queue = new int[distances.length];
+		int head = 0;
+		int tail = 0;
+		distances[to] = 0;
+		queue[tail++] = to;
+		while (head < tail) {
+			int space = queue[head++];
+			int distance = distances[space] + 1;
+			for (int e = this.entrancesStart[space]; e < this.entrancesStart[space + 1]; e++) {
+				int previous = this.entrances[e];
+				if (distances[previous] < 0) {
+					distances[previous] = distance;
+					queue[tail++] = previous;
+				}
+			}
+		}
+		return distances;
+	}
+}
@@ -0,0 +1,33 @@
+package dungeonadventure;
+
+/**
+ * Interface for the executors Threadable objects run their ticks on
+ * @author Mikko Piuhola
+ */
+public interface Scheduler {
+	
+	/**
+	 * Run a task once after the given delay
+	 * @param task Task to run
+	 * @param delayMs Delay in milliseconds
+	 * @return Handle for cancelling the task
+	 */
+	public Timeout schedule(Runnable task, long delayMs);
+	
+	/**
+	 * Stop the scheduler. Pending tasks are dropped.
+	 */
+	public void shutdown();
+	
+	/**
+	 * Get a human readable name of the executor
+	 * @return Executor's name
+	 */
+	public String getName();
+	
+	/**
+	 * Get statistics of how late the tasks have been run
+	 * @return Tick statistics
+	 */
+	public TickStats getStats();
+}
@@ -0,0 +1,77 @@
+package dungeonadventure;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs tasks one at a time, in submission order, on top of a shared Executor.
+ * Gives a game session an execution context of its own without a thread of its own.
+ * @author Mikko Piuhola
+ */
+public final class SerialExecutor implements Executor {
+	
+	private static final Logger LOG = Logger.getLogger(SerialExecutor.class.getName());
+	
+	private final Executor backing;
+	private final String name;
+	private final ConcurrentLinkedQueue<Runnable> tasks;
+	private final AtomicBoolean active;
+	
+	/**
+	 * Create a serial executor
+	 * @param backing Shared executor the tasks are actually run on
+	 * @param name Name of the executor in logged failures, e.g. the session's
+	 */
+	public SerialExecutor(Executor backing, String name) {
+		this.backing = backing;
+		this.name = name;
+		this.tasks = new ConcurrentLinkedQueue<Runnable>();
+		this.active = new AtomicBoolean(false);
+	}
+	
+	/**
+	 * Queue a task, it's run after all the previously queued ones
+	 * @param task Task to run
+	 */
+	@Override
+	public void execute(Runnable task) {
+		this.tasks.add(task);
+		this.schedule();
+	}
+	
+	/**
+	 * Hand the queue over to the backing executor, unless it already has it
+	 */
+	private void schedule() {
+		if (!this.tasks.isEmpty() && this.active.compareAndSet(false, true)) {
+			this.backing.execute(new Runnable() {
+				@Override
+				public void run() {
+					SerialExecutor.this.drain();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Run the queued tasks. Tasks queued meanwhile are picked up by another round.
+	 */
+	private void drain() {
+		try {
+			Runnable task;
+			while ((task = this.tasks.poll()) != null) {
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					// One failing task mustn't stall the rest of the session
+					LOG.log(Level.SEVERE, "Task of " + this.name + " failed", e);
+				}
+			}
+		} finally {
+			this.active.set(false);
+			this.schedule();
+		}
+	}
+}
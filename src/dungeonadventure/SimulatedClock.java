@@ -0,0 +1,264 @@
+package dungeonadventure;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulated game clock for headless runs. Time only moves when advanced,
+ * and the clock doubles as the Scheduler for everything scheduled while
+ * it's in use: due tasks are run in deadline order on the thread that
+ * advances the clock, which makes runs deterministic.
+ * @author Mikko Piuhola
+ */
+public final class SimulatedClock implements GameClock, Scheduler {
+	
+	private final PriorityQueue<SimulatedTimeout> timeouts;
+	private final TickStats stats;
+	private long now;
+	private long sequence;
+	private int purgeAt; // Queue size at which cancelled timeouts are swept out
+	
+	private final static int MIN_PURGE_SIZE = 64;
+	
+	/**
+	 * Create a simulated clock starting at zero
+	 */
+	public SimulatedClock() {
+		this.timeouts = new PriorityQueue<SimulatedTimeout>();
+		this.stats = new TickStats();
+		this.now = 0;
+		this.sequence = 0;
+		this.purgeAt = MIN_PURGE_SIZE;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized long currentTimeMillis() {
+		return this.now;
+	}
+	
+	/**
+	 * Sleeping just advances the simulated time
+	 */
+	@Override
+	public void sleep(long ms) {
+		this.advance(ms);
+	}
+	
+	/**
+	 * Advance time, running every task that becomes due on the way
+	 * @param ms Milliseconds to advance
+	 */
+	public void advance(long ms) {
+		long target;
+		synchronized (this) {
+			target = this.now + Math.max(0, ms);
+		}
+		
+		while (this.runNext(target)) {
+			// Keep running due tasks, they might schedule more
+		}
+		
+		synchronized (this) {
+			this.now = Math.max(this.now, target);
+		}
+	}
+	
+	/**
+	 * Jump straight to the next deadline and run everything due at it
+	 * @return False if there was nothing scheduled
+	 */
+	public boolean advanceToNextDeadline() {
+		long next;
+		synchronized (this) {
+			this.dropCancelled();
+			if (this.timeouts.isEmpty()) {
+				return false;
+			}
+			next = this.timeouts.peek().deadline;
+		}
+		
+		this.advance(next - this.currentTimeMillis());
+		return true;
+	}
+	
+	/**
+	 * Keep jumping from deadline to deadline until nothing is scheduled
+	 * or the time limit is reached
+	 * @param maxMs Maximum amount of time to advance
+	 * @return Amount of time advanced
+	 */
+	public long runUntilIdle(long maxMs) {
+		long start = this.currentTimeMillis();
+		long limit = start + maxMs;
+		
+		while (true) {
+			long next;
+			synchronized (this) {
+				this.dropCancelled();
+				if (this.timeouts.isEmpty() || this.timeouts.peek().deadline > limit) {
+					break;
+				}
+				next = this.timeouts.peek().deadline;
+			}
+			this.advance(next - this.currentTimeMillis());
+		}
+		
+		return this.currentTimeMillis() - start;
+	}
+	
+	/**
+	 * Amount of tasks waiting for their deadline
+	 * @return Pending task amount
+	 */
+	public synchronized int getPendingCount() {
+		this.dropCancelled();
+		return this.timeouts.size();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Timeout schedule(Runnable task, long delayMs) {
+		SimulatedTimeout timeout = new SimulatedTimeout(task, this.now + Math.max(0, delayMs), this.sequence++);
+		this.timeouts.add(timeout);
+		
+		// Cancelled timeouts only leave the head of the queue on their own,
+		// sweep the rest once in a while so pausing and resuming doesn't grow it
+		if (this.timeouts.size() >= this.purgeAt) {
+			this.purgeCancelled();
+		}
+		return timeout;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void shutdown() {
+		this.timeouts.clear();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return "simulated-clock";
+	}
+	
+	/**
+	 * Simulated tasks are never late
+	 */
+	@Override
+	public TickStats getStats() {
+		return this.stats;
+	}
+	
+	/**
+	 * Run the next task due by the target time
+	 * @param target Target time
+	 * @return Was a task run
+	 */
+	private boolean runNext(long target) {
+		SimulatedTimeout timeout;
+		synchronized (this) {
+			this.dropCancelled();
+			if (this.timeouts.isEmpty() || this.timeouts.peek().deadline > target) {
+				return false;
+			}
+			timeout = this.timeouts.poll();
+			this.now = Math.max(this.now, timeout.deadline);
+		}
+		
+		// Run outside the lock, the task reads the clock and schedules again
+		if (timeout.expire()) {
+			this.stats.record(0);
+			timeout.task.run();
+		}
+		return true;
+	}
+	
+	private void dropCancelled() {
+		while (!this.timeouts.isEmpty() && this.timeouts.peek().isCancelled()) {
+			this.timeouts.poll();
+		}
+	}
+	
+	/**
+	 * Remove all cancelled timeouts from the queue
+	 */
+	private void purgeCancelled() {
+		Iterator<SimulatedTimeout> it = this.timeouts.iterator();
+		while (it.hasNext()) {
+			if (it.next().isCancelled()) {
+				it.remove();
+			}
+		}
+		this.purgeAt = Math.max(MIN_PURGE_SIZE, this.timeouts.size() * 2);
+	}
+	
+	/**
+	 * A task waiting for its simulated deadline
+	 */
+	private static final class SimulatedTimeout implements Timeout, Comparable<SimulatedTimeout> {
+		
+		private final static int PENDING = 0;
+		private final static int CANCELLED = 1;
+		private final static int EXPIRED = 2;
+		
+		private final Runnable task;
+		private final long deadline;
+		private final long sequence;
+		private final AtomicInteger state;
+		
+		SimulatedTimeout(Runnable task, long deadline, long sequence) {
+			this.task = task;
+			this.deadline = deadline;
+			this.sequence = sequence;
+			this.state = new AtomicInteger(PENDING);
+		}
+		
+		/**
+		 * Earlier deadline first, ties in scheduling order
+		 */
+		@Override
+		public int compareTo(SimulatedTimeout other) {
+			if (this.deadline != other.deadline) {
+				return this.deadline < other.deadline ? -1 : 1;
+			}
+			return Long.compare(this.sequence, other.sequence);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean cancel() {
+			return this.state.compareAndSet(PENDING, CANCELLED);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isCancelled() {
+			return this.state.get() == CANCELLED;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isExpired() {
+			return this.state.get() == EXPIRED;
+		}
+		
+		private boolean expire() {
+			return this.state.compareAndSet(PENDING, EXPIRED);
+		}
+	}
+}
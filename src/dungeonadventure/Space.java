@@ -6,97 +6,101 @@ import dungeonadventure.items.Item;
 import dungeonadventure.properties.Nameable;
 
 /**
- * A space/location. Space has a map of possible next Spaces (places to move into).
- * Space can also contains items.
+ * A space/location. Space's name, description and possible next Spaces
+ * (places to move into) come from the shared WorldTemplate, the Space
+ * itself only holds the game's own state: the items it contains.
+ * Spaces are created by the game's WorldStore when they're needed,
+ * next Spaces are looked up from the store.
  * @author Mikko Piuhola
  */
 public class Space implements Nameable,Serializable {
 
 	private static final long serialVersionUID = 3657051461692034169L;
 	
-	private String name;
-	private String description;
-	private HashMap<String, Space> nextSpaces;
+	private final WorldTemplate template;
+	private final int index;
+	private final WorldStore store;
 	private HashMap<String, Item> items; // TODO: Should we use locations that contain Items/Spaces instead?
-
-	private boolean hasChargingStation;
+	transient private ItemIndex itemIndex;
 	
 	/**
-	 * Create a Space with a name
-	 * @param name Name for the Space
-	 * @param description Description of the Space
+	 * Create a Space of a game's world, see WorldStore
+	 * @param store Store of the game's Spaces
+	 * @param index Index of the Space in the template
 	 */
-	public Space(String name, String description) {
-		this(name, description, new HashMap<String, Space>(), new HashMap<String, Item>());
+	Space(WorldStore store, int index) {
+		this.template = store.getTemplate();
+		this.index = index;
+		this.store = store;
+		this.items = new HashMap<String, Item>(4);
 	}
 	
 	/**
-	 * Create a Space with a name and next spaces
-	 * @param name Name for the Space
-	 * @param description Description of the Space
-	 * @param spaces Next possible spaces to move to from Space
+	 * Get space's name
+	 * @return Space's name
 	 */
-	public Space(String name, String description, HashMap<String, Space> spaces) {
-		this(name, description, spaces, new HashMap<String, Item>());
+	public String getName() {
+		return this.template.getName(this.index);
 	}
 	
 	/**
-	 * Create a Space with a name, next spaces and items
-	 * @param name Name for the Space
-	 * @param description Description of the Space
-	 * @param spaces Next possible spaces to move to from Space
-	 * @param items Items in Space
+	 * Get space's index in its world
+	 * @return Space's index
 	 */
-	public Space(String name, String description, HashMap<String, Space> spaces, HashMap<String, Item> items) {
-		this.name = name;
-		this.description = description;
-		this.nextSpaces = spaces;
-		this.items = items;
-		this.hasChargingStation = false;
+	public int getIndex() {
+		return this.index;
 	}
 	
 	/**
-	 * Set whether this Space has a charging station or not
-	 * @param has Does Space have charging station
+	 * Does this Space have a connection to given Space's name or direction
+	 * @param dirOrName Direction or name of the wanted next Space
+	 * @return Does connection to next Space exist
 	 */
-	public void setHasChargingStation(boolean has) {
-		this.hasChargingStation = has;
+	public boolean hasNextSpace(String dirOrName) {
+		return this.template.getExit(this.index, dirOrName) >= 0;
 	}
 	
 	/**
-	 * Get space's name
-	 * @return Space's name
+	 * Get the directions the Space has next Spaces in
+	 * @return Bitmask of the Direction ordinals
 	 */
-	public String getName() {
-		return this.name;
+	public int getExitMask() {
+		return this.template.getExitMask(this.index);
 	}
 	
 	/**
-	 * Add a new Space as a next possible space for this space
-	 * @param direction Direction where next space is in relation to this Space
-	 * @param nextSpace Next space
+	 * Get the next Space in a direction
+	 * @param direction Direction of the wanted next Space
+	 * @return Next Space object or null if there's none in the direction
 	 */
-	public void addNextSpace(String direction, Space nextSpace) {
-		this.nextSpaces.put(direction.toLowerCase(), nextSpace);
-		this.nextSpaces.put(nextSpace.getName().toLowerCase(), nextSpace);
+	public Space getNextSpace(Direction direction) {
+		int next = this.template.getExit(this.index, direction);
+		return next < 0 ? null : this.store.getSpace(next);
 	}
 	
 	/**
-	 * Does this Space have a connection to given Space's name or direction
+	 * Get a space by given space's name
 	 * @param dirOrName Direction or name of the wanted next Space
-	 * @return Does connection to next Space exist
+	 * @return Next Space object
 	 */
-	public boolean hasNextSpace(String dirOrName) {
-		return this.nextSpaces.containsKey(dirOrName.toLowerCase());
+	public Space getNextSpace(String dirOrName) {
+		int next = this.template.getExit(this.index, dirOrName);
+		return next < 0 ? null : this.store.getSpace(next);
 	}
 	
 	/**
-	 * Get a space by given space's name
-	 * @param dirOrName Direction or name of the wanted next Space
-	 * @return Next Space object
+	 * Get the store of the game's Spaces
+	 * @return WorldStore the Space belongs to
 	 */
-	public Space getNextSpace(String dirOrName) {
-		return this.nextSpaces.get(dirOrName.toLowerCase());
+	public WorldStore getStore() {
+		return this.store;
+	}
+	
+	/**
+	 * The Player entered the Space, see WorldStore.enter()
+	 */
+	void enter() {
+		this.store.enter(this.index);
 	}
 	
 	/**
@@ -106,6 +110,37 @@ public class Space implements Nameable,Serializable {
 	 */
 	public void addItem(String cmd, Item item) {
 		this.items.put(cmd.toLowerCase(), item);
+		this.store.markDirty(this.index);
+		if (this.itemIndex != null) {
+			this.itemIndex.add(item);
+		}
+	}
+	
+	/**
+	 * Put back an Item the Space had when its region was evicted, see WorldStore
+	 * @param item Item
+	 */
+	void restoreItem(Item item) {
+		this.items.put(item.getName().toLowerCase(), item);
+	}
+	
+	/**
+	 * Set the index of reachable Items this Space's Items are kept in, e.g.
+	 * when the Player enters the Space. The Items are removed from the previous index.
+	 * @param itemIndex Index of the Player's reachable Items or null
+	 */
+	public void setItemIndex(ItemIndex itemIndex) {
+		if (this.itemIndex != null) {
+			for (Item item : this.items.values()) {
+				this.itemIndex.remove(item);
+			}
+		}
+		this.itemIndex = itemIndex;
+		if (itemIndex != null) {
+			for (Item item : this.items.values()) {
+				itemIndex.add(item);
+			}
+		}
 	}
 	
 	/**
@@ -127,6 +162,10 @@ public class Space implements Nameable,Serializable {
 		if (this.items.containsKey(lowName)) {
 			Item tempItem = this.items.get(lowName);
 			this.items.remove(lowName);
+			this.store.markDirty(this.index);
+			if (this.itemIndex != null) {
+				this.itemIndex.remove(tempItem);
+			}
 			return tempItem;
 		}
 		return null;
@@ -151,11 +190,7 @@ public class Space implements Nameable,Serializable {
 	 */
 	@Override
 	public String toString() {
-		String desc = this.description;
-		if (this.hasChargingStation) {
-			desc += "\nAnd there's the charging station for the mine's flashlights. That could come in handy if you flaslight runs out of battery.";
-		}
-		return desc;
+		return this.template.getDescription(this.index);
 	}
 
 	/**
@@ -163,6 +198,6 @@ public class Space implements Nameable,Serializable {
 	 * @return Has a charging station
 	 */
 	public boolean hasCharging() {
-		return this.hasChargingStation;
+		return this.template.hasChargingStation(this.index);
 	}
 }
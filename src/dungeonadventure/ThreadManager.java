@@ -1,6 +1,18 @@
 package dungeonadventure;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import dungeonadventure.observers.EventBus;
 import dungeonadventure.properties.Threadable;
 import dungeonadventure.properties.Timeable;
 
@@ -8,25 +20,81 @@ import dungeonadventure.properties.Timeable;
  * ThreadManager is used to manage all the game's secondary and tertiary threads.
  * Threads are cleared on exit, stopped when entering the menu and restarted
  * when the Player continues the game.
+ * Threadable objects don't own actual threads, they schedule their ticks on
+ * a shared Scheduler owned by ThreadManager. The ExecutionMode decides
+ * whether that is the timing wheel or virtual threads.
+ * Each game session has its own ThreadManager (and clock), only the
+ * schedulers are shared by the whole JVM.
+ * The session's commands and observable events run on its own serial executor,
+ * so the game state is never touched by two threads at once.
  * @author Mikko Piuhola
  */
-public final class ThreadManager {
+public final class ThreadManager implements Serializable {
 	
-	private static ArrayList<Threadable> threads;
+	private static final long serialVersionUID = 4518829013752004917L;
+	
+	private static volatile ExecutionMode executionMode = ExecutionMode.TIMING_WHEEL;
+	private static Scheduler wheelScheduler;
+	private static Scheduler virtualThreadScheduler;
+	private static ExecutorService sessionPool;
+	
+	// Runs a task on the calling thread, under a simulated clock events are delivered as its deadlines fire
+	private static final Executor DIRECT_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable task) {
+			task.run();
+		}
+	};
+	
+	// Threadables don't override equals/hashCode, so the registry is keyed by identity
+	private ConcurrentHashMap<Threadable, Boolean> threads;
+	transient private ConcurrentHashMap<Threadable, Scheduler> executors;
+	transient private volatile GameClock clock;
+	transient private Executor executor;
+	transient private Output output;
+	transient private EventBus eventBus;
+	transient private AtomicInteger pendingTimers;
 	
 	/**
-	 * Private constructor, makes this a "static" class.
+	 * Create a ThreadManager for a game session, using the real time clock
 	 */
-	private ThreadManager() {
-		threads = new ArrayList<Threadable>();
+	public ThreadManager() {
+		this(new RealTimeClock());
 	}
 	
 	/**
-	 * Get a cloned list of all the threadable objects
-	 * @return ArrayList of all the threads
+	 * Create a ThreadManager for a game session. With a SimulatedClock events
+	 * are delivered on the thread advancing the clock, so a headless run
+	 * sees them in deadline order, e.g. a dead Player's game stops at once.
+	 * @param clock Clock for the session's time-dependent objects
 	 */
-	public static ArrayList<Threadable> getAllThreads() {
-		return threads;
+	public ThreadManager(GameClock clock) {
+		this(clock, sessionExecutorFor(clock), new BufferedOutput(System.out));
+	}
+	
+	/**
+	 * Create a ThreadManager for a game session
+	 * @param clock Clock for the session's time-dependent objects
+	 * @param executor Serial executor of the session, runs commands and delivers events
+	 * @param output Output of the session, observers print their reactions to it
+	 */
+	public ThreadManager(GameClock clock, Executor executor, Output output) {
+		this.threads = new ConcurrentHashMap<Threadable, Boolean>();
+		this.executors = new ConcurrentHashMap<Threadable, Scheduler>();
+		this.clock = clock;
+		this.executor = executor;
+		this.output = output;
+		this.eventBus = new EventBus(executor, output);
+		this.pendingTimers = new AtomicInteger();
+	}
+	
+	/**
+	 * Get a view of all the threadable objects.
+	 * Iteration is weakly consistent, threads can be added and removed meanwhile.
+	 * @return Collection of all the threads
+	 */
+	public Collection<Threadable> getAllThreads() {
+		return Collections.unmodifiableSet(this.threads.keySet());
 	}
 	
 	/**
@@ -34,18 +102,17 @@ public final class ThreadManager {
 	 * @param obj Object to check for
 	 * @return Thread exists in ThreadManager
 	 */
-	public static boolean hasThread(Threadable obj) {
-		return threads.contains(obj);
+	public boolean hasThread(Threadable obj) {
+		return obj != null && this.threads.containsKey(obj);
 	}
 	
 	/**
 	 * Add new threadable object
 	 * @param obj Threadable object to add
 	 */
-	public static void addThread(Threadable obj) {
-		if (threads == null) threads = new ArrayList<Threadable>();
-		if (obj != null && !hasThread(obj)) {
-			threads.add(obj);
+	public void addThread(Threadable obj) {
+		if (obj != null) {
+			this.threads.putIfAbsent(obj, Boolean.TRUE);
 		}
 	}
 	
@@ -53,64 +120,361 @@ public final class ThreadManager {
 	 * Remove thread from list
 	 * @param obj Threadable object to remove
 	 */
-	public static void removeThread(Threadable obj) {
-		if (threads == null) threads = new ArrayList<Threadable>();
-		if (threads.contains(obj)) {
-			threads.remove(obj);
+	public void removeThread(Threadable obj) {
+		if (obj != null) {
+			this.threads.remove(obj);
+			this.executors.remove(obj);
 		}
 	}
 	
 	/**
-	 * Restart all threads
+	 * Resume all suspended threads where they were left
 	 */
-	public static void restartAllThreads() {
-		if (threads == null) threads = new ArrayList<Threadable>();
-		for (Threadable obj : threads) {
-			if (!obj.isRunning()) {
-				obj.start();
-			}
+	public void restartAllThreads() {
+		for (Threadable obj : this.threads.keySet()) {
+			obj.resume();
 		}
 	}
 	
 	/**
-	 * Stop all threads
+	 * Suspend all threads, e.g. for the menu. Their remaining time is kept
+	 * and no timer stays scheduled meanwhile.
 	 */
-	public static void stopAllThreads() {
-		if (threads == null) threads = new ArrayList<Threadable>();
-		for (Threadable obj : threads) {
-			obj.interrupt();
+	public void stopAllThreads() {
+		for (Threadable obj : this.threads.keySet()) {
+			obj.suspend();
 		}
 	}
 	
 	/**
 	 * Stop and remove all threads
 	 */
-	public static void clearAllThreads() {
-		if (threads == null) threads = new ArrayList<Threadable>();
-
-		// We need to make a clone, because threads can't be removed when
-		//  iterating over threads-list.
-		@SuppressWarnings("unchecked")
-		ArrayList<Threadable> tempThreads = (ArrayList<Threadable>) threads.clone();
-		for (Threadable obj : tempThreads) {
+	public void clearAllThreads() {
+		// Iteration is weakly consistent, so removing while iterating is fine
+		for (Threadable obj : this.threads.keySet()) {
 			obj.interrupt();
-			removeThread(obj);
+			this.removeThread(obj);
 		}
+		
+		// Nothing from the cleared threads should reach the next game
+		this.eventBus.discardPending();
+	}
+	
+	// SESSION EXECUTION
+	
+	/**
+	 * Get the event bus observable events of this session are published on
+	 * @return Event bus
+	 */
+	public EventBus getEventBus() {
+		return this.eventBus;
+	}
+	
+	/**
+	 * Move event delivery over to another session, e.g. after loading the game
+	 * @param executor Serial executor of the session
+	 * @param output Output of the session
+	 */
+	public void attach(Executor executor, Output output) {
+		this.executor = executor;
+		this.output = output;
+		this.eventBus = new EventBus(executor, output);
+	}
+	
+	/**
+	 * Report events of this session to another output, on the same executor
+	 * @param output Output of the session
+	 */
+	public void setOutput(Output output) {
+		this.attach(this.executor, output);
+	}
+	
+	/**
+	 * Get the output events of this session are reported to
+	 * @return Output of the session
+	 */
+	public Output getOutput() {
+		return this.output;
+	}
+	
+	/**
+	 * Run a task on the session's executor and wait for it to finish.
+	 * Keeps commands from interleaving with event delivery.
+	 * @param task Task to run
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public void runInSession(Runnable task) throws InterruptedException {
+		FutureTask<Void> future = new FutureTask<Void>(task, null);
+		this.executor.execute(future);
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Get the shared pool the default session executors run on, started on first use
+	 * @return Shared pool
+	 */
+	private static synchronized Executor getSessionPool() {
+		if (sessionPool == null) {
+			sessionPool = Executors.newCachedThreadPool(new DaemonThreadFactory("session-worker"));
+		}
+		return sessionPool;
+	}
+	
+	/**
+	 * Get a serial executor for a new session using a clock
+	 * @param clock Clock of the session
+	 * @return Executor running on the advancing thread for a SimulatedClock, on the shared pool otherwise
+	 */
+	private static Executor sessionExecutorFor(GameClock clock) {
+		return new SerialExecutor(clock instanceof SimulatedClock ? DIRECT_EXECUTOR : getSessionPool(), "game");
+	}
+	
+	// SCHEDULING
+	
+	/**
+	 * Set the executor used for Threadables scheduled from now on, in every session.
+	 * Meant to be chosen at launch, already running objects move over on their next wake.
+	 * @param mode Execution mode
+	 * @throws UnsupportedOperationException If the mode is VIRTUAL_THREADS and the JVM has none, the mode is kept
+	 */
+	public static void setExecutionMode(ExecutionMode mode) {
+		if (mode == ExecutionMode.VIRTUAL_THREADS && !VirtualThreadScheduler.isVirtualThreadsAvailable()) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or newer, running on Java "
+					+ System.getProperty("java.specification.version"));
+		}
+		executionMode = mode;
+	}
+	
+	/**
+	 * Get the current execution mode
+	 * @return Execution mode
+	 */
+	public static ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+	
+	/**
+	 * Run a Threadable's task once after a delay on the shared scheduler
+	 * @param task Task to run
+	 * @param delayMs Delay in milliseconds
+	 * @return Handle for cancelling the task
+	 */
+	public Timeout schedule(Runnable task, long delayMs) {
+		return this.schedule(task instanceof Threadable ? (Threadable)task : null, task, delayMs);
+	}
+	
+	/**
+	 * Run a task once after a delay on the shared scheduler, on behalf of a Threadable
+	 * @param owner Threadable the task belongs to, or null
+	 * @param task Task to run
+	 * @param delayMs Delay in milliseconds
+	 * @return Handle for cancelling the task
+	 */
+	public Timeout schedule(Threadable owner, Runnable task, long delayMs) {
+		// A simulated clock schedules everything itself
+		GameClock c = this.clock;
+		Scheduler scheduler = c instanceof Scheduler ? (Scheduler)c : getScheduler(executionMode);
+		if (owner != null) {
+			this.executors.put(owner, scheduler);
+		}
+		return scheduler.schedule(task, delayMs);
+	}
+	
+	/**
+	 * Run a task once after a delay on the session's executor, in order with
+	 * commands and events. No thread is held while waiting.
+	 * @param task Task to run
+	 * @param delayMs Delay in milliseconds
+	 * @return Handle for cancelling the task before it's handed to the session
+	 */
+	public Timeout scheduleInSession(final Runnable task, long delayMs) {
+		return this.schedule(null, new Runnable() {
+			@Override
+			public void run() {
+				ThreadManager.this.executor.execute(task);
+			}
+		}, delayMs);
+	}
+
+	/**
+	 * Get the amount of timers scheduled for this session and not yet run or cancelled.
+	 * Zero while the game is paused, anything else is a leaked timer.
+	 * @return Pending timers
+	 */
+	public int getPendingTimers() {
+		return this.pendingTimers.get();
+	}
+	
+	/**
+	 * A Countdown scheduled a wake
+	 */
+	void timerArmed() {
+		this.pendingTimers.incrementAndGet();
+	}
+	
+	/**
+	 * A Countdown's wake was run or cancelled
+	 */
+	void timerDone() {
+		this.pendingTimers.decrementAndGet();
+	}
+	
+	/**
+	 * Get the executor a Threadable was last scheduled on
+	 * @param obj Threadable object
+	 * @return Name of the executor or null if never scheduled
+	 */
+	public String getExecutorName(Threadable obj) {
+		Scheduler scheduler = this.executors.get(obj);
+		return scheduler == null ? null : scheduler.getName();
+	}
+	
+	/**
+	 * Get a report of which executor each Threadable runs on and
+	 * how late the executors' ticks have been
+	 * @return Multi-line report
+	 */
+	public String getExecutorReport() {
+		StringBuilder report = new StringBuilder();
+		
+		for (Threadable obj : this.threads.keySet()) {
+			String executor = this.getExecutorName(obj);
+			report.append(obj.getClass().getSimpleName()).append(": ")
+				.append(executor == null ? "not scheduled" : executor)
+				.append(obj.isRunning() ? "" : " (stopped)").append('\n');
+		}
+		for (ExecutionMode mode : ExecutionMode.values()) {
+			Scheduler s = getStartedScheduler(mode);
+			if (s != null) {
+				report.append(s.getName()).append(": ").append(s.getStats()).append('\n');
+			}
+		}
+		if (this.clock instanceof Scheduler) {
+			Scheduler s = (Scheduler)this.clock;
+			report.append(s.getName()).append(": ").append(s.getStats()).append('\n');
+		}
+		report.append("events: ").append(this.eventBus).append('\n');
+		report.append("pending timers: ").append(this.getPendingTimers()).append('\n');
+		
+		return report.toString();
+	}
+	
+	/**
+	 * Get the shared scheduler for a mode, started on first use
+	 * @param mode Execution mode
+	 * @return Shared Scheduler
+	 */
+	private static synchronized Scheduler getScheduler(ExecutionMode mode) {
+		switch (mode) {
+			case VIRTUAL_THREADS:
+				if (virtualThreadScheduler == null) virtualThreadScheduler = new VirtualThreadScheduler();
+				return virtualThreadScheduler;
+			case TIMING_WHEEL:
+			default:
+				if (wheelScheduler == null) wheelScheduler = new TickScheduler();
+				return wheelScheduler;
+		}
+	}
+	
+	/**
+	 * Get the scheduler for a mode if it has been started
+	 * @param mode Execution mode
+	 * @return Shared Scheduler or null
+	 */
+	private static synchronized Scheduler getStartedScheduler(ExecutionMode mode) {
+		return mode == ExecutionMode.VIRTUAL_THREADS ? virtualThreadScheduler : wheelScheduler;
+	}
+	
+	// CLOCK
+	
+	/**
+	 * Get the clock all time-dependent objects of this session read
+	 * @return Game clock
+	 */
+	public GameClock getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * Set the game clock. Should be set before starting a game,
+	 * objects already counting down keep their current schedule.
+	 * @param gameClock Game clock
+	 */
+	public void setClock(GameClock gameClock) {
+		this.clock = gameClock;
+	}
+	
+	/**
+	 * Switch to a simulated clock for headless runs. Events are delivered on
+	 * the thread advancing the clock from now on, see ThreadManager(GameClock).
+	 * @return The new simulated clock, used to advance time
+	 */
+	public SimulatedClock useSimulatedClock() {
+		SimulatedClock simulated = new SimulatedClock();
+		this.clock = simulated;
+		this.attach(sessionExecutorFor(simulated), this.output);
+		return simulated;
+	}
+	
+	/**
+	 * Get the current time of the game clock
+	 * @return Current time in milliseconds
+	 */
+	public long currentTimeMillis() {
+		return this.clock.currentTimeMillis();
+	}
+	
+	/**
+	 * Let game time pass, e.g. during a dramatic pause.
+	 * Returns immediately with a simulated clock.
+	 * @param ms Milliseconds to wait
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public void sleep(long ms) throws InterruptedException {
+		this.clock.sleep(ms);
 	}
 	
 	// FOR TIMEABLES
 	
 	/**
-	 * Advance time on all timeable threads.
+	 * Advance time on all timeable threads (batteries in use included).
 	 * Used when spending time in some other activity, e.g. charging flashlight
 	 * @param amount Amount of time in seconds to advance Timeable objects
+	 * @return Did any of the timers run out, their events follow the current command
 	 */
-	public static void advanceTime(int amount) {
-		if (threads == null) threads = new ArrayList<Threadable>();
-		for (Threadable obj : threads) {
+	public boolean advanceTime(int amount) {
+		boolean ranOut = false;
+		for (Threadable obj : this.threads.keySet()) {
 			if (obj instanceof Timeable) {
-				((Timeable)obj).spendTime(amount);
+				ranOut |= ((Timeable)obj).spendTime(amount);
 			}
 		}
+		return ranOut;
+	}
+	
+	/**
+	 * Restore the transient parts of a loaded ThreadManager
+	 * @param in Object stream
+	 * @throws IOException On read failure
+	 * @throws ClassNotFoundException On unknown classes in the stream
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.executors = new ConcurrentHashMap<Threadable, Scheduler>();
+		this.clock = new RealTimeClock();
+		this.executor = new SerialExecutor(getSessionPool(), "game");
+		this.output = new BufferedOutput(System.out);
+		this.eventBus = new EventBus(this.executor, this.output);
+		this.pendingTimers = new AtomicInteger();
 	}
 }
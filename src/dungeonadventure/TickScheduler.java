@@ -0,0 +1,332 @@
+package dungeonadventure;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared hierarchical timing wheel for all timed game objects.
+ * One ticker thread advances the wheels and hands due tasks over to a small,
+ * fixed pool of worker threads, so the amount of threads stays the same no
+ * matter how many Threadable objects (or games) are running.
+ * @author Mikko Piuhola
+ */
+public final class TickScheduler implements Scheduler {
+
+	private final static long DEFAULT_TICK_MS = 100;
+	private final static int DEFAULT_WHEEL_SIZE = 64;
+	private final static int DEFAULT_WORKERS = 2;
+	private final static int PURGE_THRESHOLD = 1024;
+
+	private final long tickMs;
+	private final long startNanos;
+	private final Wheel wheel;
+	private final ConcurrentLinkedQueue<WheelTimeout> newTimeouts;
+	private final ExecutorService workers;
+	private final Thread ticker;
+	private final TickStats stats;
+	private final AtomicInteger cancelled;
+	private volatile boolean shutdown;
+
+	/**
+	 * Create a scheduler with the default tick (100 ms), wheel size and worker pool
+	 */
+	public TickScheduler() {
+		this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE, DEFAULT_WORKERS);
+	}
+
+	/**
+	 * Create a scheduler
+	 * @param tickMs Length of one tick on the lowest wheel, in milliseconds
+	 * @param wheelSize Amount of buckets on each wheel
+	 * @param workers Amount of worker threads running the due tasks
+	 */
+	public TickScheduler(long tickMs, int wheelSize, int workers) {
+		this.tickMs = tickMs;
+		this.startNanos = System.nanoTime();
+		this.wheel = new Wheel(tickMs, wheelSize, 0);
+		this.newTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+		this.workers = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("tick-worker"));
+		this.ticker = new DaemonThreadFactory("tick-wheel").newThread(new Runnable() {
+			@Override
+			public void run() {
+				TickScheduler.this.tickLoop();
+			}
+		});
+		this.stats = new TickStats();
+		this.cancelled = new AtomicInteger();
+		this.shutdown = false;
+		this.ticker.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Timeout schedule(Runnable task, long delayMs) {
+		WheelTimeout timeout = new WheelTimeout(task, this.elapsedMs() + Math.max(0, delayMs), this.cancelled);
+
+		// Wheels are only touched by the ticker, new timeouts are picked up on the next tick
+		this.newTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Stop the ticker and the workers. Pending timeouts are dropped.
+	 */
+	@Override
+	public void shutdown() {
+		this.shutdown = true;
+		this.ticker.interrupt();
+		this.workers.shutdownNow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return "timing-wheel";
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TickStats getStats() {
+		return this.stats;
+	}
+
+	/**
+	 * Milliseconds since the scheduler was created
+	 * @return Elapsed milliseconds
+	 */
+	private long elapsedMs() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+	}
+
+	/**
+	 * Ticker thread's loop. Sleeps until the next tick and then expires
+	 * everything that became due.
+	 */
+	private void tickLoop() {
+		ArrayList<WheelTimeout> due = new ArrayList<WheelTimeout>();
+
+		while (!this.shutdown) {
+			long sleepMs = this.wheel.currentTime + this.tickMs - this.elapsedMs();
+			if (sleepMs > 0) {
+				try {
+					Thread.sleep(sleepMs);
+				} catch (InterruptedException e) {
+					continue; // Re-check shutdown
+				}
+			}
+
+			long now = this.elapsedMs();
+			this.transferNewTimeouts(due);
+			this.wheel.advance(now, due);
+			
+			// Cancelled timeouts otherwise wait in their buckets until their deadline
+			int cancelledCount = this.cancelled.get();
+			if (cancelledCount >= PURGE_THRESHOLD) {
+				this.cancelled.addAndGet(-cancelledCount);
+				this.wheel.purge();
+			}
+
+			for (WheelTimeout timeout : due) {
+				if (timeout.expire()) {
+					this.stats.record(now - timeout.deadline);
+					this.workers.execute(timeout.task);
+				}
+			}
+			due.clear();
+		}
+	}
+
+	/**
+	 * Move freshly scheduled timeouts onto the wheels
+	 * @param due List to collect timeouts that are already due
+	 */
+	private void transferNewTimeouts(ArrayList<WheelTimeout> due) {
+		WheelTimeout timeout;
+		while ((timeout = this.newTimeouts.poll()) != null) {
+			if (!timeout.isCancelled() && !this.wheel.add(timeout)) {
+				due.add(timeout);
+			}
+		}
+	}
+
+	/**
+	 * One level of the timing wheel. Each bucket holds timeouts of one tick's
+	 * worth of time, anything further than the wheel's span goes to the
+	 * (lazily created) overflow wheel, whose tick is this wheel's whole span.
+	 */
+	private static final class Wheel {
+
+		private final long tickMs;
+		private final int wheelSize;
+		private final long interval;
+		private final ArrayList<ArrayList<WheelTimeout>> buckets;
+		private long currentTime;
+		private Wheel overflow;
+		private Wheel root;
+
+		Wheel(long tickMs, int wheelSize, long startMs) {
+			this.tickMs = tickMs;
+			this.wheelSize = wheelSize;
+			this.interval = tickMs * wheelSize;
+			this.buckets = new ArrayList<ArrayList<WheelTimeout>>(wheelSize);
+			for (int i = 0; i < wheelSize; i++) {
+				this.buckets.add(new ArrayList<WheelTimeout>());
+			}
+			this.currentTime = startMs - (startMs % tickMs);
+			this.root = this;
+		}
+
+		/**
+		 * Place timeout on this wheel or an overflow wheel
+		 * @param timeout Timeout to place
+		 * @return False if the timeout is already due
+		 */
+		boolean add(WheelTimeout timeout) {
+			if (this == this.root && timeout.deadline < this.currentTime) {
+				return false;
+			} else if (timeout.deadline < this.currentTime + this.interval) {
+				this.bucketFor(timeout.deadline).add(timeout);
+				return true;
+			} else {
+				if (this.overflow == null) {
+					this.overflow = new Wheel(this.interval, this.wheelSize, this.currentTime);
+					this.overflow.root = this.root;
+				}
+				return this.overflow.add(timeout);
+			}
+		}
+
+		/**
+		 * Advance the lowest wheel up to the given time.
+		 * Buckets on the lowest wheel expire once their whole tick has passed,
+		 * buckets on higher wheels cascade down as soon as their tick starts.
+		 * @param timeMs Current time
+		 * @param due List to collect due timeouts into
+		 */
+		void advance(long timeMs, ArrayList<WheelTimeout> due) {
+			while (this.currentTime + this.tickMs <= timeMs) {
+				ArrayList<WheelTimeout> bucket = this.bucketFor(this.currentTime);
+				for (WheelTimeout timeout : bucket) {
+					if (!timeout.isCancelled()) {
+						due.add(timeout);
+					}
+				}
+				bucket.clear();
+
+				this.currentTime += this.tickMs;
+				if (this.overflow != null) {
+					this.overflow.cascade(this.currentTime, due);
+				}
+			}
+		}
+
+		/**
+		 * Advance an overflow wheel and push its current bucket's timeouts
+		 * down to the lower wheels
+		 * @param timeMs Current time of the lower wheel
+		 * @param due List to collect due timeouts into
+		 */
+		private void cascade(long timeMs, ArrayList<WheelTimeout> due) {
+			while (this.currentTime + this.tickMs <= timeMs) {
+				this.currentTime += this.tickMs;
+				if (this.overflow != null) {
+					this.overflow.cascade(this.currentTime, due);
+				}
+
+				ArrayList<WheelTimeout> bucket = this.bucketFor(this.currentTime);
+				ArrayList<WheelTimeout> moved = new ArrayList<WheelTimeout>(bucket);
+				bucket.clear();
+				for (WheelTimeout timeout : moved) {
+					if (!timeout.isCancelled() && !this.root.add(timeout)) {
+						due.add(timeout);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Remove cancelled timeouts from this wheel and its overflow wheels
+		 */
+		void purge() {
+			for (ArrayList<WheelTimeout> bucket : this.buckets) {
+				Iterator<WheelTimeout> it = bucket.iterator();
+				while (it.hasNext()) {
+					if (it.next().isCancelled()) {
+						it.remove();
+					}
+				}
+			}
+			if (this.overflow != null) {
+				this.overflow.purge();
+			}
+		}
+		
+		private ArrayList<WheelTimeout> bucketFor(long timeMs) {
+			return this.buckets.get((int) ((timeMs / this.tickMs) % this.wheelSize));
+		}
+	}
+
+	/**
+	 * Handle for a scheduled task
+	 */
+	private static final class WheelTimeout implements Timeout {
+
+		private final static int PENDING = 0;
+		private final static int CANCELLED = 1;
+		private final static int EXPIRED = 2;
+
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicInteger state;
+		private final AtomicInteger cancelledCounter;
+
+		private WheelTimeout(Runnable task, long deadline, AtomicInteger cancelledCounter) {
+			this.task = task;
+			this.deadline = deadline;
+			this.state = new AtomicInteger(PENDING);
+			this.cancelledCounter = cancelledCounter;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean cancel() {
+			if (this.state.compareAndSet(PENDING, CANCELLED)) {
+				this.cancelledCounter.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isCancelled() {
+			return this.state.get() == CANCELLED;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isExpired() {
+			return this.state.get() == EXPIRED;
+		}
+
+		private boolean expire() {
+			return this.state.compareAndSet(PENDING, EXPIRED);
+		}
+	}
+}
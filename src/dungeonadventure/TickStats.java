@@ -0,0 +1,72 @@
+package dungeonadventure;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tick jitter statistics, i.e. how late scheduled tasks were run
+ * compared to their deadlines.
+ * @author Mikko Piuhola
+ */
+public final class TickStats {
+	
+	private final AtomicLong ticks;
+	private final AtomicLong totalLateMs;
+	private final AtomicLong maxLateMs;
+	
+	/**
+	 * Create empty statistics
+	 */
+	public TickStats() {
+		this.ticks = new AtomicLong();
+		this.totalLateMs = new AtomicLong();
+		this.maxLateMs = new AtomicLong();
+	}
+	
+	/**
+	 * Record one run task
+	 * @param lateMs How late the task was run, in milliseconds
+	 */
+	public void record(long lateMs) {
+		long late = Math.max(0, lateMs);
+		this.ticks.incrementAndGet();
+		this.totalLateMs.addAndGet(late);
+		
+		long max = this.maxLateMs.get();
+		while (late > max && !this.maxLateMs.compareAndSet(max, late)) {
+			max = this.maxLateMs.get();
+		}
+	}
+	
+	/**
+	 * Get amount of run tasks
+	 * @return Amount of ticks
+	 */
+	public long getTicks() {
+		return this.ticks.get();
+	}
+	
+	/**
+	 * Get average lateness
+	 * @return Average lateness in milliseconds
+	 */
+	public double getAverageLateMs() {
+		long count = this.ticks.get();
+		return count == 0 ? 0.0 : (double) this.totalLateMs.get() / count;
+	}
+	
+	/**
+	 * Get worst lateness
+	 * @return Maximum lateness in milliseconds
+	 */
+	public long getMaxLateMs() {
+		return this.maxLateMs.get();
+	}
+	
+	/**
+	 * Get the statistics as a single line
+	 */
+	@Override
+	public String toString() {
+		return this.getTicks() + " ticks, average " + String.format("%.1f", this.getAverageLateMs())
+				+ " ms late, worst " + this.getMaxLateMs() + " ms late";
+	}
+}
@@ -0,0 +1,26 @@
+package dungeonadventure;
+
+/**
+ * Handle for a task scheduled on a Scheduler
+ * @author Mikko Piuhola
+ */
+public interface Timeout {
+	
+	/**
+	 * Cancel the task if it hasn't run yet
+	 * @return Was the task cancelled by this call
+	 */
+	public boolean cancel();
+	
+	/**
+	 * Check if the task was cancelled
+	 * @return Is cancelled
+	 */
+	public boolean isCancelled();
+	
+	/**
+	 * Check if the task has been handed over for running
+	 * @return Is expired
+	 */
+	public boolean isExpired();
+}
@@ -0,0 +1,168 @@
+package dungeonadventure;
+
+/**
+ * Splits a line of input into lower case words in one pass.
+ * The words are kept as slices of a reusable char buffer, so a tokenizer
+ * doesn't allocate anything once its buffer is large enough for the input.
+ * Words can be dropped from the front and swapped in place, e.g. to
+ * turn "flashlight on" into "on flashlight". A tokenizer belongs to one
+ * CommandInterpreter and isn't thread-safe.
+ * @author Mikko Piuhola
+ */
+final class Tokenizer {
+	
+	private static final int MAX_WORDS = 16;
+	
+	private char[] buffer;
+	private final int[] starts;
+	private final int[] lengths;
+	private int first;
+	private int count;
+	
+	/**
+	 * Create a tokenizer
+	 */
+	Tokenizer() {
+		this.buffer = new char[128];
+		this.starts = new int[MAX_WORDS];
+		this.lengths = new int[MAX_WORDS];
+		this.first = 0;
+		this.count = 0;
+	}
+	
+	/**
+	 * Split input into words, replacing the previous input's words.
+	 * Words after the first 16 are ignored.
+	 * @param input Input line
+	 */
+	void tokenize(CharSequence input) {
+		int length = input.length();
+		if (length > this.buffer.length) {
+			this.buffer = new char[Math.max(length, this.buffer.length * 2)];
+		}
+		
+		this.first = 0;
+		this.count = 0;
+		int start = -1;
+		for (int i = 0; i < length; i++) {
+			char c = input.charAt(i);
+			if (Character.isWhitespace(c)) {
+				if (start >= 0) {
+					this.addWord(start, i);
+					start = -1;
+				}
+			} else {
+				this.buffer[i] = Character.toLowerCase(c);
+				if (start < 0) {
+					start = i;
+				}
+			}
+		}
+		if (start >= 0) {
+			this.addWord(start, length);
+		}
+	}
+	
+	/**
+	 * Record a word
+	 * @param start Index of the word's first char
+	 * @param end Index after the word's last char
+	 */
+	private void addWord(int start, int end) {
+		if (this.count < MAX_WORDS) {
+			this.starts[this.count] = start;
+			this.lengths[this.count] = end - start;
+			this.count++;
+		}
+	}
+	
+	/**
+	 * Get the amount of words left
+	 * @return Word count
+	 */
+	int size() {
+		return this.count - this.first;
+	}
+	
+	/**
+	 * Drop the first word, e.g. "go" in "go north"
+	 */
+	void dropFirst() {
+		if (this.first < this.count) {
+			this.first++;
+		}
+	}
+	
+	/**
+	 * Swap the places of two words
+	 * @param a Index of a word
+	 * @param b Index of another word
+	 */
+	void swap(int a, int b) {
+		int i = this.slot(a);
+		int j = this.slot(b);
+		int start = this.starts[i];
+		int length = this.lengths[i];
+		this.starts[i] = this.starts[j];
+		this.lengths[i] = this.lengths[j];
+		this.starts[j] = start;
+		this.lengths[j] = length;
+	}
+	
+	/**
+	 * Is a word the given word
+	 * @param index Index of the word
+	 * @param word Lower case word to compare to
+	 * @return Is the word the same
+	 */
+	boolean is(int index, String word) {
+		int i = this.slot(index);
+		return WordTable.matches(word, this.buffer, this.starts[i], this.lengths[i]);
+	}
+	
+	/**
+	 * Look a word up from a word table
+	 * @param index Index of the word
+	 * @param table Table to look in
+	 * @return Value in the table or null
+	 */
+	<T> T lookup(int index, WordTable<T> table) {
+		int i = this.slot(index);
+		return table.get(this.buffer, this.starts[i], this.lengths[i]);
+	}
+	
+	/**
+	 * Find the closest word to a misspelled word
+	 * @param index Index of the word
+	 * @param typos Words to look in
+	 * @param scratch Scratch space for the search
+	 * @return Value of the closest word or null
+	 */
+	<T> T closest(int index, TypoIndex<T> typos, TypoIndex.Scratch scratch) {
+		int i = this.slot(index);
+		return typos.closest(this.buffer, this.starts[i], this.lengths[i], scratch);
+	}
+	
+	/**
+	 * Get a word as a String
+	 * @param index Index of the word
+	 * @return New String of the word
+	 */
+	String word(int index) {
+		int i = this.slot(index);
+		return new String(this.buffer, this.starts[i], this.lengths[i]);
+	}
+	
+	/**
+	 * Get the position of a word in the word arrays
+	 * @param index Index of the word
+	 * @return Slot of the word
+	 * @throws IndexOutOfBoundsException If there's no such word
+	 */
+	private int slot(int index) {
+		if (index < 0 || index >= this.size()) {
+			throw new IndexOutOfBoundsException("No word " + index);
+		}
+		return this.first + index;
+	}
+}
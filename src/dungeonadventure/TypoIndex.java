@@ -0,0 +1,435 @@
+package dungeonadventure;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Words for correcting typos: finds the closest known word to a misspelled
+ * one. Two words within a few typos of each other become the same word
+ * once as many letters are deleted from both, so every word is indexed
+ * under the hashes of its deletion neighbourhood: the word itself and
+ * every way of deleting as many letters as its length allows typos. A
+ * search hashes the misspelled word's own neighbourhood and compares only
+ * against the words found under those hashes, so its cost depends on the
+ * word's length and its close neighbours, not on the amount of words.
+ * Each word also has a precomputed signature of the letters in it: one
+ * typo changes at most two letters of the signature, so most neighbours
+ * are ruled out without comparing letters. Comparisons stop as soon as a
+ * word can't beat the best one found so far. Swapped letters ("tkae")
+ * count as one typo. An index never changes after it's built, so it can be
+ * shared between threads; the caller gives each search its own scratch space.
+ * @author Mikko Piuhola
+ * @param <T> Type of the values of the words
+ */
+public final class TypoIndex<T> {
+	
+	private final String[] words;
+	private final Object[] values;
+	private final long[] signatures;
+	
+	// Neighbourhood hashes grouped into buckets by their top bits. An entry keeps the low bits of
+	//  its hash, and its word shifted by two with the amount of letters deleted from the word.
+	private final int bucketShift;
+	private final int[] bucketStarts;
+	private final short[] entryHashes;
+	private final int[] entries;
+	
+	/**
+	 * Build an index
+	 * @param words Lower case words
+	 * @param values Value of each word, the first one counts for repeated words
+	 */
+	public TypoIndex(String[] words, T[] values) {
+		HashSet<String> seen = new HashSet<String>(words.length * 2);
+		ArrayList<String> uniqueWords = new ArrayList<String>(words.length);
+		ArrayList<Object> uniqueValues = new ArrayList<Object>(words.length);
+		int maxLength = 0;
+		long maxEntries = 0;
+		for (int i = 0; i < words.length; i++) {
+			if (seen.add(words[i])) {
+				uniqueWords.add(words[i]);
+				uniqueValues.add(values[i]);
+				maxLength = Math.max(maxLength, words[i].length());
+				maxEntries += neighbourhoodSize(words[i].length(), allowedDistance(words[i].length()));
+			}
+		}
+		this.words = uniqueWords.toArray(new String[uniqueWords.size()]);
+		this.values = uniqueValues.toArray();
+		this.signatures = new long[this.words.length];
+		
+		// Two to four entries for every bucket
+		int bits = 1;
+		while (bits < 30 && (1L << bits) < maxEntries / 4) {
+			bits++;
+		}
+		this.bucketShift = 32 - bits;
+		this.bucketStarts = new int[(1 << bits) + 1];
+		
+		// Count the entries of every bucket, then fill them in: the words themselves first,
+		//  so that a search finds a word that's spelled right before its neighbours
+		Scratch scratch = new Scratch();
+		scratch.ensure(maxLength);
+		char[] chars = new char[maxLength];
+		int[] wordHashes = new int[this.words.length];
+		int total = 0;
+		for (int w = 0; w < this.words.length; w++) {
+			int count = this.neighbourhood(w, chars, scratch);
+			this.signatures[w] = signature(chars, 0, this.words[w].length());
+			wordHashes[w] = scratch.hashes[0];
+			for (int h = 0; h < count; h++) {
+				this.bucketStarts[this.bucket(scratch.hashes[h]) + 1]++;
+			}
+			total += count;
+		}
+		for (int b = 1; b < this.bucketStarts.length; b++) {
+			this.bucketStarts[b] += this.bucketStarts[b - 1];
+		}
+		this.entryHashes = new short[total];
+		this.entries = new int[total];
+		int[] next = new int[this.bucketStarts.length - 1];
+		System.arraycopy(this.bucketStarts, 0, next, 0, next.length);
+		for (int w = 0; w < this.words.length; w++) {
+			this.addEntry(wordHashes[w], w, 0, next);
+		}
+		for (int w = 0; w < this.words.length; w++) {
+			int length = this.words[w].length();
+			int count = this.neighbourhood(w, chars, scratch);
+			int single = neighbourhoodSize(length, Math.min(1, allowedDistance(length)));
+			for (int h = 1; h < count; h++) {
+				this.addEntry(scratch.hashes[h], w, h < single ? 1 : 2, next);
+			}
+		}
+	}
+	
+	/**
+	 * Hash a word's whole deletion neighbourhood
+	 * @param word Index of the word
+	 * @param chars Array fitting the word's chars
+	 * @param scratch Scratch space fitting the word
+	 * @return Amount of hashes
+	 */
+	private int neighbourhood(int word, char[] chars, Scratch scratch) {
+		int length = this.words[word].length();
+		int deletions = allowedDistance(length);
+		this.words[word].getChars(0, length, chars, 0);
+		int count = neighbourhood(chars, 0, length, Math.min(1, deletions), scratch);
+		return deletions >= 2 ? pairsDeleted(chars, 0, length, scratch, count) : count;
+	}
+	
+	/**
+	 * Add an entry to its bucket
+	 * @param hash Neighbourhood hash
+	 * @param word Index of the word
+	 * @param deleted Amount of letters deleted from the word
+	 * @param next Next free entry of every bucket
+	 */
+	private void addEntry(int hash, int word, int deleted, int[] next) {
+		int entry = next[this.bucket(hash)]++;
+		this.entryHashes[entry] = (short) hash;
+		this.entries[entry] = word << 2 | deleted;
+	}
+	
+	/**
+	 * Scratch space for searches, one for each thread searching
+	 */
+	public static final class Scratch {
+		
+		private int[] before;
+		private int[] previous;
+		private int[] current;
+		private int[] hashes;
+		private int[] prefixHashes;
+		private int[] suffixHashes;
+		private int[] powers;
+		
+		// The search in progress
+		private long signature;
+		private int best;
+		private int bestDistance;
+		private boolean ambiguous;
+		
+		/**
+		 * Create scratch space
+		 */
+		public Scratch() {
+			this.ensure(32);
+		}
+		
+		/**
+		 * Make sure words of the given length fit
+		 * @param length Word's length
+		 */
+		private void ensure(int length) {
+			if (this.current == null || this.current.length <= length) {
+				this.before = new int[length + 1];
+				this.previous = new int[length + 1];
+				this.current = new int[length + 1];
+				this.hashes = new int[neighbourhoodSize(length, allowedDistance(length))];
+				this.prefixHashes = new int[length + 1];
+				this.suffixHashes = new int[length + 1];
+				this.powers = new int[length + 1];
+				this.powers[0] = 1;
+				for (int i = 1; i <= length; i++) {
+					this.powers[i] = 31 * this.powers[i - 1];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Find the word itself or the closest word. Words of four or five
+	 * letters may have one typo and longer words two; shorter words are too
+	 * easy to mistake for other words ("n" and "e") and aren't corrected.
+	 * @param buffer Chars of the misspelled word
+	 * @param offset Start of the word
+	 * @param length Length of the word
+	 * @param scratch Caller's scratch space
+	 * @return Value of the word if it's in the index, else of the only closest word, or null if there's none or several equally close ones
+	 */
+	public T closest(char[] buffer, int offset, int length, Scratch scratch) {
+		int maxDistance = allowedDistance(length);
+		scratch.ensure(length);
+		scratch.signature = signature(buffer, offset, length);
+		scratch.best = -1;
+		scratch.bestDistance = maxDistance;
+		scratch.ambiguous = false;
+		
+		// A word a typo away is the same word once a letter at most is deleted from both,
+		//  so words further away are only looked for if there's no closer one
+		int single = neighbourhood(buffer, offset, length, Math.min(1, maxDistance), scratch);
+		this.search(0, single, 0, 1, buffer, offset, length, scratch);
+		if (maxDistance >= 2 && scratch.bestDistance > 1) {
+			this.search(0, single, 2, 2, buffer, offset, length, scratch);
+			int all = pairsDeleted(buffer, offset, length, scratch, single);
+			this.search(single, all, 0, 2, buffer, offset, length, scratch);
+		}
+		
+		if (scratch.best < 0 || scratch.ambiguous) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		T value = (T) this.values[scratch.best];
+		return value;
+	}
+	
+	/**
+	 * Compare the words under some of the misspelled word's neighbourhood
+	 * hashes, keeping the best one in the scratch space
+	 * @param from First hash
+	 * @param to End of the hashes, exclusive
+	 * @param minDeleted Fewest letters deleted from the words compared
+	 * @param maxDeleted Most letters deleted from the words compared
+	 * @param buffer Chars of the misspelled word
+	 * @param offset Start of the word
+	 * @param length Length of the word
+	 * @param scratch Scratch space with the hashes and the search in progress
+	 */
+	private void search(int from, int to, int minDeleted, int maxDeleted, char[] buffer, int offset, int length,
+			Scratch scratch) {
+		for (int n = from; n < to; n++) {
+			int hash = scratch.hashes[n];
+			int bucket = this.bucket(hash);
+			int end = this.bucketStarts[bucket + 1];
+			for (int e = this.bucketStarts[bucket]; e < end; e++) {
+				int deleted = this.entries[e] & 3;
+				int w = this.entries[e] >>> 2;
+				if (this.entryHashes[e] != (short) hash || deleted < minDeleted || deleted > maxDeleted || w == scratch.best) {
+					continue;
+				}
+				if (n == 0 && deleted == 0 && WordTable.matches(this.words[w], buffer, offset, length)) {
+					scratch.best = w; // Words are unique, so the word itself always wins
+					scratch.bestDistance = 0;
+					scratch.ambiguous = false;
+					return;
+				}
+				if (Long.bitCount(this.signatures[w] ^ scratch.signature) > 2 * scratch.bestDistance) {
+					continue;
+				}
+				
+				// Only words at most as far as the best so far are of interest, ties make the result ambiguous
+				int d = distance(this.words[w], buffer, offset, length, scratch.bestDistance, scratch);
+				if (d < scratch.bestDistance || (d == scratch.bestDistance && scratch.best < 0)) {
+					scratch.best = w;
+					scratch.bestDistance = d;
+					scratch.ambiguous = false;
+				} else if (d == scratch.bestDistance && this.values[scratch.best] != this.values[w]) {
+					scratch.ambiguous = true;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Get the bucket of a neighbourhood hash
+	 * @param hash Neighbourhood hash
+	 * @return Index of the bucket
+	 */
+	private int bucket(int hash) {
+		return hash >>> this.bucketShift;
+	}
+	
+	/**
+	 * Get the typos allowed for a word
+	 * @param length Length of the word
+	 * @return Allowed edit distance
+	 */
+	static int allowedDistance(int length) {
+		if (length <= 3) {
+			return 0;
+		}
+		return length <= 5 ? 1 : 2;
+	}
+	
+	/**
+	 * Get the amount of hashes in a word's deletion neighbourhood
+	 * @param length Length of the word
+	 * @param deletions Most letters deleted at a time, at most two
+	 * @return Most hashes there can be
+	 */
+	static int neighbourhoodSize(int length, int deletions) {
+		int size = 1;
+		if (deletions >= 1) {
+			size += length;
+		}
+		if (deletions >= 2) {
+			size += length * (length - 1) / 2;
+		}
+		return size;
+	}
+	
+	/**
+	 * Hash a word's deletion neighbourhood: the word itself, then the word
+	 * without each letter. The hashes are polynomial, so each one is put
+	 * together from hashes of the word's prefixes and suffixes. Deleting any letter of a
+	 * run of the same letter gives the same word, so only the run's first
+	 * letter is deleted.
+	 * @param buffer Chars of the word
+	 * @param offset Start of the word
+	 * @param length Length of the word
+	 * @param deletions Letters deleted at a time, zero or one
+	 * @param scratch Scratch space fitting the word, the hashes are left in it
+	 * @return Amount of hashes
+	 */
+	private static int neighbourhood(char[] buffer, int offset, int length, int deletions, Scratch scratch) {
+		int[] hashes = scratch.hashes;
+		int[] prefix = scratch.prefixHashes;
+		int[] suffix = scratch.suffixHashes;
+		int[] powers = scratch.powers;
+		for (int i = 0; i < length; i++) {
+			prefix[i + 1] = 31 * prefix[i] + buffer[offset + i];
+		}
+		suffix[length] = 0;
+		for (int i = length - 1; i >= 0; i--) {
+			suffix[i] = buffer[offset + i] * powers[length - i - 1] + suffix[i + 1];
+		}
+		
+		int count = 0;
+		hashes[count++] = spread(prefix[length]);
+		if (deletions >= 1) {
+			for (int i = 0; i < length; i++) {
+				if (i == 0 || buffer[offset + i] != buffer[offset + i - 1]) {
+					hashes[count++] = spread(prefix[i] * powers[length - i - 1] + suffix[i + 1]);
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Add the hashes of a word without each pair of letters to its
+	 * neighbourhood, a pair deleting the first letters of a run
+	 * @param buffer Chars of the word
+	 * @param offset Start of the word
+	 * @param length Length of the word
+	 * @param scratch Scratch space with the word's neighbourhood
+	 * @param count Amount of hashes so far
+	 * @return Amount of hashes
+	 */
+	private static int pairsDeleted(char[] buffer, int offset, int length, Scratch scratch, int count) {
+		int[] hashes = scratch.hashes;
+		int[] prefix = scratch.prefixHashes;
+		int[] suffix = scratch.suffixHashes;
+		int[] powers = scratch.powers;
+		for (int i = 0; i < length; i++) {
+			if (i > 0 && buffer[offset + i] == buffer[offset + i - 1]) {
+				continue;
+			}
+			
+			// Hash of the letters before the second deleted one, without the first one
+			int before = prefix[i];
+			for (int j = i + 1; j < length; j++) {
+				if (j == i + 1 || buffer[offset + j] != buffer[offset + j - 1]) {
+					hashes[count++] = spread(before * powers[length - j - 1] + suffix[j + 1]);
+				}
+				before = 31 * before + buffer[offset + j];
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Spread a polynomial hash, so that its top bits can pick the bucket
+	 * @param hash Polynomial hash
+	 * @return Spread hash
+	 */
+	private static int spread(int hash) {
+		return hash * 0x9E3779B9;
+	}
+	
+	/**
+	 * Get the set of letters in chars as bits
+	 * @param buffer Chars
+	 * @param offset Start of the chars
+	 * @param length Amount of chars
+	 * @return Signature
+	 */
+	private static long signature(char[] buffer, int offset, int length) {
+		long signature = 0;
+		for (int i = 0; i < length; i++) {
+			signature |= 1L << (buffer[offset + i] & 63);
+		}
+		return signature;
+	}
+	
+	/**
+	 * Edit distance between a word and chars, counting insertions, deletions,
+	 * substitutions and swaps of adjacent letters. Uses three rows of the
+	 * scratch space and stops once the distance is known to be over the cutoff.
+	 * @param word Word
+	 * @param buffer Chars
+	 * @param offset Start of the chars
+	 * @param length Amount of chars
+	 * @param cutoff Largest distance of interest
+	 * @param scratch Scratch space
+	 * @return Edit distance, or more than the cutoff if it's over the cutoff
+	 */
+	private static int distance(String word, char[] buffer, int offset, int length, int cutoff, Scratch scratch) {
+		int[] before = scratch.before;
+		int[] previous = scratch.previous;
+		int[] current = scratch.current;
+		for (int j = 0; j <= length; j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= word.length(); i++) {
+			current[0] = i;
+			int rowMin = i;
+			char c = word.charAt(i - 1);
+			for (int j = 1; j <= length; j++) {
+				char b = buffer[offset + j - 1];
+				int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + (c == b ? 0 : 1));
+				if (i > 1 && j > 1 && c == buffer[offset + j - 2] && word.charAt(i - 2) == b) {
+					value = Math.min(value, before[j - 2] + 1);
+				}
+				current[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+			if (rowMin > cutoff) {
+				return cutoff + 1;
+			}
+			int[] swap = before;
+			before = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[length];
+	}
+}
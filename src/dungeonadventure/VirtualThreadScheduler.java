@@ -0,0 +1,174 @@
+package dungeonadventure;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler that runs every task on a virtual thread of its own, which sleeps
+ * until the task's deadline. Only available on JVMs with virtual threads;
+ * there's no fallback to platform threads, one OS thread per timer doesn't scale.
+ * @author Mikko Piuhola
+ */
+public final class VirtualThreadScheduler implements Scheduler {
+
+	// Looked up reflectively, so the game still compiles and runs on JVMs without virtual threads
+	private final static Method START_VIRTUAL_THREAD = findStartVirtualThread();
+
+	private final TickStats stats;
+
+	/**
+	 * Create a new scheduler
+	 * @throws UnsupportedOperationException If the running JVM has no virtual threads
+	 */
+	public VirtualThreadScheduler() {
+		if (!isVirtualThreadsAvailable()) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or newer, running on Java "
+					+ System.getProperty("java.specification.version"));
+		}
+		this.stats = new TickStats();
+	}
+
+	/**
+	 * Check if the running JVM supports virtual threads
+	 * @return Are virtual threads available
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		return START_VIRTUAL_THREAD != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Timeout schedule(Runnable task, long delayMs) {
+		ThreadTimeout timeout = new ThreadTimeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)));
+		timeout.thread = this.startThread(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Nothing to stop, every thread ends with its task
+	 */
+	@Override
+	public void shutdown() {
+		// Do nothing
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return "virtual-threads";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TickStats getStats() {
+		return this.stats;
+	}
+
+	/**
+	 * Start a virtual thread for the task
+	 * @param task Task to run
+	 * @return Started thread
+	 * @throws IllegalStateException If the thread couldn't be started
+	 */
+	private Thread startThread(Runnable task) {
+		try {
+			return (Thread) START_VIRTUAL_THREAD.invoke(null, task);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Could not start a virtual thread", e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not start a virtual thread", e);
+		}
+	}
+
+	/**
+	 * Find Thread.startVirtualThread(Runnable)
+	 * @return The method or null if not available
+	 */
+	private static Method findStartVirtualThread() {
+		try {
+			return Thread.class.getMethod("startVirtualThread", Runnable.class);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A task and the thread sleeping until its deadline
+	 */
+	private final class ThreadTimeout implements Timeout, Runnable {
+
+		private final static int PENDING = 0;
+		private final static int CANCELLED = 1;
+		private final static int EXPIRED = 2;
+
+		private final Runnable task;
+		private final long deadlineNanos;
+		private final AtomicInteger state;
+		private volatile Thread thread;
+
+		ThreadTimeout(Runnable task, long deadlineNanos) {
+			this.task = task;
+			this.deadlineNanos = deadlineNanos;
+			this.state = new AtomicInteger(PENDING);
+		}
+
+		/**
+		 * Sleep until the deadline and run the task, unless cancelled
+		 */
+		@Override
+		public void run() {
+			long remaining;
+			while ((remaining = this.deadlineNanos - System.nanoTime()) > 0) {
+				if (this.isCancelled()) {
+					return;
+				}
+				try {
+					TimeUnit.NANOSECONDS.sleep(remaining);
+				} catch (InterruptedException e) {
+					// Cancelled or spurious, re-check
+				}
+			}
+
+			if (this.state.compareAndSet(PENDING, EXPIRED)) {
+				VirtualThreadScheduler.this.stats.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.deadlineNanos));
+				this.task.run();
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean cancel() {
+			boolean cancelled = this.state.compareAndSet(PENDING, CANCELLED);
+			Thread t = this.thread;
+			if (cancelled && t != null) {
+				t.interrupt();
+			}
+			return cancelled;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isCancelled() {
+			return this.state.get() == CANCELLED;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isExpired() {
+			return this.state.get() == EXPIRED;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package dungeonadventure;
+
+/**
+ * The next Spaces the Player sees from a Space. What's seen depends on the
+ * direction the Player faces and the range of their light, in buckets:
+ * under 90 degrees nothing, under 180 straight ahead, under 360 ahead and
+ * to the sides, otherwise every direction. The directions of every facing
+ * and bucket are a constant table of bitmasks, which is masked with the
+ * Space's exits from the WorldTemplate, so updating the view allocates
+ * nothing. The Player reuses one view, it changes on the next update.
+ * @author Mikko Piuhola
+ */
+public final class VisibleSpaces {
+	
+	private static final Direction[] DIRECTIONS = Direction.values();
+	
+	// Seen directions as bitmasks of ordinals, by facing and range bucket
+	private static final int[][] CONES = new int[Direction.COUNT][];
+	
+	static {
+		for (Direction facing : DIRECTIONS) {
+			int ahead = 1 << facing.ordinal();
+			int sides = ahead | 1 << facing.left().ordinal() | 1 << facing.right().ordinal();
+			CONES[facing.ordinal()] = new int[]{ahead, sides, (1 << Direction.COUNT) - 1};
+		}
+	}
+	
+	private Space space;
+	private int visible;
+	
+	/**
+	 * Create an empty view
+	 */
+	public VisibleSpaces() {
+		this.space = null;
+		this.visible = 0;
+	}
+	
+	/**
+	 * See from a Space
+	 * @param space Space the Player is in
+	 * @param facing Direction the Player faces
+	 * @param range Visibility range of the Player's light in degrees, 0 without light
+	 */
+	void update(Space space, Direction facing, int range) {
+		this.space = space;
+		if (range < 90) {
+			this.visible = 0;
+		} else {
+			int bucket = range < 180 ? 0 : range < 360 ? 1 : 2;
+			this.visible = space.getExitMask() & CONES[facing.ordinal()][bucket];
+		}
+	}
+	
+	/**
+	 * Get the amount of visible Spaces
+	 * @return Visible Space count
+	 */
+	public int size() {
+		return Integer.bitCount(this.visible);
+	}
+	
+	/**
+	 * Is there a visible Space in a direction
+	 * @param direction Direction from the Player's Space
+	 * @return Is a Space visible
+	 */
+	public boolean contains(Direction direction) {
+		return (this.visible & 1 << direction.ordinal()) != 0;
+	}
+	
+	/**
+	 * Get a visible direction, clockwise from north
+	 * @param n Index of the visible direction, below size()
+	 * @return n:th visible direction
+	 */
+	public Direction getDirection(int n) {
+		int rest = this.visible;
+		for (int i = 0; i < n; i++) {
+			rest &= rest - 1;
+		}
+		return DIRECTIONS[Integer.numberOfTrailingZeros(rest)];
+	}
+	
+	/**
+	 * Get the visible Space in a direction
+	 * @param direction Direction from the Player's Space
+	 * @return Visible Space or null if none is visible in the direction
+	 */
+	public Space get(Direction direction) {
+		return this.contains(direction) ? this.space.getNextSpace(direction) : null;
+	}
+}
@@ -0,0 +1,168 @@
+package dungeonadventure;
+
+/**
+ * A table of words that can be looked up by a slice of a char buffer as well as
+ * by a String, so parsing input doesn't need to create Strings for the words.
+ * Slices hash the same way as Strings, lookups only compare chars.
+ * Words are added while building the table, it isn't safe for concurrent
+ * modification, but a table that isn't modified anymore can be shared.
+ * @author Mikko Piuhola
+ * @param <T> Type of the values
+ */
+public final class WordTable<T> {
+	
+	private String[] keys;
+	private Object[] values;
+	private int size;
+	
+	/**
+	 * Create an empty table
+	 */
+	public WordTable() {
+		this.keys = new String[16];
+		this.values = new Object[16];
+		this.size = 0;
+	}
+	
+	/**
+	 * Add a word, unless the table already has it
+	 * @param word Word
+	 * @param value Value for the word
+	 * @return Was the word added
+	 */
+	public boolean add(String word, T value) {
+		if (this.get(word) != null) {
+			return false;
+		}
+		if ((this.size + 1) * 2 > this.keys.length) {
+			this.grow();
+		}
+		this.insert(word, value);
+		this.size++;
+		return true;
+	}
+	
+	/**
+	 * Get the value of a word
+	 * @param word Word
+	 * @return Value or null if the table doesn't have the word
+	 */
+	public T get(String word) {
+		int mask = this.keys.length - 1;
+		for (int i = spread(word.hashCode()) & mask; this.keys[i] != null; i = (i + 1) & mask) {
+			if (this.keys[i].equals(word)) {
+				return this.value(i);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the value of a word in a char buffer
+	 * @param buffer Chars
+	 * @param offset Start of the word
+	 * @param length Length of the word
+	 * @return Value or null if the table doesn't have the word
+	 */
+	public T get(char[] buffer, int offset, int length) {
+		int mask = this.keys.length - 1;
+		for (int i = spread(hash(buffer, offset, length)) & mask; this.keys[i] != null; i = (i + 1) & mask) {
+			if (matches(this.keys[i], buffer, offset, length)) {
+				return this.value(i);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the amount of words
+	 * @return Word count
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Does a word equal chars in a buffer
+	 * @param word Word
+	 * @param buffer Chars
+	 * @param offset Start of the chars
+	 * @param length Amount of chars
+	 * @return Are the chars the word
+	 */
+	static boolean matches(String word, char[] buffer, int offset, int length) {
+		if (word.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (word.charAt(i) != buffer[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Hash chars the same way as String.hashCode()
+	 * @param buffer Chars
+	 * @param offset Start of the chars
+	 * @param length Amount of chars
+	 * @return Hash code
+	 */
+	private static int hash(char[] buffer, int offset, int length) {
+		int h = 0;
+		for (int i = 0; i < length; i++) {
+			h = 31 * h + buffer[offset + i];
+		}
+		return h;
+	}
+	
+	/**
+	 * Mix the high bits of a hash into the low bits used for the slot
+	 * @param h Hash code
+	 * @return Spread hash code
+	 */
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Get a value by slot
+	 * @param slot Slot
+	 * @return Value
+	 */
+	@SuppressWarnings("unchecked")
+	private T value(int slot) {
+		return (T) this.values[slot];
+	}
+	
+	/**
+	 * Put a word into its first free slot
+	 * @param word Word
+	 * @param value Value
+	 */
+	private void insert(String word, Object value) {
+		int mask = this.keys.length - 1;
+		int i = spread(word.hashCode()) & mask;
+		while (this.keys[i] != null) {
+			i = (i + 1) & mask;
+		}
+		this.keys[i] = word;
+		this.values[i] = value;
+	}
+	
+	/**
+	 * Double the amount of slots
+	 */
+	private void grow() {
+		String[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+		this.keys = new String[oldKeys.length * 2];
+		this.values = new Object[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				this.insert(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,419 @@
+package dungeonadventure;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+
+import dungeonadventure.items.resources.Track;
+
+/**
+ * Reads a world file into a WorldTemplate. A world file is a list of
+ * statements, one per line; blank lines and lines starting with # are skipped:
+ * <pre>
+ * world mine                          identifier of the world, stored in saves
+ * cd St. Anger | Metallica            album and artist of the world's CD
+ * track Metallica | Frantic | 5:50    a track of the CD
+ * space Mineshaft                     the following statements are about this Space
+ * description It's the mineshaft...   a line of the Space's description
+ * charging                            the Space has a charging station
+ * start                               the Player starts in the Space
+ * exit east Dining-area               next Space in a direction
+ * item flashlight                     an Item in the Space, by its kind
+ * item food Pizza | A pizza           an Item with its own name and description
+ * item door Hatch | A hatch | win     a door that wins the game when opened
+ * </pre>
+ * The file is read in one pass, line by line. Spaces are numbered in the
+ * order they're declared, so a world written by WorldTemplate.write loads
+ * back with the same numbers its saves refer to. Exits may name Spaces
+ * that are declared later: such an exit is marked pending and patched
+ * at the end, when every named Space must have been declared. Only
+ * the tables of the world being built are kept, never the file's lines,
+ * so even worlds with tens of thousands of Spaces load in memory
+ * proportional to the world itself. Errors name the file and the line.
+ * @author Mikko Piuhola
+ */
+final class WorldLoader {
+	
+	private final String source;
+	private int lineNumber;
+	
+	private String id;
+	private String albumName;
+	private String artistName;
+	private final ArrayList<Track> tracks;
+	
+	private final HashMap<String, Integer> spacesByName;
+	private final ArrayList<String> names;
+	private final ArrayList<String> descriptions;
+	private int[] declaredOn;
+	private int[] neighbours;
+	
+	// Spaces named by exits before they're declared: name to pending number, their names, first lines naming them and indexes
+	private final HashMap<String, Integer> pendingByName;
+	private final ArrayList<String> pendingNames;
+	private int[] pendingNamedOn;
+	private int[] pendingIndexes;
+	private int pendingCount;
+	private final BitSet charging;
+	private int start;
+	private int current;
+	
+	private final ArrayList<ItemPlacement> placements;
+	private final HashMap<String, Integer> itemsByName;
+	private int firstCdOn;
+	
+	/**
+	 * Create a loader for one file
+	 * @param source Name of the file for error messages
+	 */
+	private WorldLoader(String source) {
+		this.source = source;
+		this.lineNumber = 0;
+		this.tracks = new ArrayList<Track>();
+		this.spacesByName = new HashMap<String, Integer>();
+		this.names = new ArrayList<String>();
+		this.descriptions = new ArrayList<String>();
+		this.declaredOn = new int[16];
+		this.neighbours = new int[16 * Direction.COUNT];
+		Arrays.fill(this.neighbours, -1);
+		this.pendingByName = new HashMap<String, Integer>();
+		this.pendingNames = new ArrayList<String>();
+		this.pendingNamedOn = new int[16];
+		this.pendingIndexes = new int[16];
+		this.pendingCount = 0;
+		this.charging = new BitSet();
+		this.start = -1;
+		this.current = -1;
+		this.placements = new ArrayList<ItemPlacement>();
+		this.itemsByName = new HashMap<String, Integer>();
+		this.firstCdOn = 0;
+	}
+	
+	/**
+	 * Read a world
+	 * @param reader World file's contents
+	 * @param source Name of the file for error messages
+	 * @return World read from the file
+	 * @throws IOException If the file can't be read or isn't a valid world
+	 */
+	static WorldTemplate load(Reader reader, String source) throws IOException {
+		WorldLoader loader = new WorldLoader(source);
+		BufferedReader in = new BufferedReader(reader);
+		String line;
+		while ((line = in.readLine()) != null) {
+			loader.lineNumber++;
+			loader.parse(line.trim());
+		}
+		return loader.finish();
+	}
+	
+	/**
+	 * Parse one statement
+	 * @param line Trimmed line
+	 * @throws IOException If the statement isn't valid
+	 */
+	private void parse(String line) throws IOException {
+		if (line.isEmpty() || line.startsWith("#")) {
+			return;
+		}
+		int space = line.indexOf(' ');
+		String keyword = space < 0 ? line : line.substring(0, space);
+		String rest = space < 0 ? "" : line.substring(space + 1).trim();
+		
+		switch (keyword) {
+			case "world":
+				this.id = this.required(rest, "an identifier");
+				break;
+			case "cd": {
+				String[] fields = this.fields(rest, 2, 2, "album | artist");
+				this.albumName = fields[0];
+				this.artistName = fields[1];
+				break;
+			}
+			case "track":
+				this.track(rest);
+				break;
+			case "space":
+				this.declareSpace(this.required(rest, "a name"));
+				break;
+			case "description": {
+				int index = this.currentSpace(keyword);
+				String previous = this.descriptions.get(index);
+				this.descriptions.set(index, previous == null ? rest : previous + "\n" + rest);
+				break;
+			}
+			case "charging":
+				this.charging.set(this.currentSpace(keyword));
+				break;
+			case "start":
+				if (this.start >= 0) {
+					throw this.error("The start is already " + this.names.get(this.start));
+				}
+				this.start = this.currentSpace(keyword);
+				break;
+			case "exit":
+				this.exit(rest);
+				break;
+			case "item":
+				this.item(rest);
+				break;
+			default:
+				throw this.error("Unknown statement \"" + keyword + "\"");
+		}
+	}
+	
+	/**
+	 * Parse a track: artist | title | minutes:seconds
+	 * @param rest Statement after the keyword
+	 * @throws IOException If the track isn't valid
+	 */
+	private void track(String rest) throws IOException {
+		String[] fields = this.fields(rest, 3, 3, "artist | title | minutes:seconds");
+		String invalid = "Invalid duration \"" + fields[2] + "\", expected minutes:seconds";
+		int colon = fields[2].indexOf(':');
+		if (colon < 0) {
+			throw this.error(invalid);
+		}
+		try {
+			int minutes = Integer.parseInt(fields[2].substring(0, colon));
+			int seconds = Integer.parseInt(fields[2].substring(colon + 1));
+			this.tracks.add(new Track(fields[0], fields[1], minutes, seconds));
+		} catch (NumberFormatException e) {
+			throw this.error(invalid);
+		}
+	}
+	
+	/**
+	 * Start a Space's statements
+	 * @param name Space's name
+	 * @throws IOException If the Space is already declared
+	 */
+	private void declareSpace(String name) throws IOException {
+		String key = name.toLowerCase();
+		Integer declared = this.spacesByName.get(key);
+		if (declared != null) {
+			throw this.error("Space " + name + " is already declared on line " + this.declaredOn[declared]);
+		}
+		
+		int index = this.names.size();
+		if (index == this.declaredOn.length) {
+			this.declaredOn = Arrays.copyOf(this.declaredOn, index * 2);
+			int slots = this.neighbours.length;
+			this.neighbours = Arrays.copyOf(this.neighbours, slots * 2);
+			Arrays.fill(this.neighbours, slots, slots * 2, -1);
+		}
+		this.spacesByName.put(key, index);
+		this.names.add(name);
+		this.descriptions.add(null);
+		this.declaredOn[index] = this.lineNumber;
+		this.current = index;
+		
+		Integer pending = this.pendingByName.remove(key);
+		if (pending != null) {
+			this.pendingIndexes[pending] = index;
+		}
+	}
+	
+	/**
+	 * Parse an exit: direction name-of-next-space
+	 * @param rest Statement after the keyword
+	 * @throws IOException If the exit isn't valid
+	 */
+	private void exit(String rest) throws IOException {
+		int from = this.currentSpace("exit");
+		int space = rest.indexOf(' ');
+		Direction direction = space < 0 ? null : Direction.forName(rest.substring(0, space));
+		if (direction == null) {
+			throw this.error("Expected a direction and a Space, e.g. \"exit north Tunnel\"");
+		}
+		String name = rest.substring(space + 1).trim();
+		
+		int slot = from * Direction.COUNT + direction.ordinal();
+		if (this.neighbours[slot] != -1) {
+			throw this.error(this.names.get(from) + " already has an exit to the " + direction.getName());
+		}
+		this.neighbours[slot] = this.reference(name);
+	}
+	
+	/**
+	 * Parse an item: kind [name | description [| win]]
+	 * @param rest Statement after the keyword
+	 * @throws IOException If the item isn't valid
+	 */
+	private void item(String rest) throws IOException {
+		int space = this.currentSpace("item");
+		int end = rest.indexOf(' ');
+		String word = this.required(end < 0 ? rest : rest.substring(0, end), "a kind");
+		ItemPlacement.Kind kind;
+		try {
+			kind = ItemPlacement.Kind.valueOf(word.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw this.error("Unknown item kind \"" + word + "\"");
+		}
+		
+		String name = null;
+		String description = null;
+		boolean winOnOpen = false;
+		if (end >= 0) {
+			if (!kind.isNameable()) {
+				throw this.error("A " + word + " can't be given a name");
+			}
+			String[] fields = this.fields(rest.substring(end + 1), 2, 3, "name | description");
+			name = fields[0];
+			description = fields[1];
+			if (fields.length == 3) {
+				if (kind != ItemPlacement.Kind.DOOR || !fields[2].equals("win")) {
+					throw this.error("Unknown item option \"" + fields[2] + "\"");
+				}
+				winOnOpen = true;
+			}
+		} else if (kind.getDefaultName() == null) {
+			throw this.error("A " + word + " needs a name and a description");
+		}
+		
+		String itemName = name != null ? name : kind.getDefaultName();
+		Integer placedOn = this.itemsByName.put(itemName.toLowerCase(), this.lineNumber);
+		if (placedOn != null) {
+			throw this.error("An item named " + itemName + " is already placed on line " + placedOn);
+		}
+		if (kind == ItemPlacement.Kind.CD && this.firstCdOn == 0) {
+			this.firstCdOn = this.lineNumber;
+		}
+		this.placements.add(new ItemPlacement(space, kind, name, description, winOnOpen));
+	}
+	
+	/**
+	 * Check the references and build the world
+	 * @return World
+	 * @throws IOException If the world isn't complete
+	 */
+	private WorldTemplate finish() throws IOException {
+		if (this.id == null) {
+			throw new IOException(this.source + ": No world identifier");
+		}
+		int count = this.names.size();
+		if (count == 0) {
+			throw new IOException(this.source + ": No spaces");
+		}
+		if (!this.pendingByName.isEmpty()) {
+			int first = -1;
+			for (int pending : this.pendingByName.values()) {
+				if (first < 0 || this.pendingNamedOn[pending] < this.pendingNamedOn[first]) {
+					first = pending;
+				}
+			}
+			this.lineNumber = this.pendingNamedOn[first];
+			throw this.error("Unknown space " + this.pendingNames.get(first));
+		}
+		for (int slot = 0; slot < count * Direction.COUNT; slot++) {
+			if (this.neighbours[slot] < -1) {
+				this.neighbours[slot] = this.pendingIndexes[-2 - this.neighbours[slot]];
+			}
+		}
+		if (this.start < 0) {
+			throw new IOException(this.source + ": No start space");
+		}
+		if (this.firstCdOn != 0 && this.albumName == null) {
+			this.lineNumber = this.firstCdOn;
+			throw this.error("A cd is placed but the world has no cd statement");
+		}
+		
+		String[] descriptionArray = new String[count];
+		boolean[] chargingArray = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			String description = this.descriptions.get(i);
+			descriptionArray[i] = description == null ? "" : description;
+			chargingArray[i] = this.charging.get(i);
+		}
+		return new WorldTemplate(this.id, this.names.toArray(new String[count]), descriptionArray, chargingArray,
+				Arrays.copyOf(this.neighbours, count * Direction.COUNT), this.spacesByName, this.start,
+				this.placements.toArray(new ItemPlacement[this.placements.size()]),
+				this.albumName, this.artistName, Collections.unmodifiableList(this.tracks));
+	}
+	
+	/**
+	 * Refer to a Space by its name
+	 * @param name Space's name
+	 * @return Space's index, or -2 minus its pending number if it isn't declared yet
+	 */
+	private int reference(String name) {
+		String key = name.toLowerCase();
+		Integer index = this.spacesByName.get(key);
+		if (index != null) {
+			return index;
+		}
+		
+		Integer pending = this.pendingByName.get(key);
+		if (pending == null) {
+			pending = this.pendingCount++;
+			if (pending == this.pendingNamedOn.length) {
+				this.pendingNamedOn = Arrays.copyOf(this.pendingNamedOn, pending * 2);
+				this.pendingIndexes = Arrays.copyOf(this.pendingIndexes, pending * 2);
+			}
+			this.pendingByName.put(key, pending);
+			this.pendingNames.add(name);
+			this.pendingNamedOn[pending] = this.lineNumber;
+		}
+		return -2 - pending;
+	}
+	
+	/**
+	 * Get the Space the statements are about
+	 * @param keyword Statement's keyword for the error message
+	 * @return Current Space's index
+	 * @throws IOException If no Space has been declared yet
+	 */
+	private int currentSpace(String keyword) throws IOException {
+		if (this.current < 0) {
+			throw this.error("\"" + keyword + "\" must follow a space");
+		}
+		return this.current;
+	}
+	
+	/**
+	 * Check that a statement has a value
+	 * @param value Value after the keyword
+	 * @param expected What was expected, for the error message
+	 * @return Value
+	 * @throws IOException If the value is empty
+	 */
+	private String required(String value, String expected) throws IOException {
+		if (value.isEmpty()) {
+			throw this.error("Expected " + expected);
+		}
+		return value;
+	}
+	
+	/**
+	 * Split a value into fields separated by |
+	 * @param value Value after the keyword
+	 * @param min Least amount of fields
+	 * @param max Most amount of fields
+	 * @param expected Expected fields, for the error message
+	 * @return Trimmed fields
+	 * @throws IOException If there are too few or too many fields, or empty ones
+	 */
+	private String[] fields(String value, int min, int max, String expected) throws IOException {
+		String[] fields = value.split("\\|", -1);
+		if (fields.length < min || fields.length > max) {
+			throw this.error("Expected " + expected);
+		}
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = this.required(fields[i].trim(), expected);
+		}
+		return fields;
+	}
+	
+	/**
+	 * Create an error about the current line
+	 * @param message What's wrong
+	 * @return Exception to throw
+	 */
+	private IOException error(String message) {
+		return new IOException(this.source + ":" + this.lineNumber + ": " + message);
+	}
+}
@@ -0,0 +1,345 @@
+package dungeonadventure;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dungeonadventure.items.Item;
+
+/**
+ * A game's own Spaces, kept on heap only around the Player. The Spaces are
+ * grouped into regions of REGION_SIZE consecutive indexes, and a region's
+ * Spaces are created when one of them is first needed: when the Player
+ * enters a Space, the regions of its next Spaces are loaded as well so
+ * moving on never waits for a load. At most a budget of Spaces is resident,
+ * the region used longest ago is evicted to make room, never the Player's.
+ * An evicted region only leaves behind a page of its Items and their Spaces;
+ * regions whose Items were added or taken are written back into their page
+ * first, the others still match theirs. Items themselves stay the same
+ * objects, so their timers and observers survive eviction.
+ * @author Mikko Piuhola
+ */
+public final class WorldStore implements Serializable {
+	
+	private static final long serialVersionUID = -4978135724603460180L;
+	
+	// Spaces in a region, a power of two so finding a Space's region is a shift
+	public static final int REGION_SIZE = 256;
+	private static final int REGION_SHIFT = 8;
+	
+	// Spaces resident by default, enough for the whole mine many times over
+	public static final int DEFAULT_BUDGET = 65536;
+	
+	private static volatile int budget = DEFAULT_BUDGET;
+	
+	private final WorldTemplate template;
+	private final int maxResident;
+	private final Space[][] regions;
+	private final Page[] pages;
+	private final boolean[] dirty;
+	private final long[] lastUsed;
+	private int resident;
+	private int current;
+	private long clock;
+	
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong prefetches;
+	private final AtomicLong evictions;
+	private final AtomicLong writeBacks;
+	
+	/**
+	 * Create a store with the default budget, without any resident regions
+	 * @param template World the Spaces are created from
+	 */
+	public WorldStore(WorldTemplate template) {
+		this(template, budget);
+	}
+	
+	/**
+	 * Create a store without any resident regions
+	 * @param template World the Spaces are created from
+	 * @param budgetSpaces Spaces kept resident at most, rounded up to whole regions
+	 */
+	public WorldStore(WorldTemplate template, int budgetSpaces) {
+		int regionCount = (template.getSpaceCount() + REGION_SIZE - 1) >> REGION_SHIFT;
+		this.template = template;
+		
+		// The Player's region and the regions of its next Spaces always fit
+		int budgetRegions = (int) Math.min(Integer.MAX_VALUE, ((long) budgetSpaces + REGION_SIZE - 1) >> REGION_SHIFT);
+		this.maxResident = Math.min(regionCount, Math.max(1 + Direction.COUNT, budgetRegions));
+		this.regions = new Space[regionCount][];
+		this.pages = new Page[regionCount];
+		this.dirty = new boolean[regionCount];
+		this.lastUsed = new long[regionCount];
+		this.resident = 0;
+		this.current = -1;
+		this.clock = 0;
+		
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.prefetches = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.writeBacks = new AtomicLong();
+	}
+	
+	/**
+	 * Set the amount of Spaces new games keep resident
+	 * @param spaces Budget in Spaces
+	 */
+	public static void setBudget(int spaces) {
+		if (spaces <= 0) {
+			throw new IllegalArgumentException("Budget must be positive: " + spaces);
+		}
+		budget = spaces;
+	}
+	
+	/**
+	 * Get the amount of Spaces new games keep resident
+	 * @return Budget in Spaces
+	 */
+	public static int getBudget() {
+		return budget;
+	}
+	
+	/**
+	 * Get the world the Spaces are created from
+	 * @return World's template
+	 */
+	public WorldTemplate getTemplate() {
+		return this.template;
+	}
+	
+	/**
+	 * Get a Space, loading its region if it isn't resident
+	 * @param index Space's index
+	 * @return Space
+	 */
+	public Space getSpace(int index) {
+		int region = index >> REGION_SHIFT;
+		Space[] spaces = this.regions[region];
+		if (spaces == null) {
+			this.misses.incrementAndGet();
+			spaces = this.load(region);
+		} else {
+			this.hits.incrementAndGet();
+		}
+		this.lastUsed[region] = ++this.clock;
+		return spaces[index & (REGION_SIZE - 1)];
+	}
+	
+	/**
+	 * The Player entered a Space: its region isn't evicted while the Player
+	 * is there, and the regions of its next Spaces are loaded ahead
+	 * @param index Index of the entered Space
+	 */
+	void enter(int index) {
+		this.current = index >> REGION_SHIFT;
+		this.lastUsed[this.current] = ++this.clock;
+		for (Direction direction : Direction.values()) {
+			int next = this.template.getExit(index, direction);
+			if (next >= 0) {
+				int region = next >> REGION_SHIFT;
+				if (this.regions[region] == null) {
+					this.prefetches.incrementAndGet();
+					this.load(region);
+				}
+				this.lastUsed[region] = ++this.clock;
+			}
+		}
+	}
+	
+	/**
+	 * Put an Item into a Space when the world is created, see WorldTemplate.placeItems().
+	 * Items of regions that aren't resident go straight into the region's page.
+	 * @param index Space's index
+	 * @param item Item
+	 */
+	void place(int index, Item item) {
+		int region = index >> REGION_SHIFT;
+		Space[] spaces = this.regions[region];
+		if (spaces != null) {
+			spaces[index & (REGION_SIZE - 1)].addItem(item.getName(), item);
+			return;
+		}
+		if (this.pages[region] == null) {
+			this.pages[region] = new Page();
+		}
+		this.pages[region].add(index, item);
+	}
+	
+	/**
+	 * Items were added into or taken from a Space, its region must be written back when evicted
+	 * @param index Space's index
+	 */
+	void markDirty(int index) {
+		this.dirty[index >> REGION_SHIFT] = true;
+	}
+	
+	/**
+	 * Create a region's Spaces with their Items, evicting a region if the budget is full
+	 * @param region Region's index
+	 * @return Region's Spaces
+	 */
+	private Space[] load(int region) {
+		if (this.resident >= this.maxResident) {
+			this.evict();
+		}
+		int first = region << REGION_SHIFT;
+		Space[] spaces = new Space[Math.min(REGION_SIZE, this.template.getSpaceCount() - first)];
+		for (int i = 0; i < spaces.length; i++) {
+			spaces[i] = new Space(this, first + i);
+		}
+		Page page = this.pages[region];
+		if (page != null) {
+			for (int i = 0; i < page.count; i++) {
+				spaces[page.spaces[i] - first].restoreItem(page.items[i]);
+			}
+		}
+		this.regions[region] = spaces;
+		this.dirty[region] = false;
+		this.resident++;
+		return spaces;
+	}
+	
+	/**
+	 * Evict the region used longest ago, other than the Player's
+	 */
+	private void evict() {
+		int victim = -1;
+		for (int region = 0; region < this.regions.length; region++) {
+			if (this.regions[region] != null && region != this.current
+					&& (victim < 0 || this.lastUsed[region] < this.lastUsed[victim])) {
+				victim = region;
+			}
+		}
+		if (this.dirty[victim]) {
+			this.writeBack(victim);
+		}
+		this.regions[victim] = null;
+		this.resident--;
+		this.evictions.incrementAndGet();
+	}
+	
+	/**
+	 * Write a region's Items into its page
+	 * @param region Region's index
+	 */
+	private void writeBack(int region) {
+		Page page = null;
+		for (Space space : this.regions[region]) {
+			for (Item item : space.getItems().values()) {
+				if (page == null) {
+					page = new Page();
+				}
+				page.add(space.getIndex(), item);
+			}
+		}
+		this.pages[region] = page;
+		this.dirty[region] = false;
+		this.writeBacks.incrementAndGet();
+	}
+	
+	/**
+	 * Get the amount of Space lookups whose region was resident
+	 * @return Hits
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+	
+	/**
+	 * Get the amount of Space lookups that had to load their region
+	 * @return Misses
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+	
+	/**
+	 * Get the amount of regions loaded ahead of the Player
+	 * @return Prefetches
+	 */
+	public long getPrefetches() {
+		return this.prefetches.get();
+	}
+	
+	/**
+	 * Get the amount of evicted regions
+	 * @return Evictions
+	 */
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+	
+	/**
+	 * Get the amount of evicted regions that were written back
+	 * @return Write-backs
+	 */
+	public long getWriteBacks() {
+		return this.writeBacks.get();
+	}
+	
+	/**
+	 * Get the amount of resident regions
+	 * @return Resident regions
+	 */
+	public int getResidentRegions() {
+		return this.resident;
+	}
+	
+	/**
+	 * Get the amount of regions kept resident at most
+	 * @return Budget in regions
+	 */
+	public int getMaxResidentRegions() {
+		return this.maxResident;
+	}
+	
+	/**
+	 * Get the counters as a single line
+	 */
+	@Override
+	public String toString() {
+		long lookups = this.getHits() + this.getMisses();
+		return this.resident + "/" + this.maxResident + " regions resident, " + this.getHits() + " hits, "
+				+ this.getMisses() + " misses (" + String.format("%.2f", lookups == 0 ? 0.0 : 100.0 * this.getMisses() / lookups)
+				+ "%), " + this.getPrefetches() + " prefetches, " + this.getEvictions() + " evictions, "
+				+ this.getWriteBacks() + " write-backs";
+	}
+	
+	/**
+	 * Items of a region that isn't resident, with the indexes of their Spaces
+	 */
+	private static final class Page implements Serializable {
+		
+		private static final long serialVersionUID = 7310546720146529741L;
+		
+		private int[] spaces;
+		private Item[] items;
+		private int count;
+		
+		/**
+		 * Create an empty page
+		 */
+		Page() {
+			this.spaces = new int[4];
+			this.items = new Item[4];
+			this.count = 0;
+		}
+		
+		/**
+		 * Add an Item
+		 * @param space Index of the Item's Space
+		 * @param item Item
+		 */
+		void add(int space, Item item) {
+			if (this.count == this.items.length) {
+				this.spaces = Arrays.copyOf(this.spaces, this.count * 2);
+				this.items = Arrays.copyOf(this.items, this.count * 2);
+			}
+			this.spaces[this.count] = space;
+			this.items[this.count] = item;
+			this.count++;
+		}
+	}
+}
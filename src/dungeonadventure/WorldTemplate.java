@@ -0,0 +1,455 @@
+package dungeonadventure;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import dungeonadventure.items.Item;
+import dungeonadventure.items.resources.Track;
+
+/**
+ * The static part of the game world: the Spaces' names, descriptions and
+ * connections, the Items the world starts with and the track list of the CD.
+ * Worlds are read from world files, see WorldLoader; the mine is read from
+ * the file shipped with the game. A template is loaded once
+ * and never changes, so every game session shares the same one and only
+ * keeps its own mutable state (items, their locations and timers) in the Spaces
+ * it creates from the template. Spaces are numbered densely and their
+ * connections are kept in one adjacency array, Direction.COUNT slots for
+ * every Space, so moving is an array load; names are in a separate index.
+ * Every Space's exits are also kept as a bitmask of directions, for VisibleSpaces.
+ * @author Mikko Piuhola
+ */
+public final class WorldTemplate implements Serializable {
+	
+	private static final long serialVersionUID = 2805394513651925880L;
+	
+	private static final String MINE_ID = "mine";
+	private static final String MINE_FILE = "worlds/mine.world";
+	// Where the mine's world file is in the source tree, for builds that don't copy it onto the classpath
+	private static final String MINE_SOURCE = "src/dungeonadventure/" + MINE_FILE;
+	
+	// Loaded worlds by id, for resolving saves
+	private static final HashMap<String, WorldTemplate> loaded = new HashMap<String, WorldTemplate>();
+	private static WorldTemplate mine;
+	private static WorldTemplate defaultWorld;
+	
+	private final String id;
+	private final String[] names;
+	private final String[] descriptions;
+	private final boolean[] chargingStations;
+	private final int[] neighbours;
+	private final byte[] exitMasks;
+	private final HashMap<String, Integer> spacesByName;
+	private final int start;
+	private final ItemPlacement[] placements;
+	private final String albumName;
+	private final String artistName;
+	private final List<Track> tracks;
+	transient private Router router;
+	transient private TypoIndex<String> placeTypos;
+	
+	/**
+	 * Create a template from loaded tables, see WorldLoader
+	 * @param id Identifier of the template, used when loading saves
+	 * @param names Names of the Spaces
+	 * @param descriptions Full descriptions of the Spaces
+	 * @param chargingStations Which Spaces have a charging station
+	 * @param neighbours Next Space's index or -1 in every Direction, Direction.COUNT slots for every Space
+	 * @param spacesByName Lower case name of every Space to its index
+	 * @param start Index of the Space the Player starts in
+	 * @param placements Items the world starts with
+	 * @param albumName Name of the CD or null
+	 * @param artistName Artist of the CD or null
+	 * @param tracks Tracks of the CD
+	 */
+	WorldTemplate(String id, String[] names, String[] descriptions, boolean[] chargingStations,
+			int[] neighbours, HashMap<String, Integer> spacesByName, int start, ItemPlacement[] placements,
+			String albumName, String artistName, List<Track> tracks) {
+		this.id = id;
+		this.names = names;
+		this.descriptions = descriptions;
+		this.chargingStations = chargingStations;
+		this.neighbours = neighbours;
+		this.exitMasks = new byte[names.length];
+		for (int slot = 0; slot < neighbours.length; slot++) {
+			if (neighbours[slot] >= 0) {
+				this.exitMasks[slot / Direction.COUNT] |= 1 << slot % Direction.COUNT;
+			}
+		}
+		this.spacesByName = spacesByName;
+		this.start = start;
+		this.placements = placements;
+		this.albumName = albumName;
+		this.artistName = artistName;
+		this.tracks = tracks;
+	}
+	
+	/**
+	 * Get the template of the mine, shared by all games. The mine is read
+	 * from its world file when it's first needed, from the classpath or,
+	 * failing that, from the source tree in the working directory.
+	 * @return Mine's template
+	 * @throws IllegalStateException If the mine's world file is missing or invalid
+	 */
+	public static synchronized WorldTemplate getMine() {
+		if (mine == null) {
+			try (InputStream in = WorldTemplate.class.getResourceAsStream(MINE_FILE)) {
+				if (in != null) {
+					mine = load(new InputStreamReader(in, StandardCharsets.UTF_8), MINE_FILE);
+				} else if (new File(MINE_SOURCE).isFile()) {
+					mine = load(MINE_SOURCE);
+				} else {
+					throw new IllegalStateException("Missing world file " + MINE_FILE + ", put src on the classpath");
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException("Invalid world file " + MINE_FILE + ": " + e.getMessage(), e);
+			}
+		}
+		return mine;
+	}
+	
+	/**
+	 * Get the world new games are played in
+	 * @return World set with setDefault or the mine
+	 */
+	public static synchronized WorldTemplate getDefault() {
+		return defaultWorld != null ? defaultWorld : getMine();
+	}
+	
+	/**
+	 * Set the world new games are played in, e.g. one loaded from a file
+	 * @param world World for new games
+	 */
+	public static synchronized void setDefault(WorldTemplate world) {
+		defaultWorld = world;
+	}
+	
+	/**
+	 * Read a world from a world file
+	 * @param path Path of the world file
+	 * @return World read from the file
+	 * @throws IOException If the file can't be read or isn't a valid world
+	 */
+	public static WorldTemplate load(String path) throws IOException {
+		try (InputStream in = new FileInputStream(path)) {
+			return load(new InputStreamReader(in, StandardCharsets.UTF_8), path);
+		}
+	}
+	
+	/**
+	 * Read a world, see WorldLoader for the format. Saves of the world can
+	 * be loaded once the world has been read.
+	 * @param reader World file's contents
+	 * @param source Name of the world file for error messages
+	 * @return World read from the file
+	 * @throws IOException If the file can't be read or isn't a valid world
+	 */
+	public static WorldTemplate load(Reader reader, String source) throws IOException {
+		WorldTemplate world = WorldLoader.load(reader, source);
+		register(world);
+		return world;
+	}
+	
+	/**
+	 * Make a world's saves loadable
+	 * @param world Loaded or generated world
+	 */
+	static synchronized void register(WorldTemplate world) {
+		loaded.put(world.id, world);
+	}
+	
+	/**
+	 * Write the world as a world file, which loads back into an equal world
+	 * @param writer Where to write the world file
+	 * @throws IOException If writing fails
+	 */
+	public void write(Writer writer) throws IOException {
+		BufferedWriter out = new BufferedWriter(writer);
+		out.write("world " + this.id + "\n");
+		if (this.albumName != null) {
+			out.write("cd " + this.albumName + " | " + this.artistName + "\n");
+			for (Track track : this.tracks) {
+				out.write("track " + track.getArtist() + " | " + track.getTrackName() + " | " + track.getDurationString() + "\n");
+			}
+		}
+		
+		// Items by Space, in the order they're placed
+		int[] firstPlacement = new int[this.names.length + 1];
+		for (ItemPlacement placement : this.placements) {
+			firstPlacement[placement.getSpace() + 1]++;
+		}
+		for (int i = 0; i < this.names.length; i++) {
+			firstPlacement[i + 1] += firstPlacement[i];
+		}
+		ItemPlacement[] bySpace = new ItemPlacement[this.placements.length];
+		int[] next = Arrays.copyOf(firstPlacement, this.names.length);
+		for (ItemPlacement placement : this.placements) {
+			bySpace[next[placement.getSpace()]++] = placement;
+		}
+		
+		for (int i = 0; i < this.names.length; i++) {
+			out.write("\nspace " + this.names[i] + "\n");
+			if (i == this.start) {
+				out.write("start\n");
+			}
+			if (!this.descriptions[i].isEmpty()) {
+				for (String line : this.descriptions[i].split("\n")) {
+					out.write("description " + line + "\n");
+				}
+			}
+			if (this.chargingStations[i]) {
+				out.write("charging\n");
+			}
+			for (Direction direction : Direction.values()) {
+				int exit = this.getExit(i, direction);
+				if (exit >= 0) {
+					out.write("exit " + direction.getName() + " " + this.names[exit] + "\n");
+				}
+			}
+			for (int p = firstPlacement[i]; p < firstPlacement[i + 1]; p++) {
+				out.write(bySpace[p].toStatement() + "\n");
+			}
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Create a game's own Items and place them into the game's Spaces
+	 * @param store Store of the game's Spaces, created from this template
+	 * @param threadManager ThreadManager of the game, for timed Items
+	 * @return The created Items
+	 */
+	public List<Item> placeItems(WorldStore store, ThreadManager threadManager) {
+		ArrayList<Item> items = new ArrayList<Item>(this.placements.length);
+		for (ItemPlacement placement : this.placements) {
+			Item item = placement.createItem(this, threadManager);
+			store.place(placement.getSpace(), item);
+			items.add(item);
+		}
+		return items;
+	}
+	
+	/**
+	 * Get the Space the Player starts in
+	 * @return Start Space's index
+	 */
+	public int getStart() {
+		return this.start;
+	}
+	
+	/**
+	 * Get the amount of Spaces
+	 * @return Space count
+	 */
+	public int getSpaceCount() {
+		return this.names.length;
+	}
+	
+	/**
+	 * Get a Space's name
+	 * @param index Space's index
+	 * @return Space's name
+	 */
+	public String getName(int index) {
+		return this.names[index];
+	}
+	
+	/**
+	 * Get a Space's description, including its charging station
+	 * @param index Space's index
+	 * @return Space's description
+	 */
+	public String getDescription(int index) {
+		return this.descriptions[index];
+	}
+	
+	/**
+	 * Does a Space have a charging station
+	 * @param index Space's index
+	 * @return Has a charging station
+	 */
+	public boolean hasChargingStation(int index) {
+		return this.chargingStations[index];
+	}
+	
+	/**
+	 * Get a Space's index by its name
+	 * @param name Lower case name of the Space
+	 * @return Space's index or -1 if there's no such Space
+	 */
+	public int getSpaceIndex(String name) {
+		Integer index = this.spacesByName.get(name);
+		return index == null ? -1 : index;
+	}
+	
+	/**
+	 * Get the next Space in a direction
+	 * @param index Space's index
+	 * @param direction Direction of the next Space
+	 * @return Next Space's index or -1 if there's no such connection
+	 */
+	public int getExit(int index, Direction direction) {
+		return this.neighbours[index * Direction.COUNT + direction.ordinal()];
+	}
+	
+	/**
+	 * Get the directions a Space has exits in
+	 * @param index Space's index
+	 * @return Bitmask of the exits' Direction ordinals
+	 */
+	public int getExitMask(int index) {
+		return this.exitMasks[index];
+	}
+	
+	/**
+	 * Get the next Space in a direction or by name, ignoring case
+	 * @param index Space's index
+	 * @param dirOrName Direction or name of the next Space
+	 * @return Next Space's index or -1 if there's no such connection
+	 */
+	public int getExit(int index, String dirOrName) {
+		Direction direction = Direction.forName(dirOrName);
+		if (direction != null) {
+			return this.getExit(index, direction);
+		}
+		
+		// A Space only has a few neighbours, comparing their names is cheaper than lower casing
+		for (int slot = index * Direction.COUNT; slot < (index + 1) * Direction.COUNT; slot++) {
+			int next = this.neighbours[slot];
+			if (next >= 0 && this.names[next].equalsIgnoreCase(dirOrName)) {
+				return next;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Get the length of the shortest route between two Spaces, see Router
+	 * @param from Index of the Space the route starts from
+	 * @param to Index of the destination
+	 * @return Amount of steps or -1 if there's no route
+	 */
+	public int getDistance(int from, int to) {
+		return this.getRouter().getDistance(from, to);
+	}
+	
+	/**
+	 * Get the first step of a shortest route between two Spaces, see Router
+	 * @param from Index of the Space the route starts from
+	 * @param to Index of the destination
+	 * @return Direction of the step or null if already there or there's no route
+	 */
+	public Direction getNextStep(int from, int to) {
+		return this.getRouter().getNextStep(from, to);
+	}
+	
+	/**
+	 * Get the world's router, created when the first route is asked for
+	 * @return Router
+	 */
+	private synchronized Router getRouter() {
+		if (this.router == null) {
+			this.router = new Router(this);
+		}
+		return this.router;
+	}
+	
+	/**
+	 * Get the lower case names of the Spaces for finding misspelled ones,
+	 * indexed when the first one is looked up
+	 * @return Typo index of the names, each name's value is the name itself
+	 */
+	public synchronized TypoIndex<String> getPlaceTypos() {
+		if (this.placeTypos == null) {
+			String[] places = new String[this.names.length];
+			for (int i = 0; i < places.length; i++) {
+				places[i] = this.names[i].toLowerCase();
+			}
+			this.placeTypos = new TypoIndex<String>(places, places);
+		}
+		return this.placeTypos;
+	}
+	
+	/**
+	 * Get the CD's name
+	 * @return Album's name or null if the world has no CD
+	 */
+	public String getAlbumName() {
+		return this.albumName;
+	}
+	
+	/**
+	 * Get the CD's artist
+	 * @return Artist's name
+	 */
+	public String getArtistName() {
+		return this.artistName;
+	}
+	
+	/**
+	 * Get the CD's tracks
+	 * @return Unmodifiable list of tracks
+	 */
+	public List<Track> getTracks() {
+		return this.tracks;
+	}
+	
+	/**
+	 * Saves only refer to the template by its id
+	 * @return Serialized form
+	 * @throws ObjectStreamException Never
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new Reference(this.id);
+	}
+	
+	/**
+	 * Serialized form of a template: the template's id, resolved back into
+	 * the shared template when a save is loaded
+	 */
+	private static final class Reference implements Serializable {
+		
+		private static final long serialVersionUID = -2093310946150734213L;
+		
+		private final String id;
+		
+		/**
+		 * Create a reference
+		 * @param id Template's id
+		 */
+		Reference(String id) {
+			this.id = id;
+		}
+		
+		/**
+		 * Resolve into the shared template
+		 * @return Template
+		 * @throws ObjectStreamException If there's no template with the id
+		 */
+		private Object readResolve() throws ObjectStreamException {
+			synchronized (WorldTemplate.class) {
+				WorldTemplate world = loaded.get(this.id);
+				if (world == null && MINE_ID.equals(this.id)) {
+					world = getMine();
+				}
+				if (world == null) {
+					throw new InvalidObjectException("Unknown world, load it before the save: " + this.id);
+				}
+				return world;
+			}
+		}
+	}
+}
@@ -1,73 +1,70 @@
 package dungeonadventure.items;
 import java.util.ArrayList;
 
+import dungeonadventure.Countdown;
+import dungeonadventure.Output;
 import dungeonadventure.ThreadManager;
 import dungeonadventure.observers.BatteryEmptyObserver;
+import dungeonadventure.observers.GameEvent;
 import dungeonadventure.properties.Threadable;
+import dungeonadventure.properties.Timeable;
 
 /**
  * A battery. Can be used in item's that take a battery
  * @author Mikko Piuhola
  */
-public class Battery extends Item implements Runnable,Threadable {
+public class Battery extends Item implements Runnable,Threadable,Timeable {
 
 	private static final long serialVersionUID = 8420063717946301302L;
 	
-	private float charge;
+	private ThreadManager threadManager;
+	private Countdown charge; // One unit of charge lasts a second of use
 	private float maxCharge;
-	transient private Thread usingThread;
-	private boolean running;
 	
 	private ArrayList<BatteryEmptyObserver> batteryEmptyObservers;
 	
 	/**
 	 * Create a standard Battery.
+	 * @param threadManager ThreadManager of the game session
 	 */
-	public Battery() {
-		this("Battery", "standard AA battery");
+	public Battery(ThreadManager threadManager) {
+		this(threadManager, "Battery", "standard AA battery");
 	}
 	
 	/**
 	 * Create a Battery with a name and description. Standard charge.
+	 * @param threadManager ThreadManager of the game session
 	 * @param name Name of the Battery
 	 * @param description Description of the Battery
 	 */
-	public Battery(String name, String description) {
-		this(name, description, 180.0f); // TODO Update to actual amount
+	public Battery(ThreadManager threadManager, String name, String description) {
+		this(threadManager, name, description, 180.0f); // TODO Update to actual amount
 	}
 	
 	/**
 	 * Create a Battery with a name, description and a maximum charge.
+	 * @param threadManager ThreadManager of the game session
 	 * @param name Name of the Battery
 	 * @param description Description of the Battery
 	 * @param maxCharge A maximum charge level. Standard is 100.0f.
 	 */
-	public Battery(String name, String description, float maxCharge) {
+	public Battery(ThreadManager threadManager, String name, String description, float maxCharge) {
 		super(name, description);
+		this.threadManager = threadManager;
 		this.maxCharge = maxCharge;
-		this.charge = this.maxCharge;
-		this.running = false;
+		this.charge = new Countdown(threadManager, this.getMaxChargeMillis());
 		this.batteryEmptyObservers = new ArrayList<BatteryEmptyObserver>();
 	}
 	
 	/**
-	 * Start Battery thread to consume charge every 1000 ms
+	 * Battery ran out of charge, notify observers
 	 */
 	public void run() {
-		while (this.running && this.charge > 0.0f) {
-			try {
-				Thread.sleep(1000);
-				this.consume();
-			} catch (InterruptedException e) {
-				// Do nothing
-			}
+		if (!this.charge.expire()) {
+			return;
 		}
 		
-		if (this.charge <= 0.0f) {
-			for(BatteryEmptyObserver obs : this.batteryEmptyObservers) {
-				obs.batteryEmpty();
-			}
-		}
+		this.threadManager.getEventBus().publish(GameEvent.batteryEmpty(this.batteryEmptyObservers));
 	}
 	
 	/**
@@ -81,21 +78,35 @@ public class Battery extends Item implements Runnable,Threadable {
 	/**
 	 * Start using Battery
 	 */
-	public void start() {
-		this.running = true;
-		this.usingThread = new Thread(this);
-		this.usingThread.start();
-		if (!ThreadManager.hasThread(this)) {
-			ThreadManager.addThread(this);
+	public synchronized void start() {
+		this.charge.start(this);
+		if (!this.threadManager.hasThread(this)) {
+			this.threadManager.addThread(this);
 		}
 	}
 	
 	/**
-	 * Interrupt usingThread.
+	 * Interrupt Battery use.
 	 * Used in saving.
 	 */
-	public void interrupt() {
-		this.running = false;
+	public synchronized void interrupt() {
+		this.charge.stop();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void suspend() {
+		this.charge.suspend();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void resume() {
+		this.charge.resume(this);
 	}
 	
 	/**
@@ -103,30 +114,31 @@ public class Battery extends Item implements Runnable,Threadable {
 	 */
 	@Override
 	public boolean isRunning() {
-		return this.usingThread != null && !this.usingThread.isInterrupted();
+		return this.charge.isRunning();
 	}
 
 	/**
 	 * Stop using Battery
 	 */
 	public void stop() {
-		this.running = false;
-		ThreadManager.removeThread(this);
+		this.interrupt();
+		this.threadManager.removeThread(this);
 	}
 	
 	/**
 	 * Charge battery to full charge
+	 * @param out Output for messages
 	 * @return Is battery fully charged
 	 */
-	public boolean charge() {
-		if (this.charge != this.maxCharge) {
-			this.charge = this.maxCharge;
+	public boolean charge(Output out) {
+		if (this.charge.getRemainingMillis() != this.getMaxChargeMillis()) {
+			this.charge.reset(this.getMaxChargeMillis());
 		} else {
-			System.out.println("Battery is already fully charged!");
+			out.println("Battery is already fully charged!");
 			return false;
 		}
 		
-		return this.charge == this.maxCharge;
+		return true;
 	}
 	
 	/**
@@ -134,19 +146,24 @@ public class Battery extends Item implements Runnable,Threadable {
 	 * @return Has charge
 	 */
 	public boolean hasCharge() {		
-		return this.charge > 0.0f;
+		return this.charge.getRemainingMillis() > 0;
 	}
 	
 	/**
-	 * Consume battery by 1 unit of charge
+	 * {@inheritDoc}
 	 */
-	private void consume() {
-		if (this.charge >= 1.0f) {
-			this.charge -= 1.0f;
-		} else {
-			System.out.println("Not enough battery charge to use");
-			this.interrupt();
-		}
+	@Override
+	public synchronized boolean spendTime(float sec) {
+		// Only a battery in use drains
+		return this.charge.isRunning() && this.charge.spend((long)(sec * 1000));
+	}
+	
+	/**
+	 * Get the maximum charge as milliseconds of use
+	 * @return Maximum charge in milliseconds
+	 */
+	private long getMaxChargeMillis() {
+		return (long)(this.maxCharge * 1000);
 	}
 
 }
@@ -1,8 +1,11 @@
 package dungeonadventure.items;
 import java.util.ArrayList;
 
+import dungeonadventure.Countdown;
+import dungeonadventure.Output;
 import dungeonadventure.ThreadManager;
 import dungeonadventure.observers.ExplodeObserver;
+import dungeonadventure.observers.GameEvent;
 import dungeonadventure.properties.Powerable;
 import dungeonadventure.properties.Threadable;
 import dungeonadventure.properties.Timeable;
@@ -16,26 +19,26 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 
 	private static final long serialVersionUID = 5148051826485246999L;
 	
+	private ThreadManager threadManager;
 	private boolean armed;
-	private float timeToExplode; // Seconds
+	private Countdown timeToExplode;
 	private ArrayList<ExplodeObserver> explodeObservers;
-	transient private Thread armedThread;
 	
 	private final static float MAX_TIMETOEXPLODE = 180.0f; // TODO Update to actual amount
 
 	/**
 	 * Constructor for the game's main bomb
+	 * @param threadManager ThreadManager of the game session
 	 */
-	public Bomb() {
+	public Bomb(ThreadManager threadManager) {
 		super("Bomb", "the bomb you set up do dig further towards south, and it's still ticking down! Defuse it quickly, the mine might not be able to take another explosion!", new String[]{"bomb","explosive","explosives","dynamite"});
-		this.timeToExplode = MAX_TIMETOEXPLODE;
+		this.threadManager = threadManager;
+		this.timeToExplode = new Countdown(threadManager, (long)(MAX_TIMETOEXPLODE * 1000));
 		this.explodeObservers = new ArrayList<ExplodeObserver>();
 		
 		// Arm the Bomb on spawn
 		this.armed = true;
-		this.armedThread = new Thread(this);
-		this.armedThread.start();
-		ThreadManager.addThread(this);
+		this.start();
 	}
 	
 	/**
@@ -49,25 +52,28 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 	/**
 	 * Bomb cannot be powered on.
 	 * It automatically gets powered on on spawn and can only be defused.
+	 * @param out Output for messages
 	 * @return False to indicate forbidden method
 	 */
 	@Override
-	public boolean powerOn() {
-		System.out.println("You defused the bomb, you shouldn't re-arm it now. You have to find your way out.");
+	public boolean powerOn(Output out) {
+		out.println("You defused the bomb, you shouldn't re-arm it now. You have to find your way out.");
 		return false;
 	}
 
 	/**
 	 * Defuse bomb
+	 * @param out Output for messages
 	 * @return Is bomb disarmed
 	 */
 	@Override
-	public boolean powerOff() {
+	public boolean powerOff(Output out) {
 		if (this.isPoweredOn()) {
 			this.armed = false;
-			System.out.println("You successfully defused the bomb");
+			this.interrupt();
+			out.println("You successfully defused the bomb");
 		} else {
-			System.out.println("You already defused the bomb");
+			out.println("You already defused the bomb");
 		}
 
 		return !this.armed;
@@ -83,36 +89,31 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 	}
 
 	/**
-	 * Bomb is armed, notify on explosion
+	 * Bomb's deadline arrived, notify on explosion
 	 */
 	@Override
 	public void run() {
-		while (this.isPoweredOn() && this.timeToExplode >= 1.0f) {
-			try {
-				Thread.sleep(1000);
-				this.timeToExplode--;
-			} catch (InterruptedException e) {
-				// Do nothing
+		synchronized (this) {
+			if (!this.isPoweredOn() || !this.timeToExplode.expire()) {
+				return;
 			}
 		}
 		
-		if (this.isPoweredOn() && this.timeToExplode <= 0.0f) {
-			for (ExplodeObserver obs : this.explodeObservers) {
-				obs.bombExplosion();
-				this.armed = false;
-			}
-		}
+		// Observers are notified on the game session's executor, not on the timer thread
+		this.threadManager.getEventBus().publish(GameEvent.explosion(this.explodeObservers));
+		this.armed = false;
 	}
 	
 	/**
 	 * Inspect the bomb
+	 * @param out Output for messages
 	 */
 	@Override
-	public void inspect() {
+	public void inspect(Output out) {
 		if (this.isPoweredOn()) {
-			System.out.println("It's " + this.toString() + " that is about to explode! The timer on it reads: " + this.timeToExplode + "s.");
+			out.println("It's " + this.toString() + " that is about to explode! The timer on it reads: " + this.getSecondsLeft() + "s.");
 		} else {
-			System.out.println("It's the bomb you defused. Still, better not stay around if you aren't quite sure of the job you did.");
+			out.println("It's the bomb you defused. Still, better not stay around if you aren't quite sure of the job you did.");
 		}
 	}
 
@@ -120,12 +121,13 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void start() {
-		this.armed = true;
-		this.armedThread = new Thread(this);
-		this.armedThread.start();
-		if (!ThreadManager.hasThread(this)) {
-			ThreadManager.addThread(this);
+	public synchronized void start() {
+		// A defused bomb stays defused
+		if (this.isPoweredOn()) {
+			this.timeToExplode.start(this);
+		}
+		if (!this.threadManager.hasThread(this)) {
+			this.threadManager.addThread(this);
 		}
 	}
 
@@ -133,8 +135,26 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void interrupt() {
-		this.armed = false;
+	public synchronized void interrupt() {
+		this.timeToExplode.stop();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void suspend() {
+		this.timeToExplode.suspend();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void resume() {
+		if (this.isPoweredOn()) {
+			this.timeToExplode.resume(this);
+		}
 	}
 	
 	/**
@@ -142,14 +162,22 @@ public class Bomb extends Item implements Runnable,Powerable,Threadable,Timeable
 	 */
 	@Override
 	public boolean isRunning() {
-		return this.armedThread != null && !this.armedThread.isInterrupted();
+		return this.timeToExplode.isRunning();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void spendTime(float sec) {
-		this.timeToExplode -= sec;
+	public boolean spendTime(float sec) {
+		return this.timeToExplode.spend((long)(sec * 1000));
+	}
+	
+	/**
+	 * Get the whole seconds left on the timer
+	 * @return Seconds until explosion
+	 */
+	private long getSecondsLeft() {
+		return (this.timeToExplode.getRemainingMillis() + 999) / 1000;
 	}
 }
@@ -1,7 +1,9 @@
 package dungeonadventure.items;
 
 import java.util.ArrayList;
+import java.util.List;
 
+import dungeonadventure.Output;
 import dungeonadventure.items.resources.Track;
 import dungeonadventure.properties.Holdable;
 import dungeonadventure.properties.Installable;
@@ -16,7 +18,8 @@ public class CD extends Item implements Holdable,Installable {
 	
 	private String albumName;
 	private String artistName;
-	private ArrayList<Track> trackList;
+	private List<Track> trackList;
+	private boolean sharedTracks;
 	private boolean isInstalled;
 	
 	/**
@@ -29,6 +32,22 @@ public class CD extends Item implements Holdable,Installable {
 		this.albumName = albumName;
 		this.artistName = artistName;
 		this.trackList = new ArrayList<Track>();
+		this.sharedTracks = false;
+	}
+	
+	/**
+	 * Create a new CD with a track list shared with other CDs, e.g. one
+	 * from a WorldTemplate. The list is copied if the CD's tracks are changed.
+	 * @param albumName CD's name
+	 * @param artistName CD artist's name
+	 * @param tracks Shared, unmodified track list
+	 */
+	public CD(String albumName, String artistName, List<Track> tracks) {
+		super("CD", "a music album, seems to be " + albumName + " by " + artistName);
+		this.albumName = albumName;
+		this.artistName = artistName;
+		this.trackList = tracks;
+		this.sharedTracks = true;
 	}
 	
 	/**
@@ -36,7 +55,7 @@ public class CD extends Item implements Holdable,Installable {
 	 * @param track Track object to insert
 	 */
 	public void addTrack(Track track) {
-		this.trackList.add(track);
+		this.ownTracks().add(track);
 	}
 	
 	/**
@@ -44,7 +63,19 @@ public class CD extends Item implements Holdable,Installable {
 	 * @param trackNumber 1-based index of track on CD
 	 */
 	public void removeTrack(int trackNumber) {
-		this.trackList.remove(trackNumber - 1);
+		this.ownTracks().remove(trackNumber - 1);
+	}
+	
+	/**
+	 * Get a track list only this CD uses, copying a shared one first
+	 * @return Modifiable track list
+	 */
+	private List<Track> ownTracks() {
+		if (this.sharedTracks) {
+			this.trackList = new ArrayList<Track>(this.trackList);
+			this.sharedTracks = false;
+		}
+		return this.trackList;
 	}
 	
 	/**
@@ -91,8 +122,8 @@ public class CD extends Item implements Holdable,Installable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void inspect() {
-		System.out.println("That must be one of Peter's CDs. " +
+	public void inspect(Output out) {
+		out.println("That must be one of Peter's CDs. " +
 				this.getAlbumName() + " by " + this.getAlbumArtistName() +
 				(this.isInstalled() ? "\nIt's currently inside the CD-Player" : "")
 		);
@@ -1,5 +1,6 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
 import dungeonadventure.properties.Holdable;
 import dungeonadventure.properties.Hostable;
 import dungeonadventure.properties.Installable;
@@ -45,19 +46,19 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean powerOn() {
+	public boolean powerOn(Output out) {
 		if (!this.trayOpen) {
 			if (!this.isPoweredOn()) {
 				this.powerOn = true;
 				this.playing = false;
-				System.out.println(this.getName() + " is now ON");
+				out.println(this.getName() + " is now ON");
 			} else {
-				System.out.println(this.getName() + " is already ON!");
+				out.println(this.getName() + " is already ON!");
 			}
 		} else {
 			this.playing = false;
 			this.powerOn = false;
-			System.out.println("Can't power on when player's tray is open!");
+			out.println("Can't power on when player's tray is open!");
 		}
 		
 		return this.isPoweredOn();
@@ -67,20 +68,20 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean powerOff() {
+	public boolean powerOff(Output out) {
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				this.playing = false;
 				this.powerOn = false;
-				System.out.println(this.getName() + " is now OFF");
+				out.println(this.getName() + " is now OFF");
 			} else {
 				this.playing = false;
-				System.out.println(this.getName() + " is already OFF!");
+				out.println(this.getName() + " is already OFF!");
 			}
 		} else {
 			this.playing = false;
 			this.powerOn = false;
-			System.out.println("Can't power off when player's tray is open!");
+			out.println("Can't power off when player's tray is open!");
 		}
 		
 		return !this.isPoweredOn();
@@ -98,17 +99,18 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Close player's tray
+	 * @param out Output for messages
 	 * @return Is tray closed
 	 */
-	public boolean close() {		
+	public boolean close(Output out) {		
 		if (this.trayOpen) {
 			this.powerOn = false;
 			this.playing = false;
 			this.trayOpen = false;
 			this.currentTrackNumber = 1;
-			System.out.println("Closed CD-Player's tray");
+			out.println("Closed CD-Player's tray");
 		} else {
-			System.out.println("Tray is already closed!");
+			out.println("Tray is already closed!");
 		}
 		
 		return !this.trayOpen;
@@ -116,23 +118,24 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Open player's tray
+	 * @param out Output for messages
 	 * @return Is tray open
 	 */
-	public boolean open() {		
+	public boolean open(Output out) {		
 		if (!this.trayOpen) {
 			if (!this.playing) {
 				this.playing = false;
 				this.powerOn = false;
 				this.trayOpen = true;
 				this.currentTrackNumber = 1;
-				System.out.println("Opened CD-Player tray. You can now remove or insert a new cd.");
+				out.println("Opened CD-Player tray. You can now remove or insert a new cd.");
 			} else {
-				System.out.println("Can't open tray when CD is playing");
+				out.println("Can't open tray when CD is playing");
 			}
 		} else {
 			this.playing = false;
 			this.powerOn = false;
-			System.out.println("Tray already open!");
+			out.println("Tray already open!");
 		}
 		
 		return this.trayOpen;
@@ -152,10 +155,11 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	/**
 	 * Insert new CD into player
 	 * @param item CD to insert
+	 * @param out Output for messages
 	 * @return Is a CD inserted
 	 */
 	@Override
-	public boolean install(Installable item) {
+	public boolean install(Installable item, Output out) {
 		if (item instanceof CD) {			
 			if (this.trayOpen) {
 				this.playing = false;
@@ -165,16 +169,16 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 					this.currentTrackNumber = 1;
 					return true;
 				} else {
-					System.out.println("A CD is already inserted!");
+					out.println("A CD is already inserted!");
 					return false;
 				}
 			} else {
-				System.out.println("Can't insert CD when tray is closed!");
+				out.println("Can't insert CD when tray is closed!");
 				this.currentCD = null;
 				return false;
 			}
 		} else {
-			System.out.println("That's not a CD, cannot insert " + ((CD)item).getName() + " into " + this.getName());
+			out.println("That's not a CD, cannot insert " + ((CD)item).getName() + " into " + this.getName());
 			return false;
 		}
 	}
@@ -182,13 +186,14 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	/**
 	 * Remove the current CD from player
 	 * @param item CD to remove
+	 * @param out Output for messages
 	 * @return Is there no CD in player
 	 */
-	public boolean uninstall(Installable item) {
+	public boolean uninstall(Installable item, Output out) {
 		
 		// Must be a CD, nothing else can be removed from CD Player
 		if (!(item instanceof CD)) {
-			System.out.println("Cannot remove that from " + this.getName());
+			out.println("Cannot remove that from " + this.getName());
 			return false;
 		}
 		
@@ -200,11 +205,11 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 				this.currentTrackNumber = 1;
 				return true;
 			} else {
-				System.out.println("No CD to remove!");
+				out.println("No CD to remove!");
 				return false;
 			}
 		} else {
-			System.out.println("Can't remove CD when is closed!");
+			out.println("Can't remove CD when is closed!");
 			return false;
 		}
 	}
@@ -213,30 +218,31 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Start playback of CD
+	 * @param out Output for messages
 	 * @return Is a CD playing
 	 */
-	public boolean play() {
+	public boolean play(Output out) {
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				if (this.installedItem() != null && (this.installedItem() instanceof CD)) {
 					if (!this.playing) {
 						this.playing = true;
-						System.out.println("Started playback, the display now reads: " + this.getCurrentDisplayText());
+						out.println("Started playback, the display now reads: " + this.getCurrentDisplayText());
 					} else {
-						System.out.println("A CD is already playing!");
+						out.println("A CD is already playing!");
 					}
 				} else {
 					this.playing = false;
-					System.out.println("There is no CD in the " + this.getName());
+					out.println("There is no CD in the " + this.getName());
 				}
 			} else {
 				this.playing = false;
-				System.out.println("Can't play CD with player powered off!");
+				out.println("Can't play CD with player powered off!");
 			}
 		} else {
 			this.playing = false;
 			this.powerOn = false;
-			System.out.println("Close CD Player's tray before trying to play!");
+			out.println("Close CD Player's tray before trying to play!");
 		}
 		
 		return this.playing;
@@ -244,26 +250,27 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 
 	/**
 	 * Stop playback of CD
+	 * @param out Output for messages
 	 * @return Is playback stopped
 	 */
-	public boolean stop() {		
+	public boolean stop(Output out) {		
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				if (this.installedItem() != null && (this.installedItem() instanceof CD)) {
 					this.playing = false;
-					System.out.println("Stopped playback");
+					out.println("Stopped playback");
 				} else {
 					this.playing = false;
-					System.out.println("There's no CD in the " + this.getName() + ". Stopping playback made no difference.");
+					out.println("There's no CD in the " + this.getName() + ". Stopping playback made no difference.");
 				}
 			} else {
 				this.playing = false;
-				System.out.println("Player is OFF, playback already stopped!");
+				out.println("Player is OFF, playback already stopped!");
 			}
 		} else {
 			this.playing = false;
 			this.powerOn = false;
-			System.out.println("Player's tray is open, playback already stopped!");
+			out.println("Player's tray is open, playback already stopped!");
 		}
 		
 		return !this.playing;
@@ -271,25 +278,26 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Increase volume by 1
+	 * @param out Output for messages
 	 * @return Current volume, 0 for mute/off
 	 */
-	public int incVolume() {
+	public int incVolume(Output out) {
 		
-		System.out.println("Increasing volume");
+		out.println("Increasing volume");
 		
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				if (this.currentVolume < this.MAX_VOLUME) {
 					this.currentVolume++;
 				} else {
-					System.out.println("CD Player is already at max volume!");
+					out.println("CD Player is already at max volume!");
 				}
 			} else {
-				System.out.println("CD Player must be powered on to increase volume!");
+				out.println("CD Player must be powered on to increase volume!");
 				this.currentVolume = 0;
 			}
 		} else {
-			System.out.println("Tray must be closed to increase volume!");
+			out.println("Tray must be closed to increase volume!");
 			this.currentVolume = 0;
 		}
 		
@@ -298,11 +306,12 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Decrease volume by 1
+	 * @param out Output for messages
 	 * @return Current volume, 0 for mute/off
 	 */
-	public int decVolume() {
+	public int decVolume(Output out) {
 		
-		System.out.println("Decreasing volume");
+		out.println("Decreasing volume");
 		
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
@@ -310,17 +319,17 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 					this.currentVolume--;
 					
 					if (this.currentVolume == 0) {
-						System.out.println("Player was muted");
+						out.println("Player was muted");
 					}
 				} else {
-					System.out.println("Player is already muted!");
+					out.println("Player is already muted!");
 				}
 			} else {
-				System.out.println("CD Player must be powered on to decrease volume!");
+				out.println("CD Player must be powered on to decrease volume!");
 				this.currentVolume = 0;
 			}
 		} else {
-			System.out.println("Tray must be closed to decrease volume!");
+			out.println("Tray must be closed to decrease volume!");
 			this.currentVolume = 0;
 		}
 		
@@ -329,9 +338,10 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Skip to the next track
+	 * @param out Output for messages
 	 * @return Current track number, 0 for off/no CD
 	 */
-	public int next() {		
+	public int next(Output out) {		
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				if (this.installedItem() != null && (this.installedItem() instanceof CD)) {
@@ -340,17 +350,17 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 					} else {
 						this.currentTrackNumber = 1;
 					}
-					System.out.println("Skipped tracks, the display now reads: " + this.getCurrentDisplayText());
+					out.println("Skipped tracks, the display now reads: " + this.getCurrentDisplayText());
 				} else {
-					System.out.println("Can't skip tracks without a CD inserted!");
+					out.println("Can't skip tracks without a CD inserted!");
 					this.currentTrackNumber = 0;
 				}
 			} else {
-				System.out.println("CD Player must be powered on to skip tracks!");
+				out.println("CD Player must be powered on to skip tracks!");
 				this.currentTrackNumber = 0;
 			}
 		} else {
-			System.out.println("Can't skip tracks with the tray open!");
+			out.println("Can't skip tracks with the tray open!");
 			this.currentTrackNumber = 0;
 		}
 		
@@ -359,9 +369,10 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	
 	/**
 	 * Skip to the next track
+	 * @param out Output for messages
 	 * @return Current track number, 0 for off/no cd
 	 */
-	public int prev() {		
+	public int prev(Output out) {		
 		if (!this.trayOpen) {
 			if (this.isPoweredOn()) {
 				if (this.installedItem() != null && (this.installedItem() instanceof CD)) {
@@ -370,17 +381,17 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 					} else {
 						this.currentTrackNumber = this.currentCD.getTrackAmount();
 					}
-					System.out.println((this.playing ? "Skipped tracks, t" : "T") + "he display now reads: " + this.getCurrentDisplayText());
+					out.println((this.playing ? "Skipped tracks, t" : "T") + "he display now reads: " + this.getCurrentDisplayText());
 				} else {
-					System.out.println("Can't skip tracks without a CD inserted!");
+					out.println("Can't skip tracks without a CD inserted!");
 					this.currentTrackNumber = 0;
 				}
 			} else {
-				System.out.println("CD Player must be powered on to skip tracks!");
+				out.println("CD Player must be powered on to skip tracks!");
 				this.currentTrackNumber = 0;
 			}
 		} else {
-			System.out.println("Can't skip tracks with the tray open!");
+			out.println("Can't skip tracks with the tray open!");
 			this.currentTrackNumber = 0;
 		}
 		
@@ -423,8 +434,8 @@ public class CDPlayer extends Item implements Powerable,Openable,Hostable,Holdab
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void inspect() {
-		System.out.println(this.toString());
-		System.out.println("You look at the display: " + (this.isPoweredOn() ? "it reads: " + this.getCurrentDisplayText() : "it's empty, the CD-player is probably OFF."));
+	public void inspect(Output out) {
+		out.println(this.toString());
+		out.println("You look at the display: " + (this.isPoweredOn() ? "it reads: " + this.getCurrentDisplayText() : "it's empty, the CD-player is probably OFF."));
 	}
 }
@@ -0,0 +1,94 @@
+package dungeonadventure.items;
+
+import dungeonadventure.properties.Chargeable;
+import dungeonadventure.properties.Eatable;
+import dungeonadventure.properties.Holdable;
+import dungeonadventure.properties.Hostable;
+import dungeonadventure.properties.Installable;
+import dungeonadventure.properties.Openable;
+import dungeonadventure.properties.Playable;
+import dungeonadventure.properties.Powerable;
+import dungeonadventure.properties.Threadable;
+import dungeonadventure.properties.Timeable;
+
+/**
+ * What an Item can be used as: the properties it implements and the
+ * Lightsource class. Every Item class's capabilities are worked out once,
+ * as a bitmask of the capabilities' ordinals, so asking an Item or an
+ * Inventory for a capability never needs reflection.
+ * @author Mikko Piuhola
+ */
+public enum Capability {
+	CHARGEABLE(Chargeable.class),
+	EATABLE(Eatable.class),
+	HOLDABLE(Holdable.class),
+	HOSTABLE(Hostable.class),
+	INSTALLABLE(Installable.class),
+	LIGHTSOURCE(Lightsource.class),
+	OPENABLE(Openable.class),
+	PLAYABLE(Playable.class),
+	POWERABLE(Powerable.class),
+	THREADABLE(Threadable.class),
+	TIMEABLE(Timeable.class);
+	
+	private static final Capability[] VALUES = values();
+	
+	// Capabilities of every Item class, worked out when the first Item of the class is created
+	private static final ClassValue<Integer> masks = new ClassValue<Integer>() {
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			int mask = 0;
+			for (Capability capability : VALUES) {
+				if (capability.type.isAssignableFrom(type)) {
+					mask |= capability.getBit();
+				}
+			}
+			return mask;
+		}
+	};
+	
+	private final Class<?> type;
+	
+	/**
+	 * Constructor for Capability
+	 * @param type Interface or class of the Items with the capability
+	 */
+	Capability(Class<?> type) {
+		this.type = type;
+	}
+	
+	/**
+	 * Get the capability's bit in capability masks
+	 * @return Bit of the capability
+	 */
+	public int getBit() {
+		return 1 << this.ordinal();
+	}
+	
+	/**
+	 * Get the capabilities of an Item class
+	 * @param type Item's class
+	 * @return Bitmask of the capabilities
+	 */
+	public static int maskOf(Class<? extends Item> type) {
+		return masks.get(type);
+	}
+	
+	/**
+	 * Find a capability by its type's simple name, ignoring case
+	 * @param name Type's name, e.g. "Lightsource"
+	 * @return Capability or null if no capability has the type
+	 */
+	public static Capability forName(String name) {
+		for (Capability capability : VALUES) {
+			if (capability.type.getSimpleName().equalsIgnoreCase(name)) {
+				return capability;
+			}
+		}
+		return null;
+	}
+}
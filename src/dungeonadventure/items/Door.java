@@ -1,5 +1,6 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
 import dungeonadventure.properties.Openable;
 
 
@@ -46,7 +47,7 @@ public class Door extends Item implements Openable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean open() {
+	public boolean open(Output out) {
 		if (this.winOnOpen) {
 			return true;
 		}
@@ -58,7 +59,7 @@ public class Door extends Item implements Openable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean close() {
+	public boolean close(Output out) {
 		return !this.open;
 	}
 
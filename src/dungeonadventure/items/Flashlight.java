@@ -1,5 +1,6 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
 import dungeonadventure.ThreadManager;
 import dungeonadventure.observers.BatteryEmptyObserver;
 import dungeonadventure.properties.Chargeable;
@@ -14,25 +15,29 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 
 	private static final long serialVersionUID = 7054094504373510226L;
 
+	private ThreadManager threadManager;
 	private Battery battery;
 	protected boolean allowInfiniteCharging;
 	protected boolean wasCharged;
 	
 	/**
 	 * Create a standard Flashlight.
+	 * @param threadManager ThreadManager of the game session
 	 */
-	public Flashlight() {
-		this("Flashlight", "Just a standard flashlight.");
+	public Flashlight(ThreadManager threadManager) {
+		this(threadManager, "Flashlight", "Just a standard flashlight.");
 	}
 
 	/**
 	 * Create a Flashlight with a name and description.
+	 * @param threadManager ThreadManager of the game session
 	 * @param name Name for Flashlight
 	 * @param description Description for Flashlight
 	 */
-	public Flashlight(String name, String description) {
+	public Flashlight(ThreadManager threadManager, String name, String description) {
 		super(name, description);
-		this.battery = new Battery(); // TODO Implement differently for INDIRECTOJBECT Actions
+		this.threadManager = threadManager;
+		this.battery = new Battery(threadManager); // TODO Implement differently for INDIRECTOJBECT Actions
 		this.battery.addObserver(this);
 		this.allowInfiniteCharging = false;
 		this.wasCharged = false;
@@ -40,20 +45,21 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 	
 	/**
 	 * Turn flashlight ON
+	 * @param out Output for messages
 	 * @return Is flashlight powered on
 	 */
 	@Override
-	public boolean powerOn() {
+	public boolean powerOn(Output out) {
 		if (this.hasBattery()) {
 			if (this.battery.hasCharge()) {
-				super.powerOn();
+				super.powerOn(out);
 				this.battery.start();
 			} else {
-				System.out.println("You don't have enought charge in the battery");
+				out.println("You don't have enought charge in the battery");
 				this.setPowerOn(false);
 			}
 		} else {
-			System.out.println("There's no battery in the " + this.getName());
+			out.println("There's no battery in the " + this.getName());
 			this.setPowerOn(false);
 		}
 		
@@ -62,15 +68,16 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 	
 	/**
 	 * Turn flashlight OFF
+	 * @param out Output for messages
 	 * @return Is flashlight powered off
 	 */
 	@Override
-	public boolean powerOff() {
+	public boolean powerOff(Output out) {
 		if (this.hasBattery()) {
-			super.powerOff();
-			this.battery.interrupt();
+			super.powerOff(out);
+			this.battery.stop();
 		} else {
-			System.out.println("There's no battery in the " + this.getName());
+			out.println("There's no battery in the " + this.getName());
 			this.setPowerOn(false);
 		}
 		
@@ -108,7 +115,7 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 //				this.currentBattery.addObserver(this);
 //				return true;
 //			} else {
-//				System.out.println(this.getName()
+//				out.println(this.getName()
 //						+ " already has a battery inserted!");
 //				return false;
 //			}
@@ -127,7 +134,7 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 //			this.currentBattery = null;
 //			return true;
 //		} else {
-//			System.out.println("No battery to remove!");
+//			out.println("No battery to remove!");
 //			return false;
 //		}
 //	}
@@ -138,9 +145,9 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void batteryEmpty() {
-		this.powerOff();
-		System.out.println("The " + this.getName() + "'s battery ran out! There should be a charging station for flashlights somewhere in here...");
+	public void batteryEmpty(Output out) {
+		this.powerOff(out);
+		out.println("The " + this.getName() + "'s battery ran out! There should be a charging station for flashlights somewhere in here...");
 	}
 	
 	// CHARGEABLE
@@ -149,20 +156,20 @@ public class Flashlight extends Lightsource implements BatteryEmptyObserver,Hold
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void charge() {
-		boolean charged = this.battery.charge();
+	public void charge(Output out) {
+		boolean charged = this.battery.charge(out);
 		if (charged) {
-			System.out.println("The charging station says that this should take 30 seconds.");
+			out.println("The charging station says that this should take 30 seconds.");
 			// Fast-forward all Timeable threads (i.e. waterpipe and bomb)
-			ThreadManager.advanceTime(29); // 29s + 1000ms = 30s
+			this.threadManager.advanceTime(29); // 29s + 1000ms = 30s
 			
 			this.wasCharged = true;
 			try {
-				Thread.sleep(1000);
+				this.threadManager.sleep(1000);
 			} catch (Exception e) {
 				
 			}
-			System.out.println("Successfully charged the " + this.getName());
+			out.println("Successfully charged the " + this.getName());
 		}
 	}
 
@@ -1,5 +1,6 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
 import dungeonadventure.properties.Eatable;
 import dungeonadventure.properties.Holdable;
 
@@ -33,8 +34,8 @@ public class Food extends Item implements Eatable,Holdable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void eat() {
-		System.out.println("You ate " + this.toString().toLowerCase());
+	public void eat(Output out) {
+		out.println("You ate " + this.toString().toLowerCase());
 	}
 
 }
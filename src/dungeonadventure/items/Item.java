@@ -1,13 +1,17 @@
 package dungeonadventure.items;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 
+import dungeonadventure.Output;
 import dungeonadventure.properties.Inspectable;
 import dungeonadventure.properties.Nameable;
 
 /**
  * An item. Has a name and a description. Must be extended to create actual Items.
+ * Knows its capabilities, see Capability.
  * @author Mikko Piuhola
  */
 public abstract class Item implements Nameable,Inspectable,Serializable {
@@ -17,6 +21,7 @@ public abstract class Item implements Nameable,Inspectable,Serializable {
 	private String name;
 	private String description;
 	private String[] aliases;
+	transient private int capabilities;
 	
 	/**
 	 * Create a new Item with a name and description.
@@ -36,6 +41,7 @@ public abstract class Item implements Nameable,Inspectable,Serializable {
 	public Item(String name, String description, String[] aliases) {
 		this.name = name;
 		this.description = description;
+		this.capabilities = Capability.maskOf(this.getClass());
 		
 		// Set all aliases as lowercase
 		List<String> a = (List<String>) Arrays.asList(aliases);
@@ -62,8 +68,8 @@ public abstract class Item implements Nameable,Inspectable,Serializable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void inspect() {
-		System.out.println(this.description);
+	public void inspect(Output out) {
+		out.println(this.description);
 	}
 	
 	/**
@@ -74,6 +80,23 @@ public abstract class Item implements Nameable,Inspectable,Serializable {
 		return this.description;
 	}
 	
+	/**
+	 * Get Item's capabilities
+	 * @return Bitmask of Capability bits
+	 */
+	public int getCapabilities() {
+		return this.capabilities;
+	}
+	
+	/**
+	 * Does the Item have a capability
+	 * @param capability Capability to check for
+	 * @return Has the capability
+	 */
+	public boolean has(Capability capability) {
+		return (this.capabilities & capability.getBit()) != 0;
+	}
+	
 	/**
 	 * Get Item's aliases
 	 * @return Array of alias-strings for Item
@@ -81,4 +104,15 @@ public abstract class Item implements Nameable,Inspectable,Serializable {
 	public String[] getAliases() {
 		return this.aliases;
 	}
+	
+	/**
+	 * Restore the capabilities of a loaded Item, they follow from its class
+	 * @param in Object stream
+	 * @throws IOException On read failure
+	 * @throws ClassNotFoundException On unknown classes in the stream
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.capabilities = Capability.maskOf(this.getClass());
+	}
 }
@@ -1,5 +1,7 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
+import dungeonadventure.ThreadManager;
 import dungeonadventure.observers.BatteryEmptyObserver;
 import dungeonadventure.properties.Holdable;
 
@@ -16,19 +18,21 @@ public class Lantern extends Lightsource implements BatteryEmptyObserver,Holdabl
 	
 	/**
 	 * Create a standard Lantern.
+	 * @param threadManager ThreadManager of the game session
 	 */
-	public Lantern() {
-		this("Lantern", "a rusty old lantern with some petroleum left in it");
+	public Lantern(ThreadManager threadManager) {
+		this(threadManager, "Lantern", "a rusty old lantern with some petroleum left in it");
 	}
 	
 	/**
 	 * Create a Lantern with a name and description.
+	 * @param threadManager ThreadManager of the game session
 	 * @param name Name of the Lantern
 	 * @param description Description of the Lantern
 	 */
-	public Lantern(String name, String description) {
+	public Lantern(ThreadManager threadManager, String name, String description) {
 		super(name, description, 180); // Lantern's visibility range is 180 degrees
-		this.battery = new Battery("Petroleum", "some 30 year old petroleum", 240.0f); // TODO Implement differently for INDIRECTOBJECT Actions, Update to actual amount
+		this.battery = new Battery(threadManager, "Petroleum", "some 30 year old petroleum", 240.0f); // TODO Implement differently for INDIRECTOBJECT Actions, Update to actual amount
 		this.battery.addObserver(this);
 	}
 	
@@ -36,20 +40,21 @@ public class Lantern extends Lightsource implements BatteryEmptyObserver,Holdabl
 	
 	/**
 	 * Power on the the lantern
+	 * @param out Output for messages
 	 * @return Is lantern powered on
 	 */
 	@Override
-	public boolean powerOn() {
+	public boolean powerOn(Output out) {
 		if (this.hasBattery()) {
 			if (this.battery.hasCharge()) {
-				super.powerOn();
+				super.powerOn(out);
 				this.battery.start();
 			} else {
-				System.out.println("You don't have enought petroleum to fire up the lantern");
+				out.println("You don't have enought petroleum to fire up the lantern");
 				this.setPowerOn(false);
 			}
 		} else {
-			System.out.println("There's no petroleum in the " + this.getName());
+			out.println("There's no petroleum in the " + this.getName());
 			this.setPowerOn(false);
 		}
 		
@@ -58,15 +63,16 @@ public class Lantern extends Lightsource implements BatteryEmptyObserver,Holdabl
 	
 	/**
 	 * Turn lantern OFF
+	 * @param out Output for messages
 	 * @return Is lantern powered off
 	 */
 	@Override
-	public boolean powerOff() {
+	public boolean powerOff(Output out) {
 		if (this.hasBattery()) {
-			super.powerOff();
-			this.battery.interrupt();
+			super.powerOff(out);
+			this.battery.stop();
 		} else {
-			System.out.println("There's no petroleum in the " + this.getName());
+			out.println("There's no petroleum in the " + this.getName());
 			this.setPowerOn(false);
 		}
 		
@@ -84,8 +90,8 @@ public class Lantern extends Lightsource implements BatteryEmptyObserver,Holdabl
 	// BATTERYEMPTYOBSERVER
 
 	@Override
-	public void batteryEmpty() {
-		this.powerOff();
-		System.out.println("The lantern ran out of petroleum. It must have only had a few drops of petroleum left.");
+	public void batteryEmpty(Output out) {
+		this.powerOff(out);
+		out.println("The lantern ran out of petroleum. It must have only had a few drops of petroleum left.");
 	}
 }
@@ -1,5 +1,6 @@
 package dungeonadventure.items;
 
+import dungeonadventure.Output;
 import dungeonadventure.properties.Powerable;
 
 
@@ -40,13 +41,13 @@ public abstract class Lightsource extends Item implements Powerable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean powerOn() {
+	public boolean powerOn(Output out) {
 		
-		System.out.println("Turning " + this.getName() + " ON");
+		out.println("Turning " + this.getName() + " ON");
 		if (!this.isPoweredOn()) {
 			this.setPowerOn(true);
 		} else {
-			System.out.println(this.getName() + " is already ON!");
+			out.println(this.getName() + " is already ON!");
 		}
 		
 		return this.isPoweredOn();
@@ -56,13 +57,13 @@ public abstract class Lightsource extends Item implements Powerable {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public boolean powerOff() {
+	public boolean powerOff(Output out) {
 		
-		System.out.println("Turning " + this.getName() + " OFF");
+		out.println("Turning " + this.getName() + " OFF");
 		if (this.isPoweredOn()) {
 			this.setPowerOn(false);
 		} else {
-			System.out.println(this.getName() + " is already OFF!");
+			out.println(this.getName() + " is already OFF!");
 		}
 		
 		return !this.isPoweredOn();
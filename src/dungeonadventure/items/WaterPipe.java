@@ -2,7 +2,10 @@ package dungeonadventure.items;
 import java.io.Serializable;
 import java.util.ArrayList;
 
+import dungeonadventure.Countdown;
+import dungeonadventure.Output;
 import dungeonadventure.ThreadManager;
+import dungeonadventure.observers.GameEvent;
 import dungeonadventure.observers.WaterPipeBreakObserver;
 import dungeonadventure.properties.Threadable;
 import dungeonadventure.properties.Timeable;
@@ -15,25 +18,25 @@ public class WaterPipe extends Item implements Runnable,Threadable,Serializable,
 
 	private static final long serialVersionUID = 3003347718982415282L;
 	
-	private float timeToBreak;
+	private ThreadManager threadManager;
+	private Countdown timeToBreak;
 	private boolean broken;
-	transient private Thread breakingThread;
 	private ArrayList<WaterPipeBreakObserver> breakingObservers;
 	
 	private final static float MAX_TIMETOBREAK = 480.0f; // TODO Change to actual amount
 
 	/**
 	 * The game's main water pipe
+	 * @param threadManager ThreadManager of the game session
 	 */
-	public WaterPipe() {
+	public WaterPipe(ThreadManager threadManager) {
 		super("Pipe", "That's the mine's main water pipe, that looks like it's about to burst! You should get out of here quickly, that thing will fill the whole mine with water in seconds.", new String[]{"pipe","waterpipe","watermain"});
 		this.breakingObservers = new ArrayList<WaterPipeBreakObserver>();
-		this.timeToBreak = MAX_TIMETOBREAK;
+		this.threadManager = threadManager;
+		this.timeToBreak = new Countdown(threadManager, (long)(MAX_TIMETOBREAK * 1000));
 		
 		this.broken = false;
-		this.breakingThread = new Thread(this);
-		this.breakingThread.start();
-		ThreadManager.addThread(this);
+		this.start();
 	}
 	
 	/**
@@ -45,39 +48,31 @@ public class WaterPipe extends Item implements Runnable,Threadable,Serializable,
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Pipe's deadline arrived, notify on breaking
 	 */
 	@Override
 	public void run() {
-		while (!this.broken && this.timeToBreak >= 1.0f) {
-			try {
-				Thread.sleep(1000);
-				this.timeToBreak--;
-				if (this.timeToBreak <= 0.0f) {
-					this.broken = true;
-				}
-			} catch (InterruptedException e) {
-				// Do nothing
+		synchronized (this) {
+			if (this.broken || !this.timeToBreak.expire()) {
+				return;
 			}
+			this.broken = true;
 		}
 		
-		if (this.broken && this.timeToBreak <= 0.0f) {
-			for (WaterPipeBreakObserver obs : this.breakingObservers) {
-				obs.waterPipeBreak();
-			}
-		}
+		// Observers are notified on the game session's executor, not on the timer thread
+		this.threadManager.getEventBus().publish(GameEvent.waterPipeBreak(this.breakingObservers));
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void start() {
-		this.broken = false;
-		this.breakingThread = new Thread(this);
-		this.breakingThread.start();
-		if (!ThreadManager.hasThread(this)) {
-			ThreadManager.addThread(this);
+	public synchronized void start() {
+		if (!this.broken) {
+			this.timeToBreak.start(this);
+		}
+		if (!this.threadManager.hasThread(this)) {
+			this.threadManager.addThread(this);
 		}
 	}
 
@@ -85,8 +80,26 @@ public class WaterPipe extends Item implements Runnable,Threadable,Serializable,
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void interrupt() {
-		this.broken = true;
+	public synchronized void interrupt() {
+		this.timeToBreak.stop();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void suspend() {
+		this.timeToBreak.suspend();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void resume() {
+		if (!this.broken) {
+			this.timeToBreak.resume(this);
+		}
 	}
 
 	/**
@@ -94,18 +107,19 @@ public class WaterPipe extends Item implements Runnable,Threadable,Serializable,
 	 */
 	@Override
 	public boolean isRunning() {
-		return this.breakingThread != null && !this.breakingThread.isInterrupted();
+		return this.timeToBreak.isRunning();
 	}
 	
 	/**
 	 * Inspect the bomb
+	 * @param out Output for messages
 	 */
 	@Override
-	public void inspect() {
+	public void inspect(Output out) {
 		if (!this.broken) {
-			System.out.println(this.toString());
+			out.println(this.toString());
 		} else {
-			System.out.println("It's the broken water main, you have to get out now! Quickly, before it fills the whole mine with water!");
+			out.println("It's the broken water main, you have to get out now! Quickly, before it fills the whole mine with water!");
 		}
 	}
 
@@ -113,7 +127,7 @@ public class WaterPipe extends Item implements Runnable,Threadable,Serializable,
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void spendTime(float sec) {
-		this.timeToBreak -= sec;
+	public boolean spendTime(float sec) {
+		return this.timeToBreak.spend((long)(sec * 1000));
 	}
 }
@@ -0,0 +1,486 @@
+package dungeonadventure.net;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dungeonadventure.GameHost;
+import dungeonadventure.GameSession;
+
+/**
+ * Line based telnet front end for game sessions, listening on localhost.
+ * One selector thread does all the socket work without ever blocking:
+ * each connection has its own read and write buffers, and a client that
+ * doesn't read its output only fills its own buffer (and gets dropped
+ * when it's full), never stalling the other players.
+ * @author Mikko Piuhola
+ */
+public class TelnetServer implements Runnable {
+	
+	private final static Charset CHARSET = Charset.forName("UTF-8");
+	private final static int READ_BUFFER_SIZE = 1024;
+	private final static int MAX_LINE_LENGTH = 512;
+	private final static int MAX_PENDING_OUTPUT = 256 * 1024;
+	
+	private final GameHost host;
+	private final int port;
+	private final ConcurrentLinkedQueue<Connection> updates;
+	private final AtomicInteger connections;
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private Thread thread;
+	private volatile boolean running;
+	
+	/**
+	 * Create a server
+	 * @param host Host running the sessions
+	 * @param port Port to listen on, 0 for any free port
+	 */
+	public TelnetServer(GameHost host, int port) {
+		this.host = host;
+		this.port = port;
+		this.updates = new ConcurrentLinkedQueue<Connection>();
+		this.connections = new AtomicInteger();
+		this.running = false;
+	}
+	
+	/**
+	 * Start listening
+	 * @throws IOException If the port can't be opened
+	 */
+	public synchronized void start() throws IOException {
+		if (this.running) {
+			return;
+		}
+		
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.configureBlocking(false);
+		this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port));
+		this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+		
+		this.running = true;
+		this.thread = new Thread(this, "telnet-selector");
+		this.thread.start();
+	}
+	
+	/**
+	 * Stop listening and drop all the connections. Returns once the
+	 * selector thread has closed every socket.
+	 */
+	public void stop() {
+		Thread selectorThread;
+		synchronized (this) {
+			this.running = false;
+			if (this.selector != null) {
+				this.selector.wakeup();
+			}
+			selectorThread = this.thread;
+		}
+		
+		if (selectorThread != null && selectorThread != Thread.currentThread()) {
+			try {
+				selectorThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Get the port the server is listening on
+	 * @return Bound port
+	 */
+	public int getPort() {
+		return this.serverChannel == null ? this.port : this.serverChannel.socket().getLocalPort();
+	}
+	
+	/**
+	 * Get the amount of connected players
+	 * @return Connection count
+	 */
+	public int getConnectionCount() {
+		return this.connections.get();
+	}
+	
+	/**
+	 * Selector loop
+	 */
+	@Override
+	public void run() {
+		try {
+			while (this.running) {
+				this.selector.select();
+				this.processUpdates();
+				
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					
+					try {
+						if (!key.isValid()) {
+							continue;
+						}
+						if (key.isAcceptable()) {
+							this.accept();
+							continue;
+						}
+						
+						Connection connection = (Connection)key.attachment();
+						if (key.isReadable()) {
+							this.read(connection);
+						}
+						if (key.isValid() && key.isWritable()) {
+							this.write(connection);
+						}
+					} catch (IOException e) {
+						// The connection is gone, the rest carry on
+						if (key.attachment() instanceof Connection) {
+							this.close((Connection)key.attachment());
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Telnet server stopped: " + e.getMessage());
+		} finally {
+			this.closeAll();
+		}
+	}
+	
+	/**
+	 * Accept a new player and open a game session for them
+	 * @throws IOException On socket failure
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = this.serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		
+		channel.configureBlocking(false);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+		connection.session = this.host.openSession(connection.out);
+		this.connections.incrementAndGet();
+	}
+	
+	/**
+	 * Read what the client has sent and hand complete lines to its session
+	 * @param connection Readable connection
+	 * @throws IOException On socket failure
+	 */
+	private void read(Connection connection) throws IOException {
+		ByteBuffer buffer = connection.readBuffer;
+		int read = connection.channel.read(buffer);
+		if (read < 0) {
+			this.close(connection);
+			return;
+		}
+		
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			String line = connection.frame(buffer.get());
+			if (line != null) {
+				this.handleLine(connection, line);
+			}
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * Pass a line to the session, and close the connection once the player exits
+	 * @param connection Connection the line came from
+	 * @param line Input line
+	 */
+	private void handleLine(final Connection connection, String line) {
+		final GameSession session = connection.session;
+		session.handleLine(line);
+		
+		// Runs after the line on the session's executor
+		session.getExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				if (session.isFinished()) {
+					TelnetServer.this.requestClose(connection);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Write as much of the pending output as the socket takes right now
+	 * @param connection Writable connection
+	 * @throws IOException On socket failure
+	 */
+	private void write(Connection connection) throws IOException {
+		ByteBuffer chunk;
+		while ((chunk = connection.output.peek()) != null) {
+			int written = connection.channel.write(chunk);
+			connection.pendingBytes.addAndGet(-written);
+			if (chunk.hasRemaining()) {
+				return; // Socket buffer is full, wait for the next OP_WRITE
+			}
+			connection.output.poll();
+		}
+		
+		if (connection.closing) {
+			this.close(connection);
+		} else {
+			connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+	
+	/**
+	 * Ask the selector thread to look at a connection's output
+	 * @param connection Connection with new output or closing
+	 */
+	private void requestUpdate(Connection connection) {
+		if (connection.updateQueued.compareAndSet(false, true)) {
+			this.updates.add(connection);
+			this.selector.wakeup();
+		}
+	}
+	
+	/**
+	 * Close a connection once its pending output has been written
+	 * @param connection Connection to close
+	 */
+	private void requestClose(Connection connection) {
+		connection.closing = true;
+		this.requestUpdate(connection);
+	}
+	
+	/**
+	 * Apply the output and close requests made by the session threads
+	 */
+	private void processUpdates() {
+		Connection connection;
+		while ((connection = this.updates.poll()) != null) {
+			connection.updateQueued.set(false);
+			if (connection.key == null || !connection.key.isValid()) {
+				continue;
+			}
+			
+			if (!connection.output.isEmpty()) {
+				connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			} else if (connection.closing) {
+				this.close(connection);
+			}
+		}
+	}
+	
+	/**
+	 * Close a connection and its game session
+	 * @param connection Connection to close
+	 */
+	private void close(Connection connection) {
+		if (connection.closed) {
+			return;
+		}
+		connection.closed = true;
+		connection.output.clear();
+		
+		if (connection.key != null) {
+			connection.key.cancel();
+		}
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			// Closing anyway
+		}
+		if (connection.session != null) {
+			this.host.closeSession(connection.session);
+		}
+		this.connections.decrementAndGet();
+	}
+	
+	/**
+	 * Close every connection and the server socket
+	 */
+	private void closeAll() {
+		for (SelectionKey key : this.selector.keys()) {
+			if (key.attachment() instanceof Connection) {
+				this.close((Connection)key.attachment());
+			}
+		}
+		try {
+			this.serverChannel.close();
+			this.selector.close();
+		} catch (IOException e) {
+			// Closing anyway
+		}
+	}
+	
+	/**
+	 * One connected player: the socket, its buffers and its game session
+	 */
+	private final class Connection {
+		
+		private final SocketChannel channel;
+		private final ByteBuffer readBuffer;
+		private final byte[] line;
+		private int lineLength;
+		private boolean discardingLine;
+		private int telnetCommandBytes;
+		
+		private final ConcurrentLinkedQueue<ByteBuffer> output;
+		private final AtomicInteger pendingBytes;
+		private final AtomicBoolean updateQueued;
+		private final PrintStream out;
+		private volatile boolean closing;
+		private boolean closed;
+		
+		private SelectionKey key;
+		private GameSession session;
+		
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+			this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+			this.line = new byte[MAX_LINE_LENGTH];
+			this.lineLength = 0;
+			this.discardingLine = false;
+			this.telnetCommandBytes = 0;
+			
+			this.output = new ConcurrentLinkedQueue<ByteBuffer>();
+			this.pendingBytes = new AtomicInteger();
+			this.updateQueued = new AtomicBoolean(false);
+			try {
+				this.out = new PrintStream(new ConnectionOutputStream(this), false, CHARSET.name());
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		/**
+		 * Feed one received byte to the line framing.
+		 * Telnet option negotiation is skipped, overlong lines are dropped.
+		 * @param b Received byte
+		 * @return Completed line or null
+		 */
+		String frame(byte b) {
+			int value = b & 0xFF;
+			
+			// IAC, command, option
+			if (this.telnetCommandBytes > 0) {
+				this.telnetCommandBytes--;
+				if (this.telnetCommandBytes == 1 && value < 251) {
+					this.telnetCommandBytes = 0; // Two byte command
+				}
+				return null;
+			} else if (value == 255) {
+				this.telnetCommandBytes = 2;
+				return null;
+			}
+			
+			if (value == '\n') {
+				String completed = this.discardingLine ? null : new String(this.line, 0, this.lineLength, CHARSET);
+				this.lineLength = 0;
+				this.discardingLine = false;
+				return completed;
+			} else if (value == '\r' || value == 0) {
+				return null;
+			}
+			
+			if (this.lineLength < this.line.length) {
+				this.line[this.lineLength++] = b;
+			} else {
+				this.discardingLine = true;
+			}
+			return null;
+		}
+		
+		/**
+		 * Queue output for the selector thread to write
+		 * @param bytes Output bytes
+		 */
+		void send(ByteBuffer bytes) {
+			if (this.closed || this.closing) {
+				return;
+			}
+			
+			// A client that doesn't read only hurts itself
+			if (this.pendingBytes.addAndGet(bytes.remaining()) > MAX_PENDING_OUTPUT) {
+				this.output.clear();
+				TelnetServer.this.requestClose(this);
+				return;
+			}
+			this.output.add(bytes);
+			TelnetServer.this.requestUpdate(this);
+		}
+	}
+	
+	/**
+	 * Collects a session's printed output and hands it to the connection
+	 * on every flush, converting line feeds to telnet's CR LF
+	 */
+	private final static class ConnectionOutputStream extends OutputStream {
+		
+		private final Connection connection;
+		private byte[] buffer;
+		private int length;
+		
+		ConnectionOutputStream(Connection connection) {
+			this.connection = connection;
+			this.buffer = new byte[256];
+			this.length = 0;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void write(int b) {
+			if (b == '\n') {
+				this.append((byte)'\r');
+			}
+			this.append((byte)b);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			for (int i = off; i < off + len; i++) {
+				this.write(b[i]);
+			}
+		}
+		
+		/**
+		 * Send everything written so far
+		 */
+		@Override
+		public synchronized void flush() {
+			if (this.length > 0) {
+				ByteBuffer bytes = ByteBuffer.allocate(this.length);
+				bytes.put(this.buffer, 0, this.length);
+				bytes.flip();
+				this.length = 0;
+				this.connection.send(bytes);
+			}
+		}
+		
+		private void append(byte b) {
+			if (this.length == this.buffer.length) {
+				byte[] grown = new byte[this.buffer.length * 2];
+				System.arraycopy(this.buffer, 0, grown, 0, this.length);
+				this.buffer = grown;
+			}
+			this.buffer[this.length++] = b;
+		}
+	}
+}
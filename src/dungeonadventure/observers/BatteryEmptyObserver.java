@@ -1,5 +1,7 @@
 package dungeonadventure.observers;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for observing a Battery's "empty charge"-state.
  * @author Mikko Piuhola
@@ -8,6 +10,7 @@ public interface BatteryEmptyObserver {
 	
 	/**
 	 * React to "battery empty" observable event
+	 * @param out Output for messages
 	 */
-	public void batteryEmpty();
+	public void batteryEmpty(Output out);
 }
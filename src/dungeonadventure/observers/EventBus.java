@@ -0,0 +1,176 @@
+package dungeonadventure.observers;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dungeonadventure.Output;
+
+/**
+ * Delivers the game's observable events (explosions, breaking pipes, empty batteries)
+ * on the game session's own executor instead of the timer thread that raised them.
+ * Publishing never blocks, and all the events published before a delivery
+ * round starts are delivered together as one batch, and the session's
+ * output is flushed once after the batch.
+ * @author Mikko Piuhola
+ */
+public final class EventBus {
+	
+	private final Executor executor;
+	private final Output output;
+	private final ConcurrentLinkedQueue<GameEvent<?>> pending;
+	private final AtomicBoolean deliveryScheduled;
+	private final Runnable deliveryTask;
+	
+	private final AtomicLong published;
+	private final AtomicLong delivered;
+	private final AtomicLong batches;
+	private final AtomicLong totalLatencyNanos;
+	private final AtomicLong maxLatencyNanos;
+	
+	/**
+	 * Create an event bus
+	 * @param executor Executor of the game session, events are delivered on it
+	 * @param output Output of the game session, observers print to it
+	 */
+	public EventBus(Executor executor, Output output) {
+		this.executor = executor;
+		this.output = output;
+		this.pending = new ConcurrentLinkedQueue<GameEvent<?>>();
+		this.deliveryScheduled = new AtomicBoolean(false);
+		this.deliveryTask = new Runnable() {
+			@Override
+			public void run() {
+				EventBus.this.deliverBatch();
+			}
+		};
+		
+		this.published = new AtomicLong();
+		this.delivered = new AtomicLong();
+		this.batches = new AtomicLong();
+		this.totalLatencyNanos = new AtomicLong();
+		this.maxLatencyNanos = new AtomicLong();
+	}
+	
+	/**
+	 * Queue an event for delivery. Safe to call from any thread.
+	 * @param event Event to deliver
+	 */
+	public void publish(GameEvent<?> event) {
+		event.setPublishedNanos(System.nanoTime());
+		this.pending.add(event);
+		this.published.incrementAndGet();
+		
+		// Only the first event of a batch schedules the delivery
+		if (this.deliveryScheduled.compareAndSet(false, true)) {
+			this.executor.execute(this.deliveryTask);
+		}
+	}
+	
+	/**
+	 * Are there events waiting for delivery, e.g. a bomb that went off
+	 * during the current command
+	 * @return True if some event is not delivered yet
+	 */
+	public boolean hasPending() {
+		return !this.pending.isEmpty();
+	}
+	
+	/**
+	 * Drop the events not yet delivered, e.g. when the game ends
+	 */
+	public void discardPending() {
+		this.pending.clear();
+	}
+	
+	/**
+	 * Deliver everything published so far
+	 */
+	private void deliverBatch() {
+		// Events published from now on need a new round
+		this.deliveryScheduled.set(false);
+		
+		ArrayList<GameEvent<?>> batch = new ArrayList<GameEvent<?>>();
+		GameEvent<?> event;
+		while ((event = this.pending.poll()) != null) {
+			batch.add(event);
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		
+		this.batches.incrementAndGet();
+		for (GameEvent<?> e : batch) {
+			this.record(System.nanoTime() - e.getPublishedNanos());
+			e.deliver(this.output);
+		}
+		this.output.flush();
+	}
+	
+	/**
+	 * Record the latency of one delivered event
+	 * @param latencyNanos Time between publishing and delivery
+	 */
+	private void record(long latencyNanos) {
+		this.delivered.incrementAndGet();
+		this.totalLatencyNanos.addAndGet(latencyNanos);
+		
+		long max = this.maxLatencyNanos.get();
+		while (latencyNanos > max && !this.maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+			max = this.maxLatencyNanos.get();
+		}
+	}
+	
+	/**
+	 * Get amount of published events
+	 * @return Published events
+	 */
+	public long getPublished() {
+		return this.published.get();
+	}
+	
+	/**
+	 * Get amount of delivered events
+	 * @return Delivered events
+	 */
+	public long getDelivered() {
+		return this.delivered.get();
+	}
+	
+	/**
+	 * Get amount of delivery rounds
+	 * @return Delivered batches
+	 */
+	public long getBatches() {
+		return this.batches.get();
+	}
+	
+	/**
+	 * Get average time from publishing to delivery
+	 * @return Average latency in microseconds
+	 */
+	public double getAverageLatencyMicros() {
+		long count = this.delivered.get();
+		return count == 0 ? 0.0 : (double) this.totalLatencyNanos.get() / count / 1000;
+	}
+	
+	/**
+	 * Get worst time from publishing to delivery
+	 * @return Maximum latency in microseconds
+	 */
+	public long getMaxLatencyMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.maxLatencyNanos.get());
+	}
+	
+	/**
+	 * Get the statistics as a single line
+	 */
+	@Override
+	public String toString() {
+		return this.getDelivered() + "/" + this.getPublished() + " events delivered in " + this.getBatches()
+				+ " batches, average " + String.format("%.1f", this.getAverageLatencyMicros())
+				+ " us, worst " + this.getMaxLatencyMicros() + " us";
+	}
+}
@@ -1,5 +1,7 @@
 package dungeonadventure.observers;
 
+import dungeonadventure.Output;
+
 /**
  * Observers of Bomb's explosion. Explosion is a game losing event.
  * @author Mikko Piuhola
@@ -8,6 +10,7 @@ public interface ExplodeObserver {
 	
 	/**
 	 * React to bomb's explosion
+	 * @param out Output for messages
 	 */
-	public void bombExplosion();
+	public void bombExplosion(Output out);
 }
@@ -0,0 +1,100 @@
+package dungeonadventure.observers;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import dungeonadventure.Output;
+
+/**
+ * An observable event waiting for delivery on the EventBus.
+ * Holds a snapshot of the observers at the time the event was raised.
+ * @author Mikko Piuhola
+ * @param <T> Type of the observers
+ */
+public abstract class GameEvent<T> {
+	
+	private final ArrayList<T> observers;
+	private long publishedNanos;
+	
+	/**
+	 * Create an event
+	 * @param observers Observers to notify
+	 */
+	protected GameEvent(Collection<? extends T> observers) {
+		this.observers = new ArrayList<T>(observers);
+	}
+	
+	/**
+	 * Notify one observer of the event
+	 * @param observer Observer to notify
+	 * @param out Output for the observer's messages
+	 */
+	protected abstract void notify(T observer, Output out);
+	
+	/**
+	 * Notify all the observers
+	 * @param out Output for the observers' messages
+	 */
+	final void deliver(Output out) {
+		for (T observer : this.observers) {
+			this.notify(observer, out);
+		}
+	}
+	
+	/**
+	 * Mark the time the event was published
+	 * @param nanos System.nanoTime() at publishing
+	 */
+	final void setPublishedNanos(long nanos) {
+		this.publishedNanos = nanos;
+	}
+	
+	/**
+	 * Get the time the event was published
+	 * @return System.nanoTime() at publishing
+	 */
+	final long getPublishedNanos() {
+		return this.publishedNanos;
+	}
+	
+	/**
+	 * Bomb exploded
+	 * @param observers Observers of the bomb
+	 * @return Event to publish
+	 */
+	public static GameEvent<ExplodeObserver> explosion(Collection<? extends ExplodeObserver> observers) {
+		return new GameEvent<ExplodeObserver>(observers) {
+			@Override
+			protected void notify(ExplodeObserver observer, Output out) {
+				observer.bombExplosion(out);
+			}
+		};
+	}
+	
+	/**
+	 * Water pipe broke
+	 * @param observers Observers of the pipe
+	 * @return Event to publish
+	 */
+	public static GameEvent<WaterPipeBreakObserver> waterPipeBreak(Collection<? extends WaterPipeBreakObserver> observers) {
+		return new GameEvent<WaterPipeBreakObserver>(observers) {
+			@Override
+			protected void notify(WaterPipeBreakObserver observer, Output out) {
+				observer.waterPipeBreak(out);
+			}
+		};
+	}
+	
+	/**
+	 * Battery ran out of charge
+	 * @param observers Observers of the battery
+	 * @return Event to publish
+	 */
+	public static GameEvent<BatteryEmptyObserver> batteryEmpty(Collection<? extends BatteryEmptyObserver> observers) {
+		return new GameEvent<BatteryEmptyObserver>(observers) {
+			@Override
+			protected void notify(BatteryEmptyObserver observer, Output out) {
+				observer.batteryEmpty(out);
+			}
+		};
+	}
+}
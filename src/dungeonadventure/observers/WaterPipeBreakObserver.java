@@ -1,5 +1,7 @@
 package dungeonadventure.observers;
 
+import dungeonadventure.Output;
+
 /**
  * Observers of the water pipe breaking (game losing situation)
  * @author Mikko Piuhola
@@ -7,6 +9,7 @@ package dungeonadventure.observers;
 public interface WaterPipeBreakObserver {
 	/**
 	 * React to water pipe breaking
+	 * @param out Output for messages
 	 */
-	public void waterPipeBreak();
+	public void waterPipeBreak(Output out);
 }
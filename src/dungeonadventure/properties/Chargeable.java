@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for chargeable objects
  * @author Mikko Piuhola
@@ -8,8 +10,9 @@ public interface Chargeable {
 	
 	/**
 	 * Charge objects, object sets what happens exactly
+	 * @param out Output for messages
 	 */
-	public void charge();
+	public void charge(Output out);
 	
 	/**
 	 * Is the object infinitely re-chargeable
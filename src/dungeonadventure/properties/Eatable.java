@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for Eatable Items
  * @author Mikko Piuhola
@@ -8,6 +10,7 @@ public interface Eatable {
 	
 	/**
 	 * Eat object
+	 * @param out Output for messages
 	 */
-	public void eat();
+	public void eat(Output out);
 }
@@ -1,5 +1,6 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
 import dungeonadventure.items.Item;
 
 
@@ -12,16 +13,18 @@ public interface Hostable {
 	/**
 	 * Install object into this object
 	 * @param obj Object to install
+	 * @param out Output for messages
 	 * @return Success
 	 */
-	public boolean install(Installable obj);
+	public boolean install(Installable obj, Output out);
 	
 	/**
 	 * Remove object from this object
 	 * @param obj Object to remove
+	 * @param out Output for messages
 	 * @return Success
 	 */
-	public boolean uninstall(Installable obj);
+	public boolean uninstall(Installable obj, Output out);
 	
 	/**
 	 * Get currently installed object or null
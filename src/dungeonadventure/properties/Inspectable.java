@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for inspectable Items, can be described and inspected
  * @author Mikko Piuhola
@@ -8,8 +10,9 @@ public interface Inspectable {
 	
 	/**
 	 * Print out the description of the object
+	 * @param out Output for messages
 	 */
-	public void inspect();
+	public void inspect(Output out);
 	
 	/**
 	 * Get the object's description as a String
@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for Items that can be opened
  * @author Mikko Piuhola
@@ -8,15 +10,17 @@ public interface Openable {
 	
 	/**
 	 * Open object
+	 * @param out Output for messages
 	 * @return Success
 	 */
-	public boolean open();
+	public boolean open(Output out);
 	
 	/**
 	 * Close object
+	 * @param out Output for messages
 	 * @return Success
 	 */
-	public boolean close();
+	public boolean close(Output out);
 	
 	/**
 	 * Check if the object grants game victory on open.
@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for objects with playback-capabilities
  * @author Mikko Piuhola
@@ -7,25 +9,29 @@ package dungeonadventure.properties;
 public interface Playable {
 	/**
 	 * Start playback
+	 * @param out Output for messages
 	 * @return Is object playing
 	 */
-	public boolean play();
+	public boolean play(Output out);
 	
 	/**
 	 * Stop playback
+	 * @param out Output for messages
 	 * @return Is object stopped
 	 */
-	public boolean stop();
+	public boolean stop(Output out);
 	
 	/**
 	 * Next track/channel etc.
+	 * @param out Output for messages
 	 * @return Current channel
 	 */
-	public int next();
+	public int next(Output out);
 	
 	/**
 	 * Prev track/channel etc.
+	 * @param out Output for messages
 	 * @return Current channel
 	 */
-	public int prev();
+	public int prev(Output out);
 }
@@ -1,5 +1,7 @@
 package dungeonadventure.properties;
 
+import dungeonadventure.Output;
+
 /**
  * Interface for powerable objects. Can be powered ON/OFF.
  * @author Mikko Piuhola
@@ -7,15 +9,17 @@ package dungeonadventure.properties;
 public interface Powerable {
 	/**
 	 * Power object ON
+	 * @param out Output for messages
 	 * @return Was powered on successfully
 	 */
-	public boolean powerOn();
+	public boolean powerOn(Output out);
 	
 	/**
 	 * Power object OFF
+	 * @param out Output for messages
 	 * @return Was powered down successfully
 	 */
-	public boolean powerOff();
+	public boolean powerOff(Output out);
 	
 	/**
 	 * Check object's power state
@@ -15,6 +15,17 @@ public interface Threadable {
 	 */
 	public void interrupt();
 	
+	/**
+	 * Pause the thread, keeping its state (e.g. remaining time)
+	 */
+	public void suspend();
+	
+	/**
+	 * Continue a suspended thread where it was left.
+	 * Does nothing if the thread wasn't suspended.
+	 */
+	public void resume();
+	
 	/**
 	 * Check if thread is running
 	 * @return Is running
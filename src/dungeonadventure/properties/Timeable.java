@@ -1,7 +1,7 @@
 package dungeonadventure.properties;
 
 /**
- * Interface for timeable objects, namely Bomb and WaterPipe.
+ * Interface for timeable objects, namely Bomb, WaterPipe and Batteries in use.
  * Used to fast-forward their time in case the Player does something
  * that takes time.
  * @author Mikko Piuhola
@@ -10,6 +10,7 @@ public interface Timeable {
 	/**
 	 * Fast-forward Timeable's timer by given amount
 	 * @param sec Seconds to fast-forward by
+	 * @return Did the timer run out, i.e. the object goes off after the current command
 	 */
-	public void spendTime(float sec);
+	public boolean spendTime(float sec);
 }
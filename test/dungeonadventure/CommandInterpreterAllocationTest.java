@@ -0,0 +1,137 @@
+package dungeonadventure;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dungeonadventure.items.CDPlayer;
+import dungeonadventure.items.Door;
+import dungeonadventure.items.Food;
+
+/**
+ * Once warmed up, interpreting a command must not allocate more than its
+ * ParsedCommand: commands without objects allocate nothing, commands with
+ * an object or a location allocate one immutable ParsedCommand. Misspelled
+ * words are corrected without allocating too. Only a goto to a place no
+ * world has creates a String of the unknown name.
+ * Skipped when the JVM can't count the allocations of a thread.
+ * @author Mikko Piuhola
+ */
+public class CommandInterpreterAllocationTest {
+	
+	// Calls per round of the check
+	private static final int OPS = 200000;
+	
+	// Upper bound for one ParsedCommand, with compressed or uncompressed references
+	private static final int PARSED_COMMAND_BYTES = 40;
+	
+	private static final Output DISCARD = new Output() {
+		@Override
+		public void print(String s) {
+		}
+		
+		@Override
+		public void println(String line) {
+		}
+		
+		@Override
+		public void println() {
+		}
+		
+		@Override
+		public void flush() {
+		}
+	};
+	
+	private com.sun.management.ThreadMXBean threads;
+	private CommandInterpreter ci;
+	private ItemIndex items;
+	private WorldTemplate world;
+	
+	// Results of the interpreted commands, kept so the JIT can't drop the work
+	private long sink;
+	
+	/**
+	 * Create the interpreter and the reachable Items, skip if allocations can't be counted
+	 */
+	@Before
+	public void setUp() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("JVM can't count allocations", bean instanceof com.sun.management.ThreadMXBean);
+		this.threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("JVM can't count allocations", this.threads.isThreadAllocatedMemorySupported());
+		this.threads.setThreadAllocatedMemoryEnabled(true);
+		
+		this.ci = new CommandInterpreter(null);
+		this.items = new ItemIndex();
+		this.items.add(new Food("Pizza", "A delicious pepperoni pizza"));
+		this.items.add(new CDPlayer());
+		this.items.add(new Door("Hatch", "A hatch", true));
+		this.world = WorldTemplate.getDefault();
+	}
+	
+	/**
+	 * Commands without objects allocate nothing
+	 */
+	@Test
+	public void commandsWithoutObjects() {
+		this.assertAllocates(0, "look", "go north", "  Move   WEST ", "xyzzy");
+	}
+	
+	/**
+	 * Commands with objects or a location only allocate their ParsedCommand
+	 */
+	@Test
+	public void commandsWithObjects() {
+		this.assertAllocates(PARSED_COMMAND_BYTES, "take pizza", "cd-player open",
+				"insert pizza into cd-player", "discman open", "goto tunnel");
+	}
+	
+	/**
+	 * Misspelled commands are corrected without allocating more than their ParsedCommand
+	 */
+	@Test
+	public void misspelledCommands() {
+		this.assertAllocates(PARSED_COMMAND_BYTES, "inspcet pizza", "tkae piza", "cd-plyer open", "goto lokcers");
+	}
+	
+	/**
+	 * Check the allocations of each command
+	 * @param allowedBytes Heap each command may allocate
+	 * @param commands Commands to check
+	 */
+	private void assertAllocates(int allowedBytes, String... commands) {
+		for (String command : commands) {
+			double bytes = this.bytesPerCommand(command);
+			assertTrue("\"" + command + "\" allocates " + bytes + " bytes, more than " + allowedBytes,
+					bytes <= allowedBytes);
+		}
+	}
+	
+	/**
+	 * Measure the heap allocated by interpreting a command, after warming it up
+	 * @param command Command to interpret
+	 * @return Allocated bytes per command
+	 */
+	private double bytesPerCommand(String command) {
+		this.interpret(command);
+		long thread = Thread.currentThread().getId();
+		long before = this.threads.getThreadAllocatedBytes(thread);
+		this.interpret(command);
+		long after = this.threads.getThreadAllocatedBytes(thread);
+		return (double) (after - before) / OPS;
+	}
+	
+	/**
+	 * Interpret a command a round of times
+	 * @param command Command to interpret
+	 */
+	private void interpret(String command) {
+		for (int i = 0; i < OPS; i++) {
+			this.sink += this.ci.interpretCommand(command, this.items, this.world, DISCARD).getAction().ordinal();
+		}
+	}
+}
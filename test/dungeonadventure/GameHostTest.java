@@ -0,0 +1,71 @@
+package dungeonadventure;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Sessions keep their saves in their host's save directory, and a host
+ * without one doesn't let its sessions save or load at all.
+ * @author Mikko Piuhola
+ */
+public class GameHostTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	/**
+	 * A save goes into the host's save directory and loads from there
+	 * @throws Exception On failure
+	 */
+	@Test
+	public void savesIntoHostDirectory() throws Exception {
+		File saves = this.folder.newFolder("saves");
+		GameHost host = new GameHost(1, saves);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameSession session = host.openSession(new PrintStream(bytes, true, "UTF-8"));
+		play(session, "1", "save", "hosttest", "menu", "2", "hosttest");
+		host.shutdown();
+		
+		assertTrue(new File(saves, "hosttest.bin").isFile());
+		assertFalse(new File("hosttest.bin").exists());
+		assertTrue(bytes.toString("UTF-8").contains("Saved game successfully"));
+		assertTrue(bytes.toString("UTF-8").contains("Loaded game"));
+	}
+	
+	/**
+	 * Without a save directory saving and loading are refused
+	 * @throws Exception On failure
+	 */
+	@Test
+	public void noSavesWithoutDirectory() throws Exception {
+		GameHost host = new GameHost(1, null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameSession session = host.openSession(new PrintStream(bytes, true, "UTF-8"));
+		play(session, "2", "1", "save", "hosttest");
+		host.shutdown();
+		
+		String text = bytes.toString("UTF-8");
+		assertTrue(text.contains("Saved games aren't available here"));
+		assertTrue(text.contains("Saving isn't available here"));
+		assertFalse(text.contains("Give a name for your save:"));
+	}
+	
+	/**
+	 * Play lines in a session, waiting for each to be handled
+	 * @param session Session to play in
+	 * @param lines Input lines
+	 * @throws Exception If handling a line fails
+	 */
+	private static void play(GameSession session, String... lines) throws Exception {
+		for (String line : lines) {
+			session.handleLine(line).get();
+		}
+	}
+}
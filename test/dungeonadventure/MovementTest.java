@@ -0,0 +1,56 @@
+package dungeonadventure;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+/**
+ * The player only starts moving in a direction or along a route to a known
+ * place, and a goto without a place asks where to.
+ * @author Mikko Piuhola
+ */
+public class MovementTest {
+	
+	/**
+	 * Going to an unknown place or nowhere doesn't start moving
+	 * @throws Exception On failure
+	 */
+	@Test
+	public void unknownPlaceDoesNotStartMoving() throws Exception {
+		String text = play("1", "goto", "goto nowhere");
+		
+		assertTrue(text.contains("Go where?"));
+		assertTrue(text.contains("You don't know of such a place, you stay put"));
+		assertFalse(text.contains("You start moving..."));
+		assertFalse(text.contains("I don't understand that"));
+	}
+	
+	/**
+	 * A directional move starts moving
+	 * @throws Exception On failure
+	 */
+	@Test
+	public void directionStartsMoving() throws Exception {
+		assertTrue(play("1", "go north").contains("You start moving..."));
+	}
+	
+	/**
+	 * Play lines in a new session without saves, waiting for each to be handled
+	 * @param lines Input lines
+	 * @return Text printed by the session
+	 * @throws Exception If handling a line fails
+	 */
+	private static String play(String... lines) throws Exception {
+		GameHost host = new GameHost(1, null);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameSession session = host.openSession(new PrintStream(bytes, true, "UTF-8"));
+		for (String line : lines) {
+			session.handleLine(line).get();
+		}
+		host.shutdown();
+		return bytes.toString("UTF-8");
+	}
+}
@@ -0,0 +1,56 @@
+package dungeonadventure;
+
+/**
+ * Output that keeps everything printed to it, for checking a game's text in tests
+ * @author Mikko Piuhola
+ */
+public class RecordingOutput implements Output {
+	
+	private final StringBuilder text = new StringBuilder();
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void print(String s) {
+		this.text.append(s);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void println(String line) {
+		this.text.append(line).append('\n');
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void println() {
+		this.text.append('\n');
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+	}
+	
+	/**
+	 * Get everything printed so far
+	 * @return Printed text
+	 */
+	public synchronized String text() {
+		return this.text.toString();
+	}
+	
+	/**
+	 * Forget everything printed so far
+	 */
+	public synchronized void clear() {
+		this.text.setLength(0);
+	}
+}
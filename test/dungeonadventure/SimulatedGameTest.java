@@ -0,0 +1,72 @@
+package dungeonadventure;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Headless games on a SimulatedClock must play out the same every time:
+ * events are delivered as their deadlines fire, and the first hazard to go
+ * off ends the game there.
+ * @author Mikko Piuhola
+ */
+public class SimulatedGameTest {
+	
+	// The bomb goes off first, after 180 seconds
+	private static final long FIRST_DEADLINE_MS = 180000;
+	
+	private static final long HOUR_MS = 3600000;
+	
+	/**
+	 * A game left idle ends at the bomb's deadline, and the clock stops there
+	 */
+	@Test
+	public void idleGameEndsAtFirstDeadline() {
+		SimulatedClock clock = new SimulatedClock();
+		RecordingOutput out = new RecordingOutput();
+		GameState state = new GameState();
+		GameEngine engine = startGame(new ThreadManager(clock), state, out);
+		
+		clock.runUntilIdle(HOUR_MS);
+		
+		assertEquals(FIRST_DEADLINE_MS, clock.currentTimeMillis());
+		assertFalse(engine.isPlayerAlive());
+		assertEquals(State.MENU_STATE, state.getGameState());
+		assertEquals(0, engine.getThreadManager().getAllThreads().size());
+		assertTrue(out.text().contains("It's the explosives you left armed!"));
+		assertFalse(out.text().contains("water main bursting"));
+	}
+	
+	/**
+	 * Switching an existing ThreadManager to a simulated clock plays out the same way
+	 */
+	@Test
+	public void switchedClockEndsAtFirstDeadline() {
+		ThreadManager threadManager = new ThreadManager();
+		SimulatedClock clock = threadManager.useSimulatedClock();
+		RecordingOutput out = new RecordingOutput();
+		GameEngine engine = startGame(threadManager, new GameState(), out);
+		
+		clock.runUntilIdle(HOUR_MS);
+		
+		assertEquals(FIRST_DEADLINE_MS, clock.currentTimeMillis());
+		assertFalse(engine.isPlayerAlive());
+		assertTrue(out.text().contains("It's the explosives you left armed!"));
+	}
+	
+	/**
+	 * Start a game with its threads running
+	 * @param threadManager ThreadManager of the game
+	 * @param state GameState of the game
+	 * @param out Output of the game
+	 * @return Started game
+	 */
+	private static GameEngine startGame(ThreadManager threadManager, GameState state, Output out) {
+		state.setGameState(State.RUN_STATE);
+		GameEngine engine = new GameEngine();
+		engine.init(state, threadManager, out);
+		threadManager.restartAllThreads();
+		return engine;
+	}
+}
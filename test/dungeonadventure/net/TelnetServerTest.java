@@ -0,0 +1,47 @@
+package dungeonadventure.net;
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.Test;
+
+import dungeonadventure.GameHost;
+
+/**
+ * Stopping the server closes every connection before it returns
+ * @author Mikko Piuhola
+ */
+public class TelnetServerTest {
+	
+	/**
+	 * A connected player's socket is closed by the time stop returns
+	 * @throws Exception On failure
+	 */
+	@Test(timeout = 10000)
+	public void stopClosesConnections() throws Exception {
+		GameHost host = new GameHost(1, null);
+		TelnetServer server = new TelnetServer(host, 0);
+		server.start();
+		
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+		try {
+			while (server.getConnectionCount() == 0) {
+				Thread.sleep(10);
+			}
+			
+			server.stop();
+			assertEquals(0, server.getConnectionCount());
+			
+			// Whatever the menu left unread, the stream ends
+			InputStream in = socket.getInputStream();
+			while (in.read() >= 0) {
+				// Skip the menu
+			}
+		} finally {
+			socket.close();
+			host.shutdown();
+		}
+	}
+}